@@ -0,0 +1,41 @@
+package com.andreaseisele.pullmann.download;
+
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link FileStore#tryReconstructDownload(Path)}, run for every zip found in the download cache on startup.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FileStoreBenchmark {
+
+    private Path zipPath;
+
+    @Setup
+    public void setUp() {
+        zipPath = Path.of("download_cache", "downloads", "octocat", "Hello-World", "pulls", "1347",
+            "6dcb09b5b57875f334f61aebed695e2e4193db5e", "octocat-Hello-World-6dcb09b.zip");
+    }
+
+    @Benchmark
+    public Optional<PullRequestDownload> tryReconstructDownload() {
+        return FileStore.tryReconstructDownload(zipPath);
+    }
+
+}
@@ -0,0 +1,131 @@
+package com.andreaseisele.pullmann.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.PathResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Serving a cached zip via {@link ZipResponses} compared with the former {@link PathResource} response body, which
+ * the resource message converter copies through its input stream. The response body is discarded, so only the
+ * copying is measured.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ZipResponsesBenchmark {
+
+    private static final String HEAD_SHA = "6dcb09b5b57875f334f61aebed695e2e4193db5e";
+
+    @Param({"1048576", "67108864"})
+    private int zipSize;
+
+    private Path directory;
+    private Path zip;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("zip-responses-benchmark");
+        final byte[] content = new byte[zipSize];
+        ThreadLocalRandom.current().nextBytes(content);
+        zip = Files.write(directory.resolve("octocat-Hello-World-6dcb09b.zip"), content);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(zip);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public long pathResource() throws IOException {
+        final DiscardingResponse response = new DiscardingResponse();
+        try (final InputStream in = new PathResource(zip).getInputStream()) {
+            StreamUtils.copy(in, response.getOutputStream());
+        }
+        return response.written();
+    }
+
+    @Benchmark
+    public long transferTo() throws IOException {
+        final DiscardingResponse response = new DiscardingResponse();
+        ZipResponses.write(new MockHttpServletRequest("GET", "/"), response, zip, HEAD_SHA);
+        return response.written();
+    }
+
+    @Benchmark
+    public long transferToSecondHalf() throws IOException {
+        final MockHttpServletRequest request = new MockHttpServletRequest("GET", "/");
+        request.addHeader(HttpHeaders.RANGE, "bytes=" + zipSize / 2 + "-");
+        final DiscardingResponse response = new DiscardingResponse();
+        ZipResponses.write(request, response, zip, HEAD_SHA);
+        return response.written();
+    }
+
+    private static final class DiscardingResponse extends MockHttpServletResponse {
+
+        private final CountingOutputStream outputStream = new CountingOutputStream();
+
+        @Override
+        public ServletOutputStream getOutputStream() {
+            return outputStream;
+        }
+
+        long written() {
+            return outputStream.count;
+        }
+
+    }
+
+    private static final class CountingOutputStream extends ServletOutputStream {
+
+        private long count;
+
+        @Override
+        public void write(int b) {
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            count += len;
+        }
+
+        @Override
+        public boolean isReady() {
+            return true;
+        }
+
+        @Override
+        public void setWriteListener(WriteListener writeListener) {
+            throw new UnsupportedOperationException();
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+package com.andreaseisele.pullmann.github;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Builds realistic GitHub API payloads for benchmarks from the WireMock fixtures of the test suite.
+ */
+public final class GitHubPayloads {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private GitHubPayloads() {
+    }
+
+    /**
+     * @param size number of pull requests in the list
+     * @param bodyLength length of each pull requests markdown body
+     * @return a JSON array like returned by 'GET /repos/{owner}/{repo}/pulls'
+     */
+    public static byte[] pullRequestList(int size, int bodyLength) {
+        final ObjectNode template = (ObjectNode) readFixture("repo_pull_requests.json").get(0);
+        final String body = "Lorem ipsum dolor sit amet. ".repeat(bodyLength / 28 + 1).substring(0, bodyLength);
+
+        final ArrayNode list = objectMapper.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            final ObjectNode pullRequest = template.deepCopy();
+            pullRequest.put("id", i + 1);
+            pullRequest.put("number", 1000 + i);
+            pullRequest.put("title", "Pull request #" + i);
+            pullRequest.put("body", body);
+            list.add(pullRequest);
+        }
+        return toBytes(list);
+    }
+
+    /**
+     * @param size number of repositories in the list
+     * @return a JSON array like returned by 'GET /user/repos'
+     */
+    public static byte[] repositoryList(int size) {
+        final ObjectNode template = (ObjectNode) readFixture("user_repos.json").get(0);
+
+        final ArrayNode list = objectMapper.createArrayNode();
+        for (int i = 0; i < size; i++) {
+            final ObjectNode repository = template.deepCopy();
+            repository.put("id", i + 1);
+            repository.put("name", "repository-" + i);
+            repository.put("full_name", "octocat/repository-" + i);
+            list.add(repository);
+        }
+        return toBytes(list);
+    }
+
+    private static byte[] toBytes(ArrayNode list) {
+        try {
+            return objectMapper.writeValueAsBytes(list);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static ArrayNode readFixture(String name) {
+        try (final InputStream in = GitHubPayloads.class.getResourceAsStream("/__files/" + name)) {
+            if (in == null) {
+                throw new IllegalStateException("missing fixture " + name);
+            }
+            return (ArrayNode) objectMapper.readTree(in);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
@@ -0,0 +1,57 @@
+package com.andreaseisele.pullmann.github;
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import java.util.concurrent.TimeUnit;
+import okhttp3.HttpUrl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * URL building of {@link GitHubUrls}, done once per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GitHubUrlsBenchmark {
+
+    private GitHubUrls urls;
+    private RepositoryName repositoryName;
+    private PullRequestCoordinates coordinates;
+
+    @Setup
+    public void setUp() {
+        final GitHubProperties properties = new GitHubProperties();
+        properties.setBaseUrl("https://api.github.com");
+        urls = new GitHubUrls(properties);
+        repositoryName = new RepositoryName("octocat", "Hello-World");
+        coordinates = new PullRequestCoordinates(repositoryName, 1347);
+    }
+
+    @Benchmark
+    public HttpUrl pullRequests() {
+        return urls.pullRequests(repositoryName, 2, "open");
+    }
+
+    @Benchmark
+    public HttpUrl pullRequestDetails() {
+        return urls.pullRequestDetails(coordinates);
+    }
+
+    @Benchmark
+    public HttpUrl pullRequestFiles() {
+        return urls.pullRequestFiles(coordinates, 2, 100);
+    }
+
+}
@@ -0,0 +1,49 @@
+package com.andreaseisele.pullmann.github;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link LinkParser} runs for every paged response.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LinkParserBenchmark {
+
+    @Param({
+        // first page
+        "<https://api.github.com/repositories/1300192/pulls?page=2>; rel=\"next\", "
+            + "<https://api.github.com/repositories/1300192/pulls?page=34>; rel=\"last\"",
+        // any page in between
+        "<https://api.github.com/repositories/1300192/pulls?page=2>; rel=\"prev\", "
+            + "<https://api.github.com/repositories/1300192/pulls?page=4>; rel=\"next\", "
+            + "<https://api.github.com/repositories/1300192/pulls?page=34>; rel=\"last\", "
+            + "<https://api.github.com/repositories/1300192/pulls?page=1>; rel=\"first\""
+    })
+    private String linkHeader;
+
+    @Benchmark
+    public Optional<Integer> getLastPage() {
+        return LinkParser.getLastPage(linkHeader);
+    }
+
+    @Benchmark
+    public PageLinks parse() {
+        return LinkParser.parse(linkHeader);
+    }
+
+}
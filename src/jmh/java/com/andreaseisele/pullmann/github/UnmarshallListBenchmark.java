@@ -0,0 +1,103 @@
+package com.andreaseisele.pullmann.github;
+
+import com.andreaseisele.pullmann.config.HttpConfig;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.Repository;
+import com.andreaseisele.pullmann.github.metrics.GitHubCallMetrics;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import okhttp3.MediaType;
+import okhttp3.ResponseBody;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link GitHubClient#unmarshallList} on full pages of pull requests and repositories. Each invocation reads
+ * from a fresh response body, as the client does. The '*CharStream' variants are the former implementation,
+ * resolving the list type per call and decoding the body to chars before parsing.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UnmarshallListBenchmark {
+
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    @Param("100")
+    private int pageSize;
+
+    @Param({"false", "true"})
+    private boolean bytecodeAccessors;
+
+    private byte[] pullRequests;
+    private byte[] repositories;
+    private ObjectMapper objectMapper;
+    private GitHubClient gitHubClient;
+
+    @Setup
+    public void setUp() {
+        pullRequests = GitHubPayloads.pullRequestList(pageSize, 500);
+        repositories = GitHubPayloads.repositoryList(pageSize);
+
+        final GitHubProperties properties = new GitHubProperties();
+        properties.getJson().setBytecodeAccessors(bytecodeAccessors);
+        final HttpConfig httpConfig = new HttpConfig(properties, new GitHubCallMetrics(new SimpleMeterRegistry()));
+        objectMapper = httpConfig.githubObjectMapper();
+        // unmarshalling only needs the object mapper
+        gitHubClient = new GitHubClient(null,
+            null,
+            objectMapper,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            null,
+            properties);
+    }
+
+    @Benchmark
+    public List<PullRequest> pullRequests() {
+        return gitHubClient.unmarshallList(ResponseBody.create(pullRequests, JSON), PullRequest.class);
+    }
+
+    @Benchmark
+    public List<Repository> repositories() {
+        return gitHubClient.unmarshallList(ResponseBody.create(repositories, JSON), Repository.class);
+    }
+
+    @Benchmark
+    public List<PullRequest> pullRequestsCharStream() throws IOException {
+        return readViaCharStream(pullRequests, PullRequest.class);
+    }
+
+    @Benchmark
+    public List<Repository> repositoriesCharStream() throws IOException {
+        return readViaCharStream(repositories, Repository.class);
+    }
+
+    private <T> List<T> readViaCharStream(byte[] payload, Class<T> type) throws IOException {
+        final CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+        return objectMapper.readValue(ResponseBody.create(payload, JSON).charStream(), collectionType);
+    }
+
+}
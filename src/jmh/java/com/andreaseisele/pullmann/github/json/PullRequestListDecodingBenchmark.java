@@ -0,0 +1,79 @@
+package com.andreaseisele.pullmann.github.json;
+
+import com.andreaseisele.pullmann.config.HttpConfig;
+import com.andreaseisele.pullmann.github.GitHubPayloads;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.metrics.GitHubCallMetrics;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.CollectionType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Compares decoding a page of pull requests via data binding ({@code GitHubClient#unmarshallList}) with the
+ * streaming {@link PullRequestSummaryDecoder}. Run with '-prof gc' to see 'gc.alloc.rate.norm' per page.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PullRequestListDecodingBenchmark {
+
+    @Param("100")
+    private int pageSize;
+
+    @Param({"500", "20000"})
+    private int bodyLength;
+
+    private byte[] payload;
+    private ObjectMapper objectMapper;
+    private CollectionType listType;
+    private PullRequestSummaryDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        payload = GitHubPayloads.pullRequestList(pageSize, bodyLength);
+        objectMapper = new HttpConfig(new GitHubProperties(), new GitHubCallMetrics(new SimpleMeterRegistry()))
+            .githubObjectMapper();
+        listType = objectMapper.getTypeFactory().constructCollectionType(List.class, PullRequest.class);
+        decoder = new PullRequestSummaryDecoder();
+    }
+
+    @Benchmark
+    public List<PullRequest> dataBinding() throws IOException {
+        // mirrors the current path which reads from the response bodies char stream
+        try (final Reader reader = new InputStreamReader(new ByteArrayInputStream(payload), StandardCharsets.UTF_8)) {
+            return objectMapper.readValue(reader, listType);
+        }
+    }
+
+    @Benchmark
+    public List<PullRequestSummary> streamingProjection() throws IOException {
+        try (final JsonParser parser = objectMapper.getFactory().createParser(new ByteArrayInputStream(payload))) {
+            return decoder.decode(parser);
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.andreaseisele.pullmann.github.result;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@link UserResult#parseScopeList(String)} on 'X-OAuth-Scopes' header values.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserResultBenchmark {
+
+    @Param({"repo, read:user", "admin:org, admin:repo_hook, gist, notifications, read:user, repo, workflow, write:packages"})
+    private String scopeList;
+
+    @Benchmark
+    public Set<String> parseScopeList() {
+        return UserResult.parseScopeList(scopeList);
+    }
+
+}
@@ -0,0 +1,6 @@
+package com.andreaseisele.pullmann.bulk;
+
+public enum BulkAction {
+    MERGE,
+    CLOSE
+}
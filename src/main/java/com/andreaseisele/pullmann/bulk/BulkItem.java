@@ -0,0 +1,29 @@
+package com.andreaseisele.pullmann.bulk;
+
+import static java.util.Objects.requireNonNull;
+
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+
+/**
+ * Progress of one pull request within a {@link BulkJob}.
+ * @param coordinates the pull request
+ * @param state the current state
+ * @param message reason of a failure, may be null
+ */
+public record BulkItem(PullRequestCoordinates coordinates, BulkItemState state, String message) {
+
+    public BulkItem {
+        requireNonNull(coordinates, "coordinates must not be null");
+        requireNonNull(state, "state must not be null");
+    }
+
+    public static BulkItem pending(PullRequestCoordinates coordinates) {
+        return new BulkItem(coordinates, BulkItemState.PENDING, null);
+    }
+
+    public BulkItem withState(BulkItemState state, String message) {
+        return new BulkItem(coordinates, state, message);
+    }
+
+}
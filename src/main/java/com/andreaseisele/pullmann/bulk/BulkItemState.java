@@ -0,0 +1,16 @@
+package com.andreaseisele.pullmann.bulk;
+
+public enum BulkItemState {
+    PENDING,
+    RUNNING,
+    SUCCEEDED,
+    FAILED,
+    /**
+     * Not attempted because the merge queue was full. The pull request is untouched and can be retried.
+     */
+    REJECTED;
+
+    public boolean isFinished() {
+        return this == SUCCEEDED || this == FAILED || this == REJECTED;
+    }
+}
@@ -0,0 +1,97 @@
+package com.andreaseisele.pullmann.bulk;
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * One bulk merge or close over a set of pull requests, started by a single user.
+ */
+public class BulkJob {
+
+    private final String id;
+    private final String owner;
+    private final BulkAction action;
+    private final Instant created;
+
+    // insertion ordered, guarded by this
+    private final Map<PullRequestCoordinates, BulkItem> items = new LinkedHashMap<>();
+
+    /**
+     * @param id unique id of the job
+     * @param owner fingerprint of the credentials that started the job, see
+     *              {@link com.andreaseisele.pullmann.github.CredentialFingerprints}
+     * @param action what to do with the pull requests
+     * @param coordinates the pull requests in display order
+     */
+    public BulkJob(String id, String owner, BulkAction action, Collection<PullRequestCoordinates> coordinates) {
+        this.id = id;
+        this.owner = owner;
+        this.action = action;
+        this.created = Instant.now();
+        for (PullRequestCoordinates c : coordinates) {
+            items.put(c, BulkItem.pending(c));
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public BulkAction getAction() {
+        return action;
+    }
+
+    public Instant getCreated() {
+        return created;
+    }
+
+    public synchronized List<BulkItem> getItems() {
+        return List.copyOf(items.values());
+    }
+
+    /**
+     * @return the repositories the job touches
+     */
+    public synchronized Set<RepositoryName> getRepositoryNames() {
+        return items.keySet().stream()
+            .map(PullRequestCoordinates::repositoryName)
+            .collect(Collectors.toSet());
+    }
+
+    /**
+     * Replace the state of one pull request.
+     * @param item the new item
+     * @return whether this update finished the job
+     */
+    public synchronized boolean update(BulkItem item) {
+        final boolean wasFinished = isFinished();
+        items.replace(item.coordinates(), item);
+        return !wasFinished && isFinished();
+    }
+
+    /**
+     * @return the pull requests that were rejected and can be retried
+     */
+    public synchronized List<PullRequestCoordinates> getRejected() {
+        return items.values().stream()
+            .filter(item -> item.state() == BulkItemState.REJECTED)
+            .map(BulkItem::coordinates)
+            .toList();
+    }
+
+    public synchronized boolean isFinished() {
+        return items.values().stream().allMatch(item -> item.state().isFinished());
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.andreaseisele.pullmann.config;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+@Configuration
+public class BulkActionConfig {
+
+    private final GitHubProperties gitHubProperties;
+
+    public BulkActionConfig(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * Bounds how many pull requests of all bulk jobs are worked on at the same time, the rest waits in the queue.
+     * Tasks run with the security context of the user who started the job.
+     */
+    @Bean
+    public AsyncTaskExecutor bulkActionExecutor(TaskExecutorBuilder builder) {
+        final int parallelism = gitHubProperties.getBulkAction().getParallelism();
+        final ThreadPoolTaskExecutor executor = builder.threadNamePrefix("bulk")
+            .corePoolSize(parallelism)
+            .maxPoolSize(parallelism)
+            .build();
+        executor.initialize();
+
+        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+    }
+
+}
@@ -1,12 +1,12 @@
 package com.andreaseisele.pullmann.config;
 
+import com.andreaseisele.pullmann.download.DownloadScheduler;
 import com.andreaseisele.pullmann.github.GitHubProperties;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.springframework.boot.task.TaskExecutorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
 
 @Configuration
 public class DownloadConfig {
@@ -18,13 +18,20 @@ public class DownloadConfig {
     }
 
     @Bean
-    public AsyncTaskExecutor pullRequestDownloadExecutor(TaskExecutorBuilder builder) {
+    public DownloadScheduler downloadScheduler(TaskExecutorBuilder builder, MeterRegistry meterRegistry) {
+        final GitHubProperties.DownloadProperties properties = gitHubProperties.getDownload();
+
+        // the scheduler queues and never hands out more than max simultaneous tasks
         final ThreadPoolTaskExecutor executor = builder.threadNamePrefix("downloader")
-            .corePoolSize(gitHubProperties.getDownload().getMaxSimultaneous())
+            .corePoolSize(properties.getMaxSimultaneous())
             .build();
         executor.initialize();
 
-        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+        return new DownloadScheduler(executor,
+            properties.getMaxSimultaneous(),
+            properties.getMaxQueued(),
+            properties.getMaxQueuedPerUser(),
+            meterRegistry);
     }
 
 }
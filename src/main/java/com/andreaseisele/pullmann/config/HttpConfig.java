@@ -1,10 +1,14 @@
 package com.andreaseisele.pullmann.config;
 
 import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.metrics.GitHubCallMetrics;
 import com.fasterxml.jackson.databind.MapperFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
 import java.time.Duration;
+import okhttp3.Dispatcher;
 import okhttp3.Interceptor;
 import okhttp3.OkHttpClient;
 import okhttp3.logging.HttpLoggingInterceptor;
@@ -16,9 +20,11 @@ import org.springframework.http.HttpHeaders;
 public class HttpConfig {
 
     private final GitHubProperties gitHubProperties;
+    private final GitHubCallMetrics callMetrics;
 
-    public HttpConfig(GitHubProperties gitHubProperties) {
+    public HttpConfig(GitHubProperties gitHubProperties, GitHubCallMetrics callMetrics) {
         this.gitHubProperties = gitHubProperties;
+        this.callMetrics = callMetrics;
     }
 
     @Bean
@@ -34,21 +40,32 @@ public class HttpConfig {
     public OkHttpClient githubHttpClient() {
         final GitHubProperties.Timeouts timeouts = gitHubProperties.getTimeouts();
 
+        final Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(gitHubProperties.getAsync().getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(gitHubProperties.getAsync().getMaxRequestsPerHost());
+
         return new OkHttpClient.Builder()
+            .dispatcher(dispatcher)
             .followRedirects(true)
             .connectTimeout(Duration.ofSeconds(timeouts.getConnectSeconds()))
             .writeTimeout(Duration.ofSeconds(timeouts.getWriteSeconds()))
             .readTimeout(Duration.ofSeconds(timeouts.getReadSeconds()))
             .callTimeout(Duration.ofSeconds(timeouts.getCallSeconds()))
             .addInterceptor(loggingInterceptor())
+            .eventListenerFactory(callMetrics.eventListenerFactory())
             .build();
     }
 
     @Bean
     public ObjectMapper githubObjectMapper() {
-        return JsonMapper.builder()
+        final JsonMapper.Builder builder = JsonMapper.builder()
             .enable(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS)
-            .build();
+            .addModule(new JavaTimeModule());
+        if (gitHubProperties.getJson().isBytecodeAccessors()) {
+            // generated accessors instead of reflection for DTO construction and property access
+            builder.addModule(new BlackbirdModule());
+        }
+        return builder.build();
     }
 
 }
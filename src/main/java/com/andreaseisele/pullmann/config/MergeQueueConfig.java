@@ -0,0 +1,33 @@
+package com.andreaseisele.pullmann.config;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class MergeQueueConfig {
+
+    private final GitHubProperties gitHubProperties;
+
+    public MergeQueueConfig(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * One task per repository with queued merges, tasks switch to the authentication of each merge themselves.
+     */
+    @Bean
+    public AsyncTaskExecutor mergeQueueExecutor(TaskExecutorBuilder builder) {
+        final int parallelism = gitHubProperties.getMergeQueue().getParallelism();
+        final ThreadPoolTaskExecutor executor = builder.threadNamePrefix("merge-queue")
+            .corePoolSize(parallelism)
+            .maxPoolSize(parallelism)
+            .build();
+        executor.initialize();
+        return executor;
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.andreaseisele.pullmann.config;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+
+@Configuration
+public class PullRequestSyncConfig {
+
+    private final GitHubProperties gitHubProperties;
+
+    public PullRequestSyncConfig(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * Runs the initial syncs of repositories, which page through all of their pull requests.
+     * Tasks run with the security context of the user who first visited the repository.
+     */
+    @Bean
+    public AsyncTaskExecutor pullRequestSyncExecutor(TaskExecutorBuilder builder) {
+        final int parallelism = gitHubProperties.getPullRequestSync().getBackfillParallelism();
+        final ThreadPoolTaskExecutor executor = builder.threadNamePrefix("pull-request-sync")
+            .corePoolSize(parallelism)
+            .maxPoolSize(parallelism)
+            .build();
+        executor.initialize();
+
+        return new DelegatingSecurityContextAsyncTaskExecutor(executor);
+    }
+
+}
@@ -1,8 +1,13 @@
 package com.andreaseisele.pullmann.config;
 
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import org.springframework.boot.actuate.autoconfigure.security.servlet.EndpointRequest;
+import org.springframework.boot.actuate.health.HealthEndpoint;
+import org.springframework.boot.actuate.metrics.export.prometheus.PrometheusScrapeEndpoint;
 import org.springframework.boot.autoconfigure.security.servlet.PathRequest;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.method.configuration.EnableGlobalMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.web.SecurityFilterChain;
@@ -11,16 +16,34 @@ import org.springframework.security.web.SecurityFilterChain;
 @Configuration
 public class SecurityConfig {
 
+    private static final String WEBHOOK_PATH = "/webhooks/github";
+
+    private final GitHubProperties gitHubProperties;
+
+    public SecurityConfig(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
     @Bean
     public SecurityFilterChain secFilterChain(HttpSecurity http) throws Exception {
+        // metrics reveal call names and rate limit budgets, scrapers log in via basic auth unless opened up
+        final String scrapeAccess = gitHubProperties.getMetrics().isPublicScrape() ? "permitAll" : "authenticated";
         return http.authorizeRequests()
             .requestMatchers(PathRequest.toStaticResources().atCommonLocations()).permitAll()
             .antMatchers("/webfonts/*").permitAll()
+            .requestMatchers(EndpointRequest.to(HealthEndpoint.class)).permitAll()
+            .requestMatchers(EndpointRequest.to(PrometheusScrapeEndpoint.class)).access(scrapeAccess)
+            // webhook deliveries are authenticated by their signature
+            .antMatchers(HttpMethod.POST, WEBHOOK_PATH).permitAll()
             .anyRequest().authenticated()
             .and()
+            .csrf().ignoringAntMatchers(WEBHOOK_PATH)
+            .and()
             .formLogin().loginPage("/login").permitAll()
             .and()
             .logout().permitAll()
+            .and()
+            .httpBasic()
             .and().build();
     }
 
@@ -0,0 +1,35 @@
+package com.andreaseisele.pullmann.config;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import org.springframework.boot.task.TaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+public class WebhookConfig {
+
+    private final GitHubProperties gitHubProperties;
+
+    public WebhookConfig(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * Fixed number of workers behind a bounded queue, submissions are rejected once the queue is full so
+     * GitHub gets told to back off instead of deliveries piling up in memory.
+     */
+    @Bean
+    public AsyncTaskExecutor webhookExecutor(TaskExecutorBuilder builder) {
+        final GitHubProperties.WebhookProperties properties = gitHubProperties.getWebhook();
+        final ThreadPoolTaskExecutor executor = builder.threadNamePrefix("webhook")
+            .corePoolSize(properties.getWorkers())
+            .maxPoolSize(properties.getWorkers())
+            .queueCapacity(properties.getQueueCapacity())
+            .build();
+        executor.initialize();
+        return executor;
+    }
+
+}
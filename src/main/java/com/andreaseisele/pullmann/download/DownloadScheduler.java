@@ -0,0 +1,224 @@
+package com.andreaseisele.pullmann.download;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.RequestPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * Runs at most a fixed number of downloads at once and decides which waiting download runs next.
+ * <p>
+ * Interactive downloads always go before prefetches. Within a priority, waiting downloads are taken round robin
+ * per user and, within a user, round robin per repository, so one user queuing dozens of monorepo downloads
+ * does not starve everyone else. The number of waiting downloads is bounded in total and per user.
+ * <p>
+ * Tasks run with the security context of the user who scheduled them.
+ */
+public class DownloadScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(DownloadScheduler.class);
+
+    private final Executor workers;
+    private final int maxRunning;
+    private final int maxQueued;
+    private final int maxQueuedPerUser;
+
+    // all guarded by this
+    private final Map<RequestPriority, FairQueue> queues = new EnumMap<>(RequestPriority.class);
+    private final Map<String, Integer> queuedByUser = new HashMap<>();
+    private int running;
+
+    private final Map<RequestPriority, Timer> waitTimers = new EnumMap<>(RequestPriority.class);
+    private final Counter rejected;
+
+    /**
+     * @param workers executes the downloads, must be able to run maxRunning tasks at once
+     * @param maxRunning the number of downloads running at once
+     * @param maxQueued the number of downloads waiting at most
+     * @param maxQueuedPerUser the number of downloads waiting at most per user
+     * @param registry registry for queue size, wait time and rejection metrics
+     */
+    public DownloadScheduler(Executor workers,
+                             int maxRunning,
+                             int maxQueued,
+                             int maxQueuedPerUser,
+                             MeterRegistry registry) {
+        this.workers = workers;
+        this.maxRunning = maxRunning;
+        this.maxQueued = maxQueued;
+        this.maxQueuedPerUser = maxQueuedPerUser;
+
+        for (RequestPriority priority : RequestPriority.values()) {
+            queues.put(priority, new FairQueue());
+            final String tag = priority.name().toLowerCase(Locale.ROOT);
+            Gauge.builder("pullmann.download.queue.size", this, scheduler -> scheduler.queued(priority))
+                .tag("priority", tag)
+                .register(registry);
+            waitTimers.put(priority, Timer.builder("pullmann.download.queue.wait")
+                .tag("priority", tag)
+                .register(registry));
+        }
+        Gauge.builder("pullmann.download.running", this, DownloadScheduler::running)
+            .register(registry);
+        this.rejected = Counter.builder("pullmann.download.rejected")
+            .register(registry);
+    }
+
+    /**
+     * Run the task right away if a worker is free, otherwise once it is its turn.
+     * @param user the user the download is for, e.g. a credential fingerprint
+     * @param repositoryName the repository downloaded from
+     * @param priority interactive downloads go before background ones
+     * @param task the download
+     * @throws TaskRejectedException if too many downloads are waiting, in total or for the user
+     */
+    public void schedule(String user, RepositoryName repositoryName, RequestPriority priority, Runnable task) {
+        // a copy, the context of the request might change until the task runs
+        final SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        final Entry entry = new Entry(user,
+            key(repositoryName),
+            priority,
+            DelegatingSecurityContextRunnable.create(task, context),
+            System.nanoTime());
+
+        synchronized (this) {
+            if (running >= maxRunning) {
+                final int queuedForUser = queuedByUser.getOrDefault(user, 0);
+                if (queued() >= maxQueued || queuedForUser >= maxQueuedPerUser) {
+                    rejected.increment();
+                    throw new TaskRejectedException("too many downloads waiting, please retry later");
+                }
+                queues.get(priority).add(entry);
+                queuedByUser.put(user, queuedForUser + 1);
+                logger.debug("queued download for [{}], {} waiting", repositoryName, queued());
+                return;
+            }
+            running++;
+        }
+
+        try {
+            workers.execute(() -> run(entry));
+        } catch (TaskRejectedException e) {
+            synchronized (this) {
+                running--;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of waiting downloads
+     */
+    public synchronized int queued() {
+        return queues.values().stream().mapToInt(FairQueue::size).sum();
+    }
+
+    synchronized int queued(RequestPriority priority) {
+        return queues.get(priority).size();
+    }
+
+    synchronized int running() {
+        return running;
+    }
+
+    /**
+     * Run the entry and then waiting entries on the same worker until none are left.
+     */
+    private void run(Entry first) {
+        Entry entry = first;
+        while (entry != null) {
+            waitTimers.get(entry.priority()).record(System.nanoTime() - entry.queuedAt(), TimeUnit.NANOSECONDS);
+            try {
+                entry.task().run();
+            } catch (RuntimeException e) {
+                logger.error("unexpected error in download task", e);
+            }
+            entry = next();
+        }
+    }
+
+    private synchronized Entry next() {
+        for (FairQueue queue : queues.values()) {
+            final Entry entry = queue.poll();
+            if (entry != null) {
+                queuedByUser.computeIfPresent(entry.user(), (k, count) -> count > 1 ? count - 1 : null);
+                return entry;
+            }
+        }
+        running--;
+        return null;
+    }
+
+    private static String key(RepositoryName repositoryName) {
+        return (repositoryName.owner() + "/" + repositoryName.repository()).toLowerCase(Locale.ROOT);
+    }
+
+    private record Entry(String user, String repository, RequestPriority priority, Runnable task, long queuedAt) {
+    }
+
+    /**
+     * Waiting entries per user and repository. Taking an entry moves its user and repository to the back.
+     */
+    private static final class FairQueue {
+
+        private final LinkedHashMap<String, LinkedHashMap<String, Deque<Entry>>> byUser = new LinkedHashMap<>();
+        private int size;
+
+        void add(Entry entry) {
+            byUser.computeIfAbsent(entry.user(), k -> new LinkedHashMap<>())
+                .computeIfAbsent(entry.repository(), k -> new ArrayDeque<>())
+                .addLast(entry);
+            size++;
+        }
+
+        Entry poll() {
+            final Iterator<Map.Entry<String, LinkedHashMap<String, Deque<Entry>>>> users =
+                byUser.entrySet().iterator();
+            if (!users.hasNext()) {
+                return null;
+            }
+            final Map.Entry<String, LinkedHashMap<String, Deque<Entry>>> user = users.next();
+            users.remove();
+
+            final LinkedHashMap<String, Deque<Entry>> repositories = user.getValue();
+            final Iterator<Map.Entry<String, Deque<Entry>>> repositoryIterator = repositories.entrySet().iterator();
+            final Map.Entry<String, Deque<Entry>> repository = repositoryIterator.next();
+            repositoryIterator.remove();
+
+            final Entry entry = repository.getValue().pollFirst();
+            if (!repository.getValue().isEmpty()) {
+                repositories.put(repository.getKey(), repository.getValue());
+            }
+            if (!repositories.isEmpty()) {
+                byUser.put(user.getKey(), repositories);
+            }
+            size--;
+            return entry;
+        }
+
+        int size() {
+            return size;
+        }
+
+    }
+
+}
@@ -2,6 +2,7 @@ package com.andreaseisele.pullmann.download;
 
 public enum DownloadState {
 
+    QUEUED,
     RUNNING,
     ERROR,
     FINISHED
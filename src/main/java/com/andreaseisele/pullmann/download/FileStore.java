@@ -3,8 +3,10 @@ package com.andreaseisele.pullmann.download;
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
 import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.PartialDownload;
 import com.andreaseisele.pullmann.github.error.GitHubStorageException;
 import java.io.IOException;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
@@ -24,6 +26,7 @@ public class FileStore {
 
     private static final String DIR_DOWNLOAD = "downloads";
     private static final String DIR_PRS = "pulls";
+    private static final String DIR_SHARED = "shared";
 
     private static final String EXT_ZIP = ".zip";
 
@@ -82,18 +85,51 @@ public class FileStore {
     }
 
     public Optional<Path> findZip(PullRequestDownload pullRequestDownload) {
-        final Path prDirectory = getForPullRequest(pullRequestDownload);
+        return findZipIn(getForPullRequest(pullRequestDownload));
+    }
 
-        try (Stream<Path> pathStream = Files.find(prDirectory, 1, (path, attrs) -> !attrs.isDirectory()
-            && path.getFileName().toString()
-            .toLowerCase(Locale.ROOT)
-            .endsWith(EXT_ZIP))) {
+    /**
+     * Link the zip of an earlier download of the same head sha, e.g. by a stacked or re-opened pull request, into
+     * the directory of the pull request.
+     * @param pullRequestDownload the download
+     * @return whether a zip was linked, the download is finished then
+     */
+    public boolean linkShared(PullRequestDownload pullRequestDownload) {
+        final Optional<Path> shared = findZipIn(getShared(pullRequestDownload));
+        if (shared.isEmpty()) {
+            return false;
+        }
 
-            return pathStream.findAny();
+        final Path target = getForPullRequest(pullRequestDownload).resolve(shared.get().getFileName());
+        try {
+            Files.createLink(target, shared.get());
+            return true;
+        } catch (FileAlreadyExistsException e) {
+            return true;
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("unable to link shared zip [{}]: {}", shared.get(), e.getMessage());
+            return false;
+        }
+    }
 
-        } catch (IOException e) {
-            logger.error("error finding pull request zip at [{}]", prDirectory);
-            return Optional.empty();
+    /**
+     * Offer the finished zip of a pull request to later downloads of the same head sha. Hard links keep a single
+     * copy on disk, which stays as long as any pull request or the shared directory links it.
+     * @param pullRequestDownload the finished download
+     */
+    public void share(PullRequestDownload pullRequestDownload) {
+        final Optional<Path> zip = findZip(pullRequestDownload);
+        if (zip.isEmpty()) {
+            return;
+        }
+
+        final Path target = mkdirs(getShared(pullRequestDownload)).resolve(zip.get().getFileName());
+        try {
+            Files.createLink(target, zip.get());
+        } catch (FileAlreadyExistsException e) {
+            logger.debug("zip for [{}] already shared", pullRequestDownload);
+        } catch (IOException | UnsupportedOperationException e) {
+            logger.warn("unable to share zip [{}]: {}", zip.get(), e.getMessage());
         }
     }
 
@@ -101,16 +137,74 @@ public class FileStore {
         final Optional<Path> zip = findZip(pullRequestDownload);
         if (zip.isEmpty()) {
             logger.warn("tried to delete non-existing zip for [{}]", pullRequestDownload);
-            return;
         }
 
         try {
-            Files.deleteIfExists(zip.get());
+            if (zip.isPresent()) {
+                Files.deleteIfExists(zip.get());
+            }
+            deletePartials(getForPullRequest(pullRequestDownload));
+            releaseShared(pullRequestDownload);
         } catch (IOException e) {
             logger.error("error deleting zip", e);
         }
     }
 
+    // <root>/shared/<owner>/<repo>/<head sha>/, lower case as GitHub treats owner and repository case-insensitive
+    private Path getShared(PullRequestDownload pullRequestDownload) {
+        final RepositoryName repositoryName = pullRequestDownload.coordinates().repositoryName();
+        return root.resolve(DIR_SHARED)
+            .resolve(repositoryName.owner().toLowerCase(Locale.ROOT))
+            .resolve(repositoryName.repository().toLowerCase(Locale.ROOT))
+            .resolve(pullRequestDownload.headSha());
+    }
+
+    /**
+     * Delete the shared zip of a head sha once no pull request of the repository links it anymore. Pull requests
+     * linking it under a differently cased repository name keep their own link, they only lose the sharing.
+     */
+    private void releaseShared(PullRequestDownload pullRequestDownload) throws IOException {
+        final Path shared = getShared(pullRequestDownload);
+        if (!Files.isDirectory(shared)) {
+            return;
+        }
+
+        final Path prsDirectory = getForPullRequest(pullRequestDownload).getParent().getParent();
+        try (Stream<Path> pathStream = Files.list(prsDirectory)) {
+            final boolean stillLinked = pathStream
+                .map(prDirectory -> prDirectory.resolve(pullRequestDownload.headSha()))
+                .anyMatch(shaDirectory -> findZipIn(shaDirectory).isPresent());
+            if (stillLinked) {
+                return;
+            }
+        }
+
+        try (Stream<Path> pathStream = Files.list(shared)) {
+            for (Path file : pathStream.toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(shared);
+    }
+
+    private static Optional<Path> findZipIn(Path directory) {
+        if (!Files.isDirectory(directory)) {
+            return Optional.empty();
+        }
+
+        try (Stream<Path> pathStream = Files.find(directory, 1, (path, attrs) -> !attrs.isDirectory()
+            && path.getFileName().toString()
+            .toLowerCase(Locale.ROOT)
+            .endsWith(EXT_ZIP))) {
+
+            return pathStream.findAny();
+
+        } catch (IOException e) {
+            logger.error("error finding pull request zip at [{}]", directory);
+            return Optional.empty();
+        }
+    }
+
     private Path initRootDirectory() {
         final Resource location = gitHubProperties.getDownload().getLocation();
         try {
@@ -137,6 +231,15 @@ public class FileStore {
         }
     }
 
+    // a failed download leaves its part behind to be resumed
+    private static void deletePartials(Path prDirectory) throws IOException {
+        try (Stream<Path> pathStream = Files.list(prDirectory)) {
+            for (Path partial : pathStream.filter(PartialDownload::isPartial).toList()) {
+                Files.deleteIfExists(partial);
+            }
+        }
+    }
+
     private static Path mkdirs(Path directory) {
         try {
             return Files.createDirectories(directory);
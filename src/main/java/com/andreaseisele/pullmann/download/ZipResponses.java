@@ -0,0 +1,218 @@
+package com.andreaseisele.pullmann.download;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.web.context.request.ServletWebRequest;
+
+/**
+ * Writes a cached pull request zip to a servlet response, supporting conditional and range requests so browsers
+ * and CI agents can revalidate and resume multi GB archives instead of fetching them from the start.
+ * <p>
+ * The zip of a head sha never changes, so the sha in quotes is a strong ETag. Bytes are copied with
+ * {@link FileChannel#transferTo(long, long, WritableByteChannel)} to avoid buffering them on the heap.
+ */
+public final class ZipResponses {
+
+    static final String CONTENT_TYPE = "application/zip";
+
+    private ZipResponses() {
+    }
+
+    /**
+     * Answer a GET or HEAD request for a zip with 200, 206 (single or multipart/byteranges), 304, 412 or 416.
+     * @param request the request
+     * @param response the response to write to
+     * @param zip the zip file
+     * @param headSha the head sha the zip was downloaded for
+     * @throws IOException if reading the zip or writing the response fails
+     */
+    public static void write(HttpServletRequest request,
+                             HttpServletResponse response,
+                             Path zip,
+                             String headSha) throws IOException {
+
+        final long length = Files.size(zip);
+        final long lastModified = Files.getLastModifiedTime(zip).toMillis();
+        final String etag = etag(headSha);
+
+        // handles 'If-None-Match', 'If-Modified-Since', 'If-Match' and 'If-Unmodified-Since'
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+            .filename(zip.getFileName().toString())
+            .build()
+            .toString());
+
+        final List<Span> spans = requestedSpans(request, etag, lastModified, length);
+        if (spans == null) {
+            response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return;
+        }
+
+        final boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        if (spans.isEmpty()) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(CONTENT_TYPE);
+            response.setContentLengthLong(length);
+            if (!head) {
+                transfer(zip, List.of(new Span(0, length - 1)), null, response);
+            }
+        } else if (spans.size() == 1) {
+            final Span span = spans.get(0);
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType(CONTENT_TYPE);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, span.contentRange(length));
+            response.setContentLengthLong(span.length());
+            if (!head) {
+                transfer(zip, spans, null, response);
+            }
+        } else {
+            final String boundary = UUID.randomUUID().toString();
+            final List<byte[]> partHeaders = new ArrayList<>(spans.size());
+            long contentLength = 0;
+            for (Span span : spans) {
+                final byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + CONTENT_TYPE + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + span.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+                partHeaders.add(partHeader);
+                contentLength += partHeader.length + span.length();
+            }
+            final byte[] end = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(end);
+            contentLength += end.length;
+
+            response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+            response.setContentType("multipart/byteranges; boundary=" + boundary);
+            response.setContentLengthLong(contentLength);
+            if (!head) {
+                transfer(zip, spans, partHeaders, response);
+            }
+        }
+    }
+
+    static String etag(String headSha) {
+        return "\"" + headSha + "\"";
+    }
+
+    /**
+     * @return the spans to send, empty to send the whole zip or null if no requested range is satisfiable
+     */
+    private static List<Span> requestedSpans(HttpServletRequest request,
+                                             String etag,
+                                             long lastModified,
+                                             long length) {
+        final String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+        if (rangeHeader == null || !ifRangeMatches(request, etag, lastModified)) {
+            return List.of();
+        }
+
+        final List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException e) {
+            // invalid range headers are ignored, RFC 7233 section 3.1
+            return List.of();
+        }
+
+        final List<Span> spans = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            final long start = range.getRangeStart(length);
+            final long end = range.getRangeEnd(length);
+            if (start >= length || start > end) {
+                // unsatisfiable ranges are skipped as long as another one is satisfiable
+                continue;
+            }
+            spans.add(new Span(start, end));
+            total += end - start + 1;
+        }
+
+        if (spans.isEmpty()) {
+            return null;
+        }
+        // overlapping ranges must not make us send more than the whole zip
+        if (total > length) {
+            return List.of();
+        }
+        return spans;
+    }
+
+    private static boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        final String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private static void transfer(Path zip,
+                                 List<Span> spans,
+                                 List<byte[]> partHeaders,
+                                 HttpServletResponse response) throws IOException {
+
+        final WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        try (FileChannel file = FileChannel.open(zip, StandardOpenOption.READ)) {
+            for (int i = 0; i < spans.size(); i++) {
+                if (partHeaders != null) {
+                    response.getOutputStream().write(partHeaders.get(i));
+                }
+                final Span span = spans.get(i);
+                long position = span.start();
+                long remaining = span.length();
+                while (remaining > 0) {
+                    final long transferred = file.transferTo(position, remaining, out);
+                    if (transferred <= 0) {
+                        throw new EOFException("zip %s ended before byte %d".formatted(zip, position));
+                    }
+                    position += transferred;
+                    remaining -= transferred;
+                }
+            }
+            if (partHeaders != null) {
+                response.getOutputStream().write(partHeaders.get(partHeaders.size() - 1));
+            }
+        }
+    }
+
+    private record Span(long start, long end) {
+
+        long length() {
+            return end - start + 1;
+        }
+
+        String contentRange(long completeLength) {
+            return "bytes " + start + "-" + end + "/" + completeLength;
+        }
+
+    }
+
+}
@@ -0,0 +1,122 @@
+package com.andreaseisele.pullmann.github;
+
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import com.andreaseisele.pullmann.github.result.AllPagesResult;
+import com.andreaseisele.pullmann.github.result.PagedResult;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fetches all pages of a paged resource. Page 1 tells us the last page via the 'Link' header,
+ * the remaining pages are then fetched concurrently by a fixed number of workers.
+ */
+final class AllPagesFetcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(AllPagesFetcher.class);
+
+    private AllPagesFetcher() {
+    }
+
+    /**
+     * @param callName name of the call for logging
+     * @param pageFetcher non-blocking fetch of a single page
+     * @param parallelism max. number of pages in flight
+     * @param maxPages max. number of pages to fetch at all
+     * @return the merged result
+     * @throws RuntimeException the original exception if page 1 fails
+     */
+    static <T> AllPagesResult<T> fetch(String callName,
+                                       IntFunction<CompletableFuture<? extends PagedResult<T>>> pageFetcher,
+                                       int parallelism,
+                                       int maxPages) {
+        final PagedResult<T> first = join(fetchPage(pageFetcher, 1));
+        final int lastPage = Math.min(first.getMaxPages(), maxPages);
+        if (lastPage < first.getMaxPages()) {
+            logger.warn("call '{}' has {} pages, only fetching the first {}", callName, first.getMaxPages(), maxPages);
+        }
+
+        final SortedMap<Integer, List<T>> pages = new ConcurrentSkipListMap<>();
+        final SortedMap<Integer, RuntimeException> failures = new ConcurrentSkipListMap<>();
+        pages.put(1, first.getList());
+
+        final AtomicInteger nextPage = new AtomicInteger(2);
+        final int workers = Math.max(1, Math.min(parallelism, lastPage - 1));
+        final CompletableFuture<?>[] running = new CompletableFuture<?>[workers];
+        for (int i = 0; i < workers; i++) {
+            running[i] = fetchRemaining(pageFetcher, nextPage, lastPage, pages, failures);
+        }
+        CompletableFuture.allOf(running).join();
+
+        if (!failures.isEmpty()) {
+            logger.warn("call '{}' failed for pages {}", callName, failures.keySet());
+        }
+
+        final List<T> merged = new ArrayList<>();
+        pages.values().forEach(merged::addAll);
+        return new AllPagesResult<>(merged, lastPage, first.getMaxPages(), new TreeMap<>(failures));
+    }
+
+    private static <T> CompletableFuture<Void> fetchRemaining(
+        IntFunction<CompletableFuture<? extends PagedResult<T>>> pageFetcher,
+        AtomicInteger nextPage,
+        int lastPage,
+        SortedMap<Integer, List<T>> pages,
+        SortedMap<Integer, RuntimeException> failures) {
+
+        final int page = nextPage.getAndIncrement();
+        if (page > lastPage) {
+            return CompletableFuture.completedFuture(null);
+        }
+
+        // stages run on the completing thread. GitHubClient completes every outcome, failures included, with the
+        // callers security context, so the next page can still build its credentials
+        return fetchPage(pageFetcher, page)
+            .handle((result, error) -> {
+                if (error != null) {
+                    failures.put(page, unwrap(error));
+                } else {
+                    pages.put(page, result.getList());
+                }
+                return null;
+            })
+            .thenCompose(ignored -> fetchRemaining(pageFetcher, nextPage, lastPage, pages, failures));
+    }
+
+    private static <T> CompletableFuture<? extends PagedResult<T>> fetchPage(
+        IntFunction<CompletableFuture<? extends PagedResult<T>>> pageFetcher,
+        int page) {
+        try {
+            return pageFetcher.apply(page);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static <R> R join(CompletableFuture<? extends R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            throw unwrap(e);
+        }
+    }
+
+    private static RuntimeException unwrap(Throwable error) {
+        final Throwable cause = error instanceof CompletionException && error.getCause() != null
+            ? error.getCause()
+            : error;
+        if (cause instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new GitHubExecutionException("error fetching page", cause);
+    }
+
+}
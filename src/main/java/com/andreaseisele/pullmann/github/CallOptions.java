@@ -0,0 +1,45 @@
+package com.andreaseisele.pullmann.github;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Per call settings for {@link GitHubClient} executions.
+ * @param conditional whether the call may be answered from the {@link com.andreaseisele.pullmann.github.cache.ConditionalRequestCache}
+ * @param coalesced whether concurrent identical calls may share one request via the {@link com.andreaseisele.pullmann.github.coalesce.RequestCoalescer}, only honored for GETs
+ * @param hedged whether a slow call may be sent a second time via the {@link com.andreaseisele.pullmann.github.hedge.RequestHedger}, only honored for GETs
+ * @param priority priority of the call when the rate limit budget runs low
+ */
+record CallOptions(boolean conditional, boolean coalesced, boolean hedged, RequestPriority priority) {
+
+    CallOptions {
+        requireNonNull(priority, "priority must not be null");
+    }
+
+    static CallOptions defaults() {
+        return new CallOptions(false, false, false, RequestPriority.INTERACTIVE);
+    }
+
+    /**
+     * @return options for plain reads whose results may be cached and shared
+     */
+    static CallOptions sharedRead() {
+        return defaults().withConditional().withCoalescing();
+    }
+
+    CallOptions withConditional() {
+        return new CallOptions(true, coalesced, hedged, priority);
+    }
+
+    CallOptions withCoalescing() {
+        return new CallOptions(conditional, true, hedged, priority);
+    }
+
+    CallOptions withHedging() {
+        return new CallOptions(conditional, coalesced, true, priority);
+    }
+
+    CallOptions withPriority(RequestPriority priority) {
+        return new CallOptions(conditional, coalesced, hedged, priority);
+    }
+
+}
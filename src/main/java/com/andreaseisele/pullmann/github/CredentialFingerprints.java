@@ -0,0 +1,36 @@
+package com.andreaseisele.pullmann.github;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Creates stable fingerprints of credential values (e.g. an Authorization header) so they can be used as
+ * map keys without keeping the secret itself around as key.
+ */
+public class CredentialFingerprints {
+
+    private static final String ANONYMOUS = "anonymous";
+
+    /**
+     * Fingerprint the given credentials via SHA-256.
+     * @param credentials credentials value, may be null
+     * @return hex encoded fingerprint, or a constant for missing credentials
+     */
+    public static String of(String credentials) {
+        if (credentials == null) {
+            return ANONYMOUS;
+        }
+
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(credentials.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private CredentialFingerprints() {}
+
+}
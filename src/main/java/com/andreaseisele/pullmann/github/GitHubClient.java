@@ -5,11 +5,20 @@ import static java.util.Objects.requireNonNull;
 
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.cache.ConditionalRequestCache;
+import com.andreaseisele.pullmann.github.cache.PermissionCache;
+import com.andreaseisele.pullmann.github.coalesce.RequestCoalescer;
+import com.andreaseisele.pullmann.github.hedge.RequestHedger;
+import com.andreaseisele.pullmann.github.metrics.CallOutcome;
+import com.andreaseisele.pullmann.github.metrics.GitHubCallMetrics;
+import com.andreaseisele.pullmann.github.ratelimit.RateLimitBudget;
+import com.andreaseisele.pullmann.github.ratelimit.RateLimitTracker;
 import com.andreaseisele.pullmann.github.dto.ErrorMessage;
 import com.andreaseisele.pullmann.github.dto.File;
 import com.andreaseisele.pullmann.github.dto.MergeRequest;
 import com.andreaseisele.pullmann.github.dto.MergeResponse;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
 import com.andreaseisele.pullmann.github.dto.Repository;
 import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
 import com.andreaseisele.pullmann.github.dto.UpdateRequest;
@@ -19,22 +28,43 @@ import com.andreaseisele.pullmann.github.error.GitHubDownloadException;
 import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
 import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
 import com.andreaseisele.pullmann.github.error.GitHubSerializationException;
+import com.andreaseisele.pullmann.github.resilience.CircuitBreaker;
+import com.andreaseisele.pullmann.github.resilience.CircuitBreakerRegistry;
+import com.andreaseisele.pullmann.github.resilience.RetryPolicy;
+import com.andreaseisele.pullmann.github.result.AllPagesResult;
 import com.andreaseisele.pullmann.github.result.FileResult;
 import com.andreaseisele.pullmann.github.result.MergeResult;
+import com.andreaseisele.pullmann.github.result.PagedResult;
+import com.andreaseisele.pullmann.github.result.PullRequestDetailsResult;
+import com.andreaseisele.pullmann.github.graphql.GraphQlRequest;
+import com.andreaseisele.pullmann.github.graphql.PullRequestDetailsQuery;
+import com.andreaseisele.pullmann.github.json.ObjectReaders;
+import com.andreaseisele.pullmann.github.json.PullRequestSummaryDecoder;
+import com.andreaseisele.pullmann.github.json.StreamingListDecoder;
 import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
 import com.andreaseisele.pullmann.github.result.RepositoryResult;
 import com.andreaseisele.pullmann.github.result.UserResult;
 import com.andreaseisele.pullmann.security.AuthenticationHolder;
 import com.andreaseisele.pullmann.security.GitHubUserDetails;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.type.CollectionType;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+import okhttp3.Call;
+import okhttp3.Callback;
 import okhttp3.Credentials;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
@@ -45,11 +75,16 @@ import okhttp3.ResponseBody;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.http.ContentDisposition;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.concurrent.DelegatingSecurityContextRunnable;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 
 @Service
@@ -57,17 +92,52 @@ public class GitHubClient {
 
     private static final Logger logger = LoggerFactory.getLogger(GitHubClient.class);
 
+    private static final StreamingListDecoder<PullRequestSummary> PULL_REQUEST_SUMMARY_DECODER =
+        new PullRequestSummaryDecoder();
+
 
     private final OkHttpClient httpClient;
     private final GitHubUrls urls;
     private final ObjectMapper objectMapper;
+    private final ObjectReaders objectReaders;
+    private final ConditionalRequestCache conditionalRequestCache;
+    private final PermissionCache permissionCache;
+    private final RateLimitTracker rateLimitTracker;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+    private final RetryPolicy retryPolicy;
+    private final CircuitBreakerRegistry circuitBreakers;
+    private final GitHubCallMetrics callMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final GitHubProperties gitHubProperties;
 
     public GitHubClient(@Qualifier("githubHttpClient") OkHttpClient httpClient,
                         GitHubUrls urls,
-                        @Qualifier("githubObjectMapper") ObjectMapper objectMapper) {
+                        @Qualifier("githubObjectMapper") ObjectMapper objectMapper,
+                        ConditionalRequestCache conditionalRequestCache,
+                        PermissionCache permissionCache,
+                        RateLimitTracker rateLimitTracker,
+                        RequestCoalescer requestCoalescer,
+                        RequestHedger requestHedger,
+                        RetryPolicy retryPolicy,
+                        CircuitBreakerRegistry circuitBreakers,
+                        GitHubCallMetrics callMetrics,
+                        ApplicationEventPublisher eventPublisher,
+                        GitHubProperties gitHubProperties) {
         this.httpClient = httpClient;
         this.urls = urls;
         this.objectMapper = objectMapper;
+        this.objectReaders = new ObjectReaders(objectMapper);
+        this.conditionalRequestCache = conditionalRequestCache;
+        this.permissionCache = permissionCache;
+        this.rateLimitTracker = rateLimitTracker;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+        this.retryPolicy = retryPolicy;
+        this.circuitBreakers = circuitBreakers;
+        this.callMetrics = callMetrics;
+        this.eventPublisher = eventPublisher;
+        this.gitHubProperties = gitHubProperties;
     }
 
     /**
@@ -99,63 +169,171 @@ public class GitHubClient {
     }
 
     public RepositoryResult userRepos(int page) {
-        final String credentials = buildCredentialsFromCurrentAuth();
-        final HttpUrl url = urls.userRepos(page);
-        final Request request = new Request.Builder()
-            .url(url)
-            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
-            .header(HttpHeaders.AUTHORIZATION, credentials)
-            .build();
-
         return executeCall(httpClient,
             "userRepos",
-            request,
-            response -> {
-                final List<Repository> repositories = unmarshallList(response.body(), Repository.class);
-                return RepositoryResult.of(repositories, page, response.header(HttpHeaders.LINK));
-            });
+            userReposRequest(page),
+            CallOptions.sharedRead(),
+            response -> toRepositoryResult(response, page),
+            defaultBadStatusHandler());
     }
 
-    public PullRequestResult pullRequestsForRepo(RepositoryName repositoryName, int page) {
-        final String credentials = buildCredentialsFromCurrentAuth();
-        final HttpUrl url = urls.pullRequests(repositoryName, page, "all");
+    /**
+     * Non-blocking variant of {@link #userRepos(int)}.
+     * @param page the page to request
+     * @return future of the resulting data
+     */
+    public CompletableFuture<RepositoryResult> userReposAsync(int page) {
+        return executeCallAsync(httpClient,
+            "userRepos",
+            userReposRequest(page),
+            CallOptions.sharedRead(),
+            response -> toRepositoryResult(response, page),
+            defaultBadStatusHandler());
+    }
 
-        final Request request = new Request.Builder()
-            .url(url)
-            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
-            .header(HttpHeaders.AUTHORIZATION, credentials)
-            .build();
+    /**
+     * Fetches all pages of {@link #userRepos(int)}, pages after the first one concurrently.
+     * @return the merged result, check {@link AllPagesResult#getFailedPages()} for partial failures
+     */
+    public AllPagesResult<Repository> allUserRepos() {
+        return fetchAllPages("userRepos", this::userReposAsync);
+    }
 
+    public PullRequestResult pullRequestsForRepo(RepositoryName repositoryName, int page) {
         return executeCall(httpClient,
             "pullRequestsForRepo",
-            request,
+            pullRequestsRequest(repositoryName, page),
+            CallOptions.sharedRead(),
             response -> { // OK
                 final List<PullRequest> pullRequests = unmarshallList(response.body(), PullRequest.class);
                 return PullRequestResult.of(pullRequests, page, response.header(HttpHeaders.LINK));
             },
+            GitHubClient::pullRequestsBadStatusHandler);
+    }
+
+    /**
+     * Non-blocking variant of {@link #pullRequestsForRepo(RepositoryName, int)}.
+     * @param repositoryName the repository
+     * @param page the page to request
+     * @return future of the resulting data
+     */
+    public CompletableFuture<PullRequestResult> pullRequestsForRepoAsync(RepositoryName repositoryName, int page) {
+        return executeCallAsync(httpClient,
+            "pullRequestsForRepo",
+            pullRequestsRequest(repositoryName, page),
+            CallOptions.sharedRead(),
+            response -> {
+                final List<PullRequest> pullRequests = unmarshallList(response.body(), PullRequest.class);
+                return PullRequestResult.of(pullRequests, page, response.header(HttpHeaders.LINK));
+            },
+            GitHubClient::pullRequestsBadStatusHandler);
+    }
+
+    /**
+     * Fetches all pages of {@link #pullRequestsForRepo(RepositoryName, int)}, pages after the first one concurrently.
+     * @param repositoryName the repository
+     * @return the merged result, check {@link AllPagesResult#getFailedPages()} for partial failures
+     */
+    public AllPagesResult<PullRequest> allPullRequestsForRepo(RepositoryName repositoryName) {
+        return fetchAllPages("pullRequestsForRepo", page -> pullRequestsForRepoAsync(repositoryName, page));
+    }
+
+    /**
+     * Same request as {@link #pullRequestsForRepo(RepositoryName, int)} but the response is decoded in a
+     * streaming fashion into lean {@link PullRequestSummary} projections, meant for list views.
+     * @param repositoryName the repository
+     * @param page the page to request
+     * @return the resulting data, empty if the repository does not exist
+     */
+    public PullRequestSummaryResult pullRequestSummariesForRepo(RepositoryName repositoryName, int page) {
+        return executeCall(httpClient,
+            "pullRequestSummariesForRepo",
+            pullRequestsRequest(repositoryName, page),
+            CallOptions.sharedRead(),
+            response -> { // OK
+                final List<PullRequestSummary> summaries = decodeList(response.body(), PULL_REQUEST_SUMMARY_DECODER);
+                return PullRequestSummaryResult.of(summaries, page, response.header(HttpHeaders.LINK));
+            },
             response -> { // BAD
                 if (response.code() == HttpStatus.NOT_FOUND.value()) {
-                    return PullRequestResult.empty();
+                    return PullRequestSummaryResult.empty();
                 } else {
-                    return GitHubClient.<PullRequestResult>defaultBadStatusHandler().apply(response);
+                    return GitHubClient.<PullRequestSummaryResult>defaultBadStatusHandler().apply(response);
                 }
             });
     }
 
-    public PullRequest pullRequestDetails(PullRequestCoordinates coordinates) {
-        final String credentials = buildCredentialsFromCurrentAuth();
-        final HttpUrl url = urls.pullRequestDetails(coordinates);
-
+    /**
+     * Pull requests of the repository ordered by last update, most recent first. Meant for incremental
+     * synchronization which can stop paging once it reaches already known updates.
+     * @param repositoryName the repository
+     * @param page the page to request
+     * @param perPage the page size
+     * @return the resulting data, empty if the repository does not exist
+     */
+    public PullRequestResult pullRequestsByUpdated(RepositoryName repositoryName, int page, int perPage) {
         final Request request = new Request.Builder()
-            .url(url)
+            .url(urls.pullRequestsByUpdated(repositoryName, page, perPage))
             .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
-            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .header(HttpHeaders.AUTHORIZATION, buildCredentialsFromCurrentAuth())
             .build();
 
         return executeCall(httpClient,
-            "pullRequestDetails",
+            "pullRequestsByUpdated",
             request,
-            response -> unmarshall(response.body(), PullRequest.class));
+            CallOptions.sharedRead(),
+            response -> { // OK
+                final List<PullRequest> pullRequests = unmarshallList(response.body(), PullRequest.class);
+                return PullRequestResult.of(pullRequests, page, response.header(HttpHeaders.LINK));
+            },
+            GitHubClient::pullRequestsBadStatusHandler);
+    }
+
+    public PullRequest pullRequestDetails(PullRequestCoordinates coordinates) {
+        return executeCall(httpClient,
+            "pullRequestDetails",
+            pullRequestDetailsRequest(coordinates),
+            CallOptions.sharedRead().withHedging(),
+            response -> unmarshall(response.body(), PullRequest.class),
+            defaultBadStatusHandler());
+    }
+
+    /**
+     * Non-blocking variant of {@link #pullRequestDetails(PullRequestCoordinates)}.
+     * @param coordinates the pull request
+     * @return future of the pull request
+     */
+    public CompletableFuture<PullRequest> pullRequestDetailsAsync(PullRequestCoordinates coordinates) {
+        return executeCallAsync(httpClient,
+            "pullRequestDetails",
+            pullRequestDetailsRequest(coordinates),
+            CallOptions.sharedRead().withHedging(),
+            response -> unmarshall(response.body(), PullRequest.class),
+            defaultBadStatusHandler());
+    }
+
+    /**
+     * The pull request together with the current users permission on its repository.
+     * Depending on {@link GitHubProperties#getApiMode()} this is either a single GraphQL call or two concurrent
+     * REST calls.
+     * @param coordinates the pull request
+     * @return future of the combined result
+     */
+    public CompletableFuture<PullRequestDetailsResult> pullRequestDetailsWithPermissionAsync(
+        PullRequestCoordinates coordinates) {
+
+        if (gitHubProperties.getApiMode() == GitHubProperties.ApiMode.GRAPHQL) {
+            final String apiUrl = urls.pullRequestDetails(coordinates).toString();
+            return executeCallAsync(httpClient,
+                "pullRequestDetailsWithPermission",
+                graphQlRequest(PullRequestDetailsQuery.request(coordinates)),
+                CallOptions.defaults(),
+                response -> unmarshall(response.body(), PullRequestDetailsQuery.Response.class).toResult(apiUrl),
+                defaultBadStatusHandler());
+        }
+
+        return pullRequestDetailsAsync(coordinates)
+            .thenCombine(usersRepositoryPermissionAsync(coordinates.repositoryName()), PullRequestDetailsResult::of);
     }
 
     public MergeResult merge(PullRequestCoordinates coordinates, String message, String sha) {
@@ -175,11 +353,13 @@ public class GitHubClient {
             "merge",
             request,
             response -> MergeResult.of(unmarshall(response.body(), MergeResponse.class)), // OK
-            response ->  // FAILURE
-                switch (response.code()) {
-                    case 404, 405, 409 -> MergeResult.failure();
+            response -> { // FAILURE
+                evictPermissionIfRefused(credentials, coordinates.repositoryName(), response);
+                return switch (response.code()) {
+                    case 404, 405, 409 -> MergeResult.failure(response.code());
                     default -> GitHubClient.<MergeResult>defaultBadStatusHandler().apply(response);
-                });
+                };
+            });
     }
 
     public boolean close(PullRequestCoordinates coordinates) {
@@ -199,31 +379,46 @@ public class GitHubClient {
             "close",
             request,
             response -> true, // OK
-            response ->  // BAD
-                switch (response.code()) {
+            response -> { // BAD
+                evictPermissionIfRefused(credentials, coordinates.repositoryName(), response);
+                return switch (response.code()) {
                     case 403, 404, 422 -> false;
                     default -> GitHubClient.<Boolean>defaultBadStatusHandler().apply(response);
-                });
+                };
+            });
     }
 
     public FileResult files(PullRequestCoordinates coordinates, int page) {
-        final String credentials = buildCredentialsFromCurrentAuth();
-        final HttpUrl url = urls.pullRequestFiles(coordinates, page, 100);
-
-        final Request request = new Request.Builder()
-            .url(url)
-            .get()
-            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
-            .header(HttpHeaders.AUTHORIZATION, credentials)
-            .build();
-
         return executeCall(httpClient,
             "files",
-            request,
-            response -> {
-                final List<File> files = unmarshallList(response.body(), File.class);
-                return FileResult.of(files, page, response.header(HttpHeaders.LINK));
-            });
+            filesRequest(coordinates, page),
+            CallOptions.defaults().withCoalescing(),
+            response -> toFileResult(response, page),
+            defaultBadStatusHandler());
+    }
+
+    /**
+     * Non-blocking variant of {@link #files(PullRequestCoordinates, int)}.
+     * @param coordinates the pull request
+     * @param page the page to request
+     * @return future of the resulting data
+     */
+    public CompletableFuture<FileResult> filesAsync(PullRequestCoordinates coordinates, int page) {
+        return executeCallAsync(httpClient,
+            "files",
+            filesRequest(coordinates, page),
+            CallOptions.defaults().withCoalescing(),
+            response -> toFileResult(response, page),
+            defaultBadStatusHandler());
+    }
+
+    /**
+     * Fetches all pages of {@link #files(PullRequestCoordinates, int)}, pages after the first one concurrently.
+     * @param coordinates the pull request
+     * @return the merged result, check {@link AllPagesResult#getFailedPages()} for partial failures
+     */
+    public AllPagesResult<File> allFiles(PullRequestCoordinates coordinates) {
+        return fetchAllPages("files", page -> filesAsync(coordinates, page));
     }
 
     /**
@@ -254,45 +449,207 @@ public class GitHubClient {
             .callTimeout(Duration.ZERO)
             .build();
 
-        return executeCall(clientWithoutTimeout,
-            "downloadRepoContent",
-            request,
-            response -> {
-                downloadToTarget(response, targetDir);
-                return true;
-            });
+        final int maxAttempts = gitHubProperties.getDownload().getMaxResumeAttempts();
+        for (int attempt = 1; ; attempt++) {
+            // resumes what an earlier attempt, or a run before a restart, left behind
+            final PartialDownload partial = PartialDownload.find(targetDir).orElse(null);
+            if (partial != null) {
+                logger.info("resuming download into [{}] at {} bytes", targetDir, partial.size());
+            }
+
+            try {
+                return executeCall(clientWithoutTimeout,
+                    "downloadRepoContent",
+                    partial != null ? partial.resume(request) : request,
+                    CallOptions.defaults().withPriority(RequestPriority.BACKGROUND),
+                    response -> {
+                        PartialDownload.write(response, targetDir, partial);
+                        return true;
+                    },
+                    response -> {
+                        if (partial != null && response.code() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+                            // the part does not match the content (anymore), the next attempt starts over
+                            partial.discard();
+                        }
+                        return GitHubClient.<Boolean>defaultBadStatusHandler().apply(response);
+                    });
+            } catch (GitHubDownloadException | GitHubHttpStatusException e) {
+                final boolean resumable = e instanceof GitHubDownloadException && e.getCause() instanceof IOException
+                    || e instanceof GitHubHttpStatusException status
+                    && status.getHttpStatus() == HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value();
+                if (!resumable || attempt >= maxAttempts) {
+                    throw e;
+                }
+                logger.warn("download into [{}] failed in attempt {}, retrying: {}", targetDir, attempt, e.getMessage());
+            }
+        }
     }
 
     /**
      * Requests the current users permissions for the given repository.
      * If the request fails due to missing permissions a permission level of 'NONE' is assumed.
+     * Results are served from the {@link PermissionCache} if possible.
      * @param repositoryName the repository
      * @return the users permission
      */
     public RepositoryPermission usersRepositoryPermission(RepositoryName repositoryName) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final Optional<RepositoryPermission> cached = permissionCache.lookup(credentials, repositoryName);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+
+        final RepositoryPermission permission = executeCall(httpClient,
+            "usersRepositoryPermission",
+            usersRepositoryPermissionRequest(repositoryName),
+            CallOptions.sharedRead().withHedging(),
+            response -> unmarshall(response.body(), RepositoryPermission.class),
+            GitHubClient::permissionBadStatusHandler
+        );
+        permissionCache.store(credentials, repositoryName, permission);
+        return permission;
+    }
+
+    /**
+     * Non-blocking variant of {@link #usersRepositoryPermission(RepositoryName)}.
+     * @param repositoryName the repository
+     * @return future of the users permission
+     */
+    public CompletableFuture<RepositoryPermission> usersRepositoryPermissionAsync(RepositoryName repositoryName) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final Optional<RepositoryPermission> cached = permissionCache.lookup(credentials, repositoryName);
+        if (cached.isPresent()) {
+            return CompletableFuture.completedFuture(cached.get());
+        }
+
+        return executeCallAsync(httpClient,
+            "usersRepositoryPermission",
+            usersRepositoryPermissionRequest(repositoryName),
+            CallOptions.sharedRead().withHedging(),
+            response -> unmarshall(response.body(), RepositoryPermission.class),
+            GitHubClient::permissionBadStatusHandler
+        ).thenApply(permission -> {
+            permissionCache.store(credentials, repositoryName, permission);
+            return permission;
+        });
+    }
+
+    /**
+     * The last known rate limit budget of the current user.
+     * @return the budget, if any call has been made yet
+     */
+    public Optional<RateLimitBudget> currentRateLimitBudget() {
+        return rateLimitTracker.budget(buildCredentialsFromCurrentAuth());
+    }
+
+    private Request userReposRequest(int page) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final HttpUrl url = urls.userRepos(page);
+
+        return new Request.Builder()
+            .url(url)
+            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
+            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .build();
+    }
+
+    private Request pullRequestsRequest(RepositoryName repositoryName, int page) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final HttpUrl url = urls.pullRequests(repositoryName, page, "all");
+
+        return new Request.Builder()
+            .url(url)
+            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
+            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .build();
+    }
+
+    private Request graphQlRequest(GraphQlRequest query) {
+        final String accessToken = extractAccessToken(AuthenticationHolder.currentAuthentication());
+        if (accessToken == null) {
+            throw new GitHubAuthenticationException("unsupported credential type in security context");
+        }
+
+        // GraphQL has its own rate limit, the different authorization header keeps the budgets apart
+        return new Request.Builder()
+            .url(urls.graphql())
+            .post(RequestBody.create(marshall(query), okhttp3.MediaType.get(MediaType.APPLICATION_JSON_VALUE)))
+            .header(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
+            .header(HttpHeaders.AUTHORIZATION, "bearer " + accessToken)
+            .build();
+    }
+
+    private static PullRequestResult pullRequestsBadStatusHandler(Response response) {
+        if (response.code() == HttpStatus.NOT_FOUND.value()) {
+            return PullRequestResult.empty();
+        }
+        return GitHubClient.<PullRequestResult>defaultBadStatusHandler().apply(response);
+    }
+
+    private Request filesRequest(PullRequestCoordinates coordinates, int page) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final HttpUrl url = urls.pullRequestFiles(coordinates, page, 100);
+
+        return new Request.Builder()
+            .url(url)
+            .get()
+            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
+            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .build();
+    }
+
+    private FileResult toFileResult(Response response, int page) {
+        final List<File> files = unmarshallList(response.body(), File.class);
+        return FileResult.of(files, page, response.header(HttpHeaders.LINK));
+    }
+
+    private RepositoryResult toRepositoryResult(Response response, int page) {
+        final List<Repository> repositories = unmarshallList(response.body(), Repository.class);
+        return RepositoryResult.of(repositories, page, response.header(HttpHeaders.LINK));
+    }
+
+    private Request pullRequestDetailsRequest(PullRequestCoordinates coordinates) {
+        final String credentials = buildCredentialsFromCurrentAuth();
+        final HttpUrl url = urls.pullRequestDetails(coordinates);
+
+        return new Request.Builder()
+            .url(url)
+            .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
+            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .build();
+    }
+
+    private Request usersRepositoryPermissionRequest(RepositoryName repositoryName) {
         final UsernamePasswordAuthenticationToken authentication = AuthenticationHolder.currentAuthentication();
         final String username = extractUsername(authentication);
         final String credentials = buildCredentials(authentication);
         final HttpUrl url = urls.userRepositoryPermission(repositoryName, username);
 
-        final Request request = new Request.Builder()
+        return new Request.Builder()
             .url(url)
             .get()
             .header(HttpHeaders.AUTHORIZATION, credentials)
             .header(HttpHeaders.ACCEPT, GitHubMediaTypes.JSON)
             .build();
+    }
 
-        return executeCall(httpClient,
-            "usersRepositoryPermission",
-            request,
-            response -> unmarshall(response.body(), RepositoryPermission.class),
-            response -> {
-                if (response.code() == HttpStatus.FORBIDDEN.value()) {
-                    return RepositoryPermission.none();
-                }
-                return GitHubClient.<RepositoryPermission>defaultBadStatusHandler().apply(response);
-            }
-        );
+    private void evictPermissionIfRefused(String credentials, RepositoryName repositoryName, Response response) {
+        if (response.code() == HttpStatus.FORBIDDEN.value() || response.code() == HttpStatus.NOT_FOUND.value()) {
+            permissionCache.evict(credentials, repositoryName);
+        }
+    }
+
+    private static RepositoryPermission permissionBadStatusHandler(Response response) {
+        if (response.code() == HttpStatus.FORBIDDEN.value()) {
+            return RepositoryPermission.none();
+        }
+        return GitHubClient.<RepositoryPermission>defaultBadStatusHandler().apply(response);
+    }
+
+    private <T> AllPagesResult<T> fetchAllPages(String callName,
+                                                IntFunction<CompletableFuture<? extends PagedResult<T>>> pageFetcher) {
+        final GitHubProperties.FetchAllProperties properties = gitHubProperties.getFetchAll();
+        return AllPagesFetcher.fetch(callName, pageFetcher, properties.getParallelism(), properties.getMaxPages());
     }
 
     private <R> R executeCall(OkHttpClient httpClient,
@@ -312,19 +669,336 @@ public class GitHubClient {
                               Request request,
                               Function<Response, R> successHandler,
                               Function<Response, R> badStatusHandler) {
+
+        return executeCall(httpClient,
+            callName,
+            request,
+            CallOptions.defaults(),
+            successHandler,
+            badStatusHandler);
+    }
+
+    private <R> R executeCall(OkHttpClient httpClient,
+                              String callName,
+                              Request request,
+                              CallOptions options,
+                              Function<Response, R> successHandler,
+                              Function<Response, R> badStatusHandler) {
+        requireNonNull(options, "call options must not be null");
         requireNonNull(successHandler, "success handler must not be null");
         requireNonNull(badStatusHandler, "bad status handler must not be null");
 
-        try (final Response response = httpClient.newCall(request).execute()) {
-            if (response.isSuccessful()) {
-                return successHandler.apply(response);
-            } else {
-                logErrorResponse(callName, response);
-                return badStatusHandler.apply(response);
+        if (isHedged(request, options)) {
+            // hedging needs a second call in flight, so the blocking variant waits for the non-blocking one
+            return await(executeCallAsync(httpClient, callName, request, options, successHandler, badStatusHandler));
+        }
+        if (isCoalesced(request, options)) {
+            return requestCoalescer.execute(callName,
+                request,
+                () -> sendCall(httpClient, callName, request, options, successHandler, badStatusHandler));
+        }
+        return sendCall(httpClient, callName, request, options, successHandler, badStatusHandler);
+    }
+
+    private <R> R sendCall(OkHttpClient httpClient,
+                           String callName,
+                           Request request,
+                           CallOptions options,
+                           Function<Response, R> successHandler,
+                           Function<Response, R> badStatusHandler) {
+        final CircuitBreaker.Permit permit = circuitBreakers.acquire(callName);
+        try {
+            final ConditionalRequestCache.Entry cached = lookupConditional(callName, request, options);
+            final Request effectiveRequest =
+                GitHubCallMetrics.tag(cached != null ? cached.applyTo(request) : request, callName);
+
+            for (int attempt = 1; ; attempt++) {
+                rateLimitTracker.acquire(callName, request.header(HttpHeaders.AUTHORIZATION), options.priority());
+
+                Duration retryDelay;
+                final Timer.Sample sample = callMetrics.start();
+                try (final Response response = httpClient.newCall(effectiveRequest).execute()) {
+                    final Optional<Duration> delay = retryPolicy.retryDelay(request, attempt, response);
+                    if (delay.isEmpty()) {
+                        permit.record(response.code());
+                        return handleResponse(callName,
+                            request,
+                            options,
+                            cached,
+                            response,
+                            successHandler,
+                            badStatusHandler,
+                            sample);
+                    }
+                    callMetrics.stop(sample, callName, CallOutcome.BAD_STATUS, response.code());
+                    rateLimitTracker.update(request.header(HttpHeaders.AUTHORIZATION), response);
+                    retryDelay = delay.get();
+                    logRetry(callName, attempt, retryDelay, "HTTP " + response.code());
+                } catch (IOException e) {
+                    callMetrics.stop(sample, callName, CallOutcome.IO_ERROR, null);
+                    final Optional<Duration> delay = retryPolicy.retryDelay(request, attempt, e);
+                    if (delay.isEmpty()) {
+                        permit.failure();
+                        throw new GitHubExecutionException("error on call '%s'".formatted(callName), e);
+                    }
+                    retryDelay = delay.get();
+                    logRetry(callName, attempt, retryDelay, e.toString());
+                }
+
+                RetryPolicy.sleep(callName, retryDelay);
             }
-        } catch (IOException e) {
-            throw new GitHubExecutionException("error on call '%s'".formatted(callName), e);
+        } finally {
+            // no-op if an outcome got reported
+            permit.release();
+        }
+    }
+
+    /**
+     * Same semantics as the blocking execution but the call gets enqueued on the HTTP clients dispatcher.
+     * Handlers run on the dispatcher thread with the security context of the calling thread, so do dependent
+     * stages registered before completion.
+     */
+    private <R> CompletableFuture<R> executeCallAsync(OkHttpClient httpClient,
+                                                      String callName,
+                                                      Request request,
+                                                      CallOptions options,
+                                                      Function<Response, R> successHandler,
+                                                      Function<Response, R> badStatusHandler) {
+        requireNonNull(options, "call options must not be null");
+        requireNonNull(successHandler, "success handler must not be null");
+        requireNonNull(badStatusHandler, "bad status handler must not be null");
+
+        final SecurityContext securityContext = copyOfCurrentSecurityContext();
+        final Supplier<CompletableFuture<R>> send =
+            () -> sendCallAsync(httpClient, callName, request, options, successHandler, badStatusHandler, securityContext);
+        final Supplier<CompletableFuture<R>> execute = isHedged(request, options)
+            ? () -> requestHedger.execute(callName, send)
+            : send;
+
+        if (isCoalesced(request, options)) {
+            return requestCoalescer.executeAsync(callName, request, execute);
+        }
+        return execute.get();
+    }
+
+    private <R> CompletableFuture<R> sendCallAsync(OkHttpClient httpClient,
+                                                   String callName,
+                                                   Request request,
+                                                   CallOptions options,
+                                                   Function<Response, R> successHandler,
+                                                   Function<Response, R> badStatusHandler,
+                                                   SecurityContext securityContext) {
+        final CircuitBreaker.Permit permit;
+        try {
+            permit = circuitBreakers.acquire(callName);
+        } catch (RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
         }
+
+        final ConditionalRequestCache.Entry cached = lookupConditional(callName, request, options);
+        final PendingCall<R> pendingCall = new PendingCall<>(httpClient,
+            callName,
+            request,
+            GitHubCallMetrics.tag(cached != null ? cached.applyTo(request) : request, callName),
+            options,
+            cached,
+            successHandler,
+            badStatusHandler,
+            securityContext,
+            permit,
+            new CompletableFuture<>());
+        pendingCall.future().whenComplete((result, error) -> permit.release());
+
+        sendAttemptAsync(pendingCall, 1);
+        return pendingCall.future();
+    }
+
+    private <R> void sendAttemptAsync(PendingCall<R> pendingCall, int attempt) {
+        final String callName = pendingCall.callName();
+        final Request request = pendingCall.request();
+        final CompletableFuture<R> future = pendingCall.future();
+        if (future.isDone()) {
+            // cancelled while waiting for a retry
+            return;
+        }
+
+        try {
+            rateLimitTracker.acquire(callName,
+                request.header(HttpHeaders.AUTHORIZATION),
+                pendingCall.options().priority());
+        } catch (RuntimeException e) {
+            // a retry runs on a delayed executor thread
+            completeExceptionally(pendingCall, e);
+            return;
+        }
+
+        final Timer.Sample sample = callMetrics.start();
+        final Call httpCall = pendingCall.httpClient().newCall(pendingCall.effectiveRequest());
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                httpCall.cancel();
+            }
+        });
+        httpCall.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                if (call.isCanceled()) {
+                    callMetrics.stop(sample, callName, CallOutcome.CANCELLED, null);
+                    // e.g. the losing side of a hedged call, says nothing about GitHubs health
+                    completeExceptionally(pendingCall,
+                        new GitHubExecutionException("call '%s' was cancelled".formatted(callName), e));
+                    return;
+                }
+                callMetrics.stop(sample, callName, CallOutcome.IO_ERROR, null);
+                final Optional<Duration> delay = retryPolicy.retryDelay(request, attempt, e);
+                if (delay.isPresent()) {
+                    logRetry(callName, attempt, delay.get(), e.toString());
+                    retryLater(pendingCall, attempt, delay.get());
+                    return;
+                }
+                pendingCall.permit().failure();
+                completeExceptionally(pendingCall,
+                    new GitHubExecutionException("error on call '%s'".formatted(callName), e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                final Optional<Duration> delay = retryPolicy.retryDelay(request, attempt, response);
+                if (delay.isPresent()) {
+                    try (response) {
+                        callMetrics.stop(sample, callName, CallOutcome.BAD_STATUS, response.code());
+                        rateLimitTracker.update(request.header(HttpHeaders.AUTHORIZATION), response);
+                        logRetry(callName, attempt, delay.get(), "HTTP " + response.code());
+                    }
+                    retryLater(pendingCall, attempt, delay.get());
+                    return;
+                }
+
+                pendingCall.permit().record(response.code());
+                new DelegatingSecurityContextRunnable(() -> {
+                    try (response) {
+                        future.complete(handleResponse(callName,
+                            request,
+                            pendingCall.options(),
+                            pendingCall.cached(),
+                            response,
+                            pendingCall.successHandler(),
+                            pendingCall.badStatusHandler(),
+                            sample));
+                    } catch (RuntimeException e) {
+                        future.completeExceptionally(e);
+                    }
+                }, pendingCall.securityContext()).run();
+            }
+        });
+    }
+
+    /**
+     * Complete with the callers security context, so dependent stages see it no matter which thread fails the call.
+     */
+    private static <R> void completeExceptionally(PendingCall<R> pendingCall, Throwable error) {
+        new DelegatingSecurityContextRunnable(() -> pendingCall.future().completeExceptionally(error),
+            pendingCall.securityContext()).run();
+    }
+
+    private <R> void retryLater(PendingCall<R> pendingCall, int attempt, Duration delay) {
+        CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+            .execute(() -> sendAttemptAsync(pendingCall, attempt + 1));
+    }
+
+    private static void logRetry(String callName, int attempt, Duration delay, String reason) {
+        logger.info("call '{}' attempt {} failed ({}), retrying in {} ms", callName, attempt, reason, delay.toMillis());
+    }
+
+    /**
+     * State of a non-blocking call that lives across retry attempts.
+     */
+    private record PendingCall<R>(OkHttpClient httpClient,
+                                  String callName,
+                                  Request request,
+                                  Request effectiveRequest,
+                                  CallOptions options,
+                                  ConditionalRequestCache.Entry cached,
+                                  Function<Response, R> successHandler,
+                                  Function<Response, R> badStatusHandler,
+                                  SecurityContext securityContext,
+                                  CircuitBreaker.Permit permit,
+                                  CompletableFuture<R> future) {
+    }
+
+    private static boolean isCoalesced(Request request, CallOptions options) {
+        return options.coalesced() && HttpMethod.GET.matches(request.method());
+    }
+
+    private boolean isHedged(Request request, CallOptions options) {
+        return options.hedged() && requestHedger.isEnabled() && HttpMethod.GET.matches(request.method());
+    }
+
+    private static <R> R await(CompletableFuture<R> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private ConditionalRequestCache.Entry lookupConditional(String callName, Request request, CallOptions options) {
+        if (!options.conditional()) {
+            return null;
+        }
+        return conditionalRequestCache.lookup(callName, request).orElse(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <R> R handleResponse(String callName,
+                                 Request request,
+                                 CallOptions options,
+                                 ConditionalRequestCache.Entry cached,
+                                 Response response,
+                                 Function<Response, R> successHandler,
+                                 Function<Response, R> badStatusHandler,
+                                 Timer.Sample sample) {
+        rateLimitTracker.update(request.header(HttpHeaders.AUTHORIZATION), response);
+
+        if (cached != null && response.code() == HttpStatus.NOT_MODIFIED.value()) {
+            callMetrics.stop(sample, callName, CallOutcome.NOT_MODIFIED, response.code());
+            logger.debug("call '{}' not modified, using cached result", callName);
+            conditionalRequestCache.recordNotModified();
+            return (R) cached.value();
+        }
+
+        if (!response.isSuccessful()) {
+            callMetrics.stop(sample, callName, CallOutcome.BAD_STATUS, response.code());
+            if (response.code() == HttpStatus.UNAUTHORIZED.value()) {
+                eventPublisher.publishEvent(new GitHubUnauthorizedEvent(request.header(HttpHeaders.AUTHORIZATION)));
+            }
+            logErrorResponse(callName, response);
+            return badStatusHandler.apply(response);
+        }
+
+        // deserializing is part of the calls latency
+        CallOutcome outcome = CallOutcome.SUCCESS;
+        try {
+            final R result = successHandler.apply(response);
+            if (options.conditional()) {
+                conditionalRequestCache.store(callName, request, response, result);
+            }
+            return result;
+        } catch (GitHubSerializationException e) {
+            outcome = CallOutcome.SERIALIZATION_ERROR;
+            throw e;
+        } finally {
+            callMetrics.stop(sample, callName, outcome, response.code());
+        }
+    }
+
+    private static SecurityContext copyOfCurrentSecurityContext() {
+        final SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(SecurityContextHolder.getContext().getAuthentication());
+        return context;
     }
 
     private void logErrorResponse(String callName, Response errorResponse) {
@@ -336,7 +1010,7 @@ public class GitHubClient {
                 error.message(),
                 error.documentationUrl());
         } else {
-            logger.warn("call 'currentUserViaToken' was not OK: status={}, no message", errorResponse.code());
+            logger.warn("call '{}' was not OK: status={}, no message", callName, errorResponse.code());
         }
     }
 
@@ -350,7 +1024,13 @@ public class GitHubClient {
         if (body == null) {
             return null;
         }
-        return unmarshall(body, ErrorMessage.class);
+        // proxies and gateways answer with empty or HTML bodies, the status is what counts
+        try {
+            return unmarshall(body, ErrorMessage.class);
+        } catch (GitHubSerializationException e) {
+            logger.debug("error response has no readable error message: {}", e.getMessage());
+            return null;
+        }
     }
 
     private <T> T unmarshall(ResponseBody body, Class<T> type) {
@@ -358,21 +1038,31 @@ public class GitHubClient {
             throw new GitHubExecutionException("tried to unmarshall a null body");
         }
         try {
-            return objectMapper.readValue(body.charStream(), type);
+            return objectReaders.forType(type).readValue(body.byteStream());
         } catch (IOException e) {
             throw new GitHubSerializationException("error unmarshalling to " + type, e);
         }
     }
 
-    private <T> List<T> unmarshallList(ResponseBody body, Class<T> type) {
+    <T> List<T> unmarshallList(ResponseBody body, Class<T> type) {
         if (body == null) {
             throw new GitHubExecutionException("tried to unmarshall a null body");
         }
-        final CollectionType collectionType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
         try {
-            return objectMapper.readValue(body.charStream(), collectionType);
+            return objectReaders.forListOf(type).readValue(body.byteStream());
+        } catch (IOException e) {
+            throw new GitHubSerializationException("error unmarshalling to list of " + type, e);
+        }
+    }
+
+    private <T> List<T> decodeList(ResponseBody body, StreamingListDecoder<T> decoder) {
+        if (body == null) {
+            throw new GitHubExecutionException("tried to decode a null body");
+        }
+        try (final JsonParser parser = objectMapper.getFactory().createParser(body.byteStream())) {
+            return decoder.decode(parser);
         } catch (IOException e) {
-            throw new GitHubSerializationException("error unmarshalling to " + collectionType, e);
+            throw new GitHubSerializationException("error decoding via " + decoder.getClass().getSimpleName(), e);
         }
     }
 
@@ -384,22 +1074,6 @@ public class GitHubClient {
         }
     }
 
-    private void downloadToTarget(Response response, Path targetDir) {
-        final ResponseBody body = response.body();
-        if (body == null) {
-            throw new GitHubExecutionException("tried to download a null body");
-        }
-
-        final String filename = extractFilename(response);
-        final Path target = targetDir.resolve(filename);
-
-        try {
-            Files.copy(body.byteStream(), target);
-        } catch (IOException e) {
-            throw new GitHubDownloadException("error downloading file to target directory " + targetDir, e);
-        }
-    }
-
     static String extractFilename(Response response) {
         final String headerValue = response.header(HttpHeaders.CONTENT_DISPOSITION);
         if (headerValue == null) {
@@ -414,7 +1088,12 @@ public class GitHubClient {
         return buildCredentials(AuthenticationHolder.currentAuthentication());
     }
 
-    private static String buildCredentials(UsernamePasswordAuthenticationToken token) {
+    /**
+     * @param token token holding username and personal access token
+     * @return the Authorization header value for calls on behalf of the token
+     * @throws GitHubAuthenticationException if the token does not carry a username and access token
+     */
+    public static String buildCredentials(UsernamePasswordAuthenticationToken token) {
         final String username = extractUsername(token);
         final String accessToken = extractAccessToken(token);
 
@@ -4,6 +4,9 @@ public class GitHubHeaders {
     
     public static final String OAUTH_SCOPES = "X-OAuth-Scopes";
     public static final String TOKEN_EXPIRATION = "github-authentication-token-expiration";
+    public static final String RATE_LIMIT_LIMIT = "X-RateLimit-Limit";
+    public static final String RATE_LIMIT_REMAINING = "X-RateLimit-Remaining";
+    public static final String RATE_LIMIT_RESET = "X-RateLimit-Reset";
 
     private GitHubHeaders() {}
 
@@ -1,6 +1,10 @@
 package com.andreaseisele.pullmann.github;
 
 import javax.validation.Valid;
+import javax.validation.constraints.DecimalMax;
+import javax.validation.constraints.DecimalMin;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Positive;
@@ -20,6 +24,8 @@ public final class GitHubProperties {
     @NotNull
     private String baseUrl = "https://api.github.com";
 
+    private String graphqlUrl;
+
     @Valid
     @NestedConfigurationProperty
     @NotNull
@@ -31,11 +37,94 @@ public final class GitHubProperties {
     @NotBlank
     private String mergeMessage = "merged via Pullman";
 
+    @NotNull
+    private ApiMode apiMode = ApiMode.REST;
+
     @Valid
     @NestedConfigurationProperty
     @NotNull
     private DownloadProperties download = new DownloadProperties();
 
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private ResponseCacheProperties responseCache = new ResponseCacheProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private RateLimitProperties rateLimit = new RateLimitProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private AsyncProperties async = new AsyncProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private FetchAllProperties fetchAll = new FetchAllProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private ResilienceProperties resilience = new ResilienceProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private HedgingProperties hedging = new HedgingProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private JsonProperties json = new JsonProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private LoginCacheProperties loginCache = new LoginCacheProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private PermissionCacheProperties permissionCache = new PermissionCacheProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private RepositoryListCacheProperties repositoryListCache = new RepositoryListCacheProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private PullRequestSyncProperties pullRequestSync = new PullRequestSyncProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private SearchProperties search = new SearchProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private WebhookProperties webhook = new WebhookProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private BulkActionProperties bulkAction = new BulkActionProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private MergeQueueProperties mergeQueue = new MergeQueueProperties();
+
+    @Valid
+    @NestedConfigurationProperty
+    @NotNull
+    private MetricsProperties metrics = new MetricsProperties();
+
     public String getBaseUrl() {
         return baseUrl;
     }
@@ -44,6 +133,14 @@ public final class GitHubProperties {
         this.baseUrl = baseUrl;
     }
 
+    public String getGraphqlUrl() {
+        return graphqlUrl;
+    }
+
+    public void setGraphqlUrl(String graphqlUrl) {
+        this.graphqlUrl = graphqlUrl;
+    }
+
     public Timeouts getTimeouts() {
         return timeouts;
     }
@@ -68,6 +165,14 @@ public final class GitHubProperties {
         this.mergeMessage = mergeMessage;
     }
 
+    public ApiMode getApiMode() {
+        return apiMode;
+    }
+
+    public void setApiMode(ApiMode apiMode) {
+        this.apiMode = apiMode;
+    }
+
     public DownloadProperties getDownload() {
         return download;
     }
@@ -76,6 +181,144 @@ public final class GitHubProperties {
         this.download = download;
     }
 
+    public ResponseCacheProperties getResponseCache() {
+        return responseCache;
+    }
+
+    public void setResponseCache(ResponseCacheProperties responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    public RateLimitProperties getRateLimit() {
+        return rateLimit;
+    }
+
+    public void setRateLimit(RateLimitProperties rateLimit) {
+        this.rateLimit = rateLimit;
+    }
+
+    public AsyncProperties getAsync() {
+        return async;
+    }
+
+    public void setAsync(AsyncProperties async) {
+        this.async = async;
+    }
+
+    public FetchAllProperties getFetchAll() {
+        return fetchAll;
+    }
+
+    public void setFetchAll(FetchAllProperties fetchAll) {
+        this.fetchAll = fetchAll;
+    }
+
+    public ResilienceProperties getResilience() {
+        return resilience;
+    }
+
+    public void setResilience(ResilienceProperties resilience) {
+        this.resilience = resilience;
+    }
+
+    public HedgingProperties getHedging() {
+        return hedging;
+    }
+
+    public void setHedging(HedgingProperties hedging) {
+        this.hedging = hedging;
+    }
+
+    public JsonProperties getJson() {
+        return json;
+    }
+
+    public void setJson(JsonProperties json) {
+        this.json = json;
+    }
+
+    public LoginCacheProperties getLoginCache() {
+        return loginCache;
+    }
+
+    public void setLoginCache(LoginCacheProperties loginCache) {
+        this.loginCache = loginCache;
+    }
+
+    public PermissionCacheProperties getPermissionCache() {
+        return permissionCache;
+    }
+
+    public void setPermissionCache(PermissionCacheProperties permissionCache) {
+        this.permissionCache = permissionCache;
+    }
+
+    public RepositoryListCacheProperties getRepositoryListCache() {
+        return repositoryListCache;
+    }
+
+    public void setRepositoryListCache(RepositoryListCacheProperties repositoryListCache) {
+        this.repositoryListCache = repositoryListCache;
+    }
+
+    public PullRequestSyncProperties getPullRequestSync() {
+        return pullRequestSync;
+    }
+
+    public void setPullRequestSync(PullRequestSyncProperties pullRequestSync) {
+        this.pullRequestSync = pullRequestSync;
+    }
+
+    public SearchProperties getSearch() {
+        return search;
+    }
+
+    public void setSearch(SearchProperties search) {
+        this.search = search;
+    }
+
+    public WebhookProperties getWebhook() {
+        return webhook;
+    }
+
+    public void setWebhook(WebhookProperties webhook) {
+        this.webhook = webhook;
+    }
+
+    public BulkActionProperties getBulkAction() {
+        return bulkAction;
+    }
+
+    public void setBulkAction(BulkActionProperties bulkAction) {
+        this.bulkAction = bulkAction;
+    }
+
+    public MergeQueueProperties getMergeQueue() {
+        return mergeQueue;
+    }
+
+    public void setMergeQueue(MergeQueueProperties mergeQueue) {
+        this.mergeQueue = mergeQueue;
+    }
+
+    public MetricsProperties getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(MetricsProperties metrics) {
+        this.metrics = metrics;
+    }
+
+    /**
+     * Which GitHub API to use for calls that are available in both flavors.
+     */
+    public enum ApiMode {
+        /** REST API v3, one call per resource */
+        REST,
+        /** GraphQL API v4, combined calls where possible */
+        GRAPHQL
+    }
+
     /**
      * HTTP Client Timeouts
      * see <a href="https://square.github.io/okhttp/recipes/#timeouts-kt-java">Timeouts</a>
@@ -136,6 +379,17 @@ public final class GitHubProperties {
         @NotNull
         private Resource location;
 
+        @Positive
+        private int maxResumeAttempts = 3;
+
+        @Positive
+        private int maxQueued = 100;
+
+        @Positive
+        private int maxQueuedPerUser = 20;
+
+        private boolean prefetch = false;
+
         public int getMaxSimultaneous() {
             return maxSimultaneous;
         }
@@ -152,6 +406,806 @@ public final class GitHubProperties {
             this.location = location;
         }
 
+        public int getMaxResumeAttempts() {
+            return maxResumeAttempts;
+        }
+
+        public void setMaxResumeAttempts(int maxResumeAttempts) {
+            this.maxResumeAttempts = maxResumeAttempts;
+        }
+
+        public int getMaxQueued() {
+            return maxQueued;
+        }
+
+        public void setMaxQueued(int maxQueued) {
+            this.maxQueued = maxQueued;
+        }
+
+        public int getMaxQueuedPerUser() {
+            return maxQueuedPerUser;
+        }
+
+        public void setMaxQueuedPerUser(int maxQueuedPerUser) {
+            this.maxQueuedPerUser = maxQueuedPerUser;
+        }
+
+        public boolean isPrefetch() {
+            return prefetch;
+        }
+
+        public void setPrefetch(boolean prefetch) {
+            this.prefetch = prefetch;
+        }
+
+    }
+
+    /**
+     * Cache for conditional (ETag / Last-Modified) GitHub requests.
+     */
+    public static class ResponseCacheProperties {
+
+        private boolean enabled = true;
+
+        @Positive
+        private int maxEntries = 500;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+    }
+
+    /**
+     * Rate limit budget handling.
+     * Background calls (e.g. downloads) are delayed or shed once the remaining budget drops below the reserve.
+     */
+    public static class RateLimitProperties {
+
+        private boolean enabled = true;
+
+        @PositiveOrZero
+        private int reserve = 100;
+
+        @PositiveOrZero
+        private int maxDelaySeconds = 30;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getReserve() {
+            return reserve;
+        }
+
+        public void setReserve(int reserve) {
+            this.reserve = reserve;
+        }
+
+        public int getMaxDelaySeconds() {
+            return maxDelaySeconds;
+        }
+
+        public void setMaxDelaySeconds(int maxDelaySeconds) {
+            this.maxDelaySeconds = maxDelaySeconds;
+        }
+
+    }
+
+    /**
+     * Limits for non-blocking calls, see <a href="https://square.github.io/okhttp/4.x/okhttp/okhttp3/-dispatcher/">Dispatcher</a>
+     */
+    public static class AsyncProperties {
+
+        @Positive
+        private int maxRequests = 64;
+
+        @Positive
+        private int maxRequestsPerHost = 32;
+
+        public int getMaxRequests() {
+            return maxRequests;
+        }
+
+        public void setMaxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+        }
+
+        public int getMaxRequestsPerHost() {
+            return maxRequestsPerHost;
+        }
+
+        public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+        }
+
+    }
+
+    /**
+     * Settings for fetching all pages of a paged resource at once.
+     */
+    public static class FetchAllProperties {
+
+        @Positive
+        private int parallelism = 4;
+
+        @Positive
+        private int maxPages = 50;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxPages() {
+            return maxPages;
+        }
+
+        public void setMaxPages(int maxPages) {
+            this.maxPages = maxPages;
+        }
+
+    }
+
+    /**
+     * Retries of idempotent calls and per call circuit breakers.
+     */
+    public static class ResilienceProperties {
+
+        private boolean retryEnabled = true;
+
+        @Positive
+        private int maxAttempts = 3;
+
+        @Positive
+        private long initialBackoffMillis = 200;
+
+        @Positive
+        private long maxBackoffMillis = 2000;
+
+        private boolean circuitBreakerEnabled = true;
+
+        @Positive
+        private int failureThreshold = 5;
+
+        @Positive
+        private int openSeconds = 30;
+
+        public boolean isRetryEnabled() {
+            return retryEnabled;
+        }
+
+        public void setRetryEnabled(boolean retryEnabled) {
+            this.retryEnabled = retryEnabled;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+
+        public boolean isCircuitBreakerEnabled() {
+            return circuitBreakerEnabled;
+        }
+
+        public void setCircuitBreakerEnabled(boolean circuitBreakerEnabled) {
+            this.circuitBreakerEnabled = circuitBreakerEnabled;
+        }
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public int getOpenSeconds() {
+            return openSeconds;
+        }
+
+        public void setOpenSeconds(int openSeconds) {
+            this.openSeconds = openSeconds;
+        }
+
+    }
+
+    /**
+     * Hedged requests for latency critical reads, see {@link com.andreaseisele.pullmann.github.hedge.RequestHedger}.
+     */
+    public static class HedgingProperties {
+
+        private boolean enabled = false;
+
+        @DecimalMin("0.5")
+        @DecimalMax("1.0")
+        private double percentile = 0.95;
+
+        @Positive
+        private int minSamples = 20;
+
+        @Positive
+        private int sampleSize = 200;
+
+        @PositiveOrZero
+        private long minDelayMillis = 50;
+
+        @DecimalMin("0.0")
+        @DecimalMax("1.0")
+        private double maxRatio = 0.1;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public double getPercentile() {
+            return percentile;
+        }
+
+        public void setPercentile(double percentile) {
+            this.percentile = percentile;
+        }
+
+        public int getMinSamples() {
+            return minSamples;
+        }
+
+        public void setMinSamples(int minSamples) {
+            this.minSamples = minSamples;
+        }
+
+        public int getSampleSize() {
+            return sampleSize;
+        }
+
+        public void setSampleSize(int sampleSize) {
+            this.sampleSize = sampleSize;
+        }
+
+        public long getMinDelayMillis() {
+            return minDelayMillis;
+        }
+
+        public void setMinDelayMillis(long minDelayMillis) {
+            this.minDelayMillis = minDelayMillis;
+        }
+
+        public double getMaxRatio() {
+            return maxRatio;
+        }
+
+        public void setMaxRatio(double maxRatio) {
+            this.maxRatio = maxRatio;
+        }
+
+    }
+
+    /**
+     * Deserialization of GitHub responses.
+     */
+    public static class JsonProperties {
+
+        private boolean bytecodeAccessors = false;
+
+        public boolean isBytecodeAccessors() {
+            return bytecodeAccessors;
+        }
+
+        public void setBytecodeAccessors(boolean bytecodeAccessors) {
+            this.bytecodeAccessors = bytecodeAccessors;
+        }
+
+    }
+
+    /**
+     * Cache of successful personal access token validations on login.
+     */
+    public static class LoginCacheProperties {
+
+        private boolean enabled = true;
+
+        @Positive
+        private long ttlSeconds = 600;
+
+        @Positive
+        private int maxEntries = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+    }
+
+    /**
+     * Cache of the current users permission per repository.
+     */
+    public static class PermissionCacheProperties {
+
+        private boolean enabled = true;
+
+        @Positive
+        private long ttlSeconds = 300;
+
+        @Positive
+        private long negativeTtlSeconds = 60;
+
+        @Positive
+        private int maxEntries = 10_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlSeconds() {
+            return ttlSeconds;
+        }
+
+        public void setTtlSeconds(long ttlSeconds) {
+            this.ttlSeconds = ttlSeconds;
+        }
+
+        public long getNegativeTtlSeconds() {
+            return negativeTtlSeconds;
+        }
+
+        public void setNegativeTtlSeconds(long negativeTtlSeconds) {
+            this.negativeTtlSeconds = negativeTtlSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+    }
+
+    /**
+     * Stale-while-revalidate cache of the repository list pages per user.
+     */
+    public static class RepositoryListCacheProperties {
+
+        private boolean enabled = true;
+
+        @Positive
+        private long refreshAfterSeconds = 60;
+
+        @Positive
+        private long expireAfterSeconds = 3600;
+
+        @Positive
+        private int maxEntries = 1000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getRefreshAfterSeconds() {
+            return refreshAfterSeconds;
+        }
+
+        public void setRefreshAfterSeconds(long refreshAfterSeconds) {
+            this.refreshAfterSeconds = refreshAfterSeconds;
+        }
+
+        public long getExpireAfterSeconds() {
+            return expireAfterSeconds;
+        }
+
+        public void setExpireAfterSeconds(long expireAfterSeconds) {
+            this.expireAfterSeconds = expireAfterSeconds;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
+
+        public void setMaxEntries(int maxEntries) {
+            this.maxEntries = maxEntries;
+        }
+
+    }
+
+    /**
+     * Incremental synchronization of the pull request listings into a local copy.
+     */
+    public static class PullRequestSyncProperties {
+
+        private boolean enabled = true;
+
+        @PositiveOrZero
+        private long intervalSeconds = 30;
+
+        @Min(1)
+        @Max(100)
+        private int perPage = 100;
+
+        @Positive
+        private int maxRepositories = 1000;
+
+        @Positive
+        private long expireAfterSeconds = 3600;
+
+        @Positive
+        private int backfillParallelism = 2;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalSeconds() {
+            return intervalSeconds;
+        }
+
+        public void setIntervalSeconds(long intervalSeconds) {
+            this.intervalSeconds = intervalSeconds;
+        }
+
+        public int getPerPage() {
+            return perPage;
+        }
+
+        public void setPerPage(int perPage) {
+            this.perPage = perPage;
+        }
+
+        public int getMaxRepositories() {
+            return maxRepositories;
+        }
+
+        public void setMaxRepositories(int maxRepositories) {
+            this.maxRepositories = maxRepositories;
+        }
+
+        public long getExpireAfterSeconds() {
+            return expireAfterSeconds;
+        }
+
+        public void setExpireAfterSeconds(long expireAfterSeconds) {
+            this.expireAfterSeconds = expireAfterSeconds;
+        }
+
+        public int getBackfillParallelism() {
+            return backfillParallelism;
+        }
+
+        public void setBackfillParallelism(int backfillParallelism) {
+            this.backfillParallelism = backfillParallelism;
+        }
+
+    }
+
+    /**
+     * Full-text index over the synchronized pull requests.
+     */
+    public static class SearchProperties {
+
+        private boolean enabled = true;
+
+        @NotNull
+        private Resource location;
+
+        @Positive
+        private int maxResults = 50;
+
+        @Positive
+        private int commitIntervalSeconds = 60;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public Resource getLocation() {
+            return location;
+        }
+
+        public void setLocation(Resource location) {
+            this.location = location;
+        }
+
+        public int getMaxResults() {
+            return maxResults;
+        }
+
+        public void setMaxResults(int maxResults) {
+            this.maxResults = maxResults;
+        }
+
+        public int getCommitIntervalSeconds() {
+            return commitIntervalSeconds;
+        }
+
+        public void setCommitIntervalSeconds(int commitIntervalSeconds) {
+            this.commitIntervalSeconds = commitIntervalSeconds;
+        }
+
+    }
+
+    /**
+     * Receiver for GitHub webhook deliveries, disabled as long as no secret is configured.
+     */
+    public static class WebhookProperties {
+
+        private String secret;
+
+        @Positive
+        private int workers = 2;
+
+        @Positive
+        private int queueCapacity = 100;
+
+        @Positive
+        private long sseTimeoutSeconds = 1800;
+
+        @Positive
+        private int maxSubscribers = 1000;
+
+        public boolean isEnabled() {
+            return secret != null && !secret.isBlank();
+        }
+
+        public String getSecret() {
+            return secret;
+        }
+
+        public void setSecret(String secret) {
+            this.secret = secret;
+        }
+
+        public int getWorkers() {
+            return workers;
+        }
+
+        public void setWorkers(int workers) {
+            this.workers = workers;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public long getSseTimeoutSeconds() {
+            return sseTimeoutSeconds;
+        }
+
+        public void setSseTimeoutSeconds(long sseTimeoutSeconds) {
+            this.sseTimeoutSeconds = sseTimeoutSeconds;
+        }
+
+        public int getMaxSubscribers() {
+            return maxSubscribers;
+        }
+
+        public void setMaxSubscribers(int maxSubscribers) {
+            this.maxSubscribers = maxSubscribers;
+        }
+
+    }
+
+    /**
+     * Merging or closing many pull requests at once.
+     * GitHub asks for at least one second between mutating calls to stay clear of its secondary rate limits.
+     */
+    public static class BulkActionProperties {
+
+        @Positive
+        private int parallelism = 4;
+
+        @PositiveOrZero
+        private long pacingMillis = 1000;
+
+        @Positive
+        private int maxPullRequests = 100;
+
+        @PositiveOrZero
+        private int maxRateLimitWaitSeconds = 60;
+
+        @Positive
+        private long retentionSeconds = 3600;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public long getPacingMillis() {
+            return pacingMillis;
+        }
+
+        public void setPacingMillis(long pacingMillis) {
+            this.pacingMillis = pacingMillis;
+        }
+
+        public int getMaxPullRequests() {
+            return maxPullRequests;
+        }
+
+        public void setMaxPullRequests(int maxPullRequests) {
+            this.maxPullRequests = maxPullRequests;
+        }
+
+        public int getMaxRateLimitWaitSeconds() {
+            return maxRateLimitWaitSeconds;
+        }
+
+        public void setMaxRateLimitWaitSeconds(int maxRateLimitWaitSeconds) {
+            this.maxRateLimitWaitSeconds = maxRateLimitWaitSeconds;
+        }
+
+        public long getRetentionSeconds() {
+            return retentionSeconds;
+        }
+
+        public void setRetentionSeconds(long retentionSeconds) {
+            this.retentionSeconds = retentionSeconds;
+        }
+
+    }
+
+    /**
+     * Queue serializing merges per repository, merges into different repositories run in parallel.
+     */
+    public static class MergeQueueProperties {
+
+        @Positive
+        private int parallelism = 4;
+
+        @Positive
+        private int maxAttempts = 3;
+
+        @PositiveOrZero
+        private long retryDelayMillis = 1000;
+
+        @Positive
+        private int maxQueueLength = 50;
+
+        @Positive
+        private long retentionSeconds = 600;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getMaxAttempts() {
+            return maxAttempts;
+        }
+
+        public void setMaxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+        }
+
+        public long getRetryDelayMillis() {
+            return retryDelayMillis;
+        }
+
+        public void setRetryDelayMillis(long retryDelayMillis) {
+            this.retryDelayMillis = retryDelayMillis;
+        }
+
+        public int getMaxQueueLength() {
+            return maxQueueLength;
+        }
+
+        public void setMaxQueueLength(int maxQueueLength) {
+            this.maxQueueLength = maxQueueLength;
+        }
+
+        public long getRetentionSeconds() {
+            return retentionSeconds;
+        }
+
+        public void setRetentionSeconds(long retentionSeconds) {
+            this.retentionSeconds = retentionSeconds;
+        }
+
+    }
+
+    /**
+     * Access to the Prometheus scrape endpoint.
+     */
+    public static class MetricsProperties {
+
+        private boolean publicScrape = false;
+
+        public boolean isPublicScrape() {
+            return publicScrape;
+        }
+
+        public void setPublicScrape(boolean publicScrape) {
+            this.publicScrape = publicScrape;
+        }
+
     }
 
 }
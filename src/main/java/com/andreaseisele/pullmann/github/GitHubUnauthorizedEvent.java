@@ -0,0 +1,14 @@
+package com.andreaseisele.pullmann.github;
+
+/**
+ * Published whenever GitHub answered a call with '401 Unauthorized', i.e. the credentials are invalid (now).
+ * @param credentials the Authorization header value the call was sent with
+ */
+public record GitHubUnauthorizedEvent(String credentials) {
+
+    @Override
+    public String toString() {
+        return "GitHubUnauthorizedEvent[credentials=" + CredentialFingerprints.of(credentials) + "]";
+    }
+
+}
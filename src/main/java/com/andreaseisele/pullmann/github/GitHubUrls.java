@@ -3,6 +3,7 @@ package com.andreaseisele.pullmann.github;
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
 import com.andreaseisele.pullmann.github.error.GitHubInitException;
+import java.util.regex.Pattern;
 import okhttp3.HttpUrl;
 import org.springframework.stereotype.Component;
 
@@ -17,10 +18,14 @@ public class GitHubUrls {
     private static final String PATH_PULL_REQUEST_FILES = PATH_PULL_REQUEST_DETAILS + "/files";
     private static final String PATH_REPO_CONTENTS = "repos/{owner}/{repository}/zipball/{ref}";
     private static final String PATH_USER_REPO_PERMISSION = "repos/{owner}/{repository}/collaborators/{username}/permission";
+    private static final String PATH_GRAPHQL = "graphql";
+    private static final Pattern ENTERPRISE_REST_PATH = Pattern.compile("/api/v3/?$");
 
     private static final String QUERY_PARAM_PAGE = "page";
     private static final String QUERY_PARAM_STATE = "state";
     private static final String QUERY_PARAM_PER_PAGE = "per_page";
+    private static final String QUERY_PARAM_SORT = "sort";
+    private static final String QUERY_PARAM_DIRECTION = "direction";
 
     private final GitHubProperties properties;
 
@@ -47,6 +52,21 @@ public class GitHubUrls {
             .build();
     }
 
+    /**
+     * All pull requests of the repository, most recently updated first.
+     */
+    public HttpUrl pullRequestsByUpdated(RepositoryName repositoryName, int page, int perPage) {
+        return builderFor(PATH_PULL_REQUESTS)
+            .setPathSegment(1, repositoryName.owner())
+            .setPathSegment(2, repositoryName.repository())
+            .setQueryParameter(QUERY_PARAM_PAGE, String.valueOf(page))
+            .setQueryParameter(QUERY_PARAM_PER_PAGE, String.valueOf(perPage))
+            .setQueryParameter(QUERY_PARAM_STATE, "all")
+            .setQueryParameter(QUERY_PARAM_SORT, "updated")
+            .setQueryParameter(QUERY_PARAM_DIRECTION, "desc")
+            .build();
+    }
+
     public HttpUrl pullRequestDetails(PullRequestCoordinates coordinates) {
         return builderFor(PATH_PULL_REQUEST_DETAILS)
             .setPathSegment(1, coordinates.repositoryName().owner())
@@ -89,6 +109,29 @@ public class GitHubUrls {
             .build();
     }
 
+    /**
+     * The configured GraphQL endpoint, otherwise derived from the base url. GitHub Enterprise Server serves the
+     * REST API below '/api/v3' but GraphQL at '/api/graphql', github.com serves both below the same root.
+     */
+    public HttpUrl graphql() {
+        if (properties.getGraphqlUrl() != null && !properties.getGraphqlUrl().isBlank()) {
+            final HttpUrl parsed = HttpUrl.parse(properties.getGraphqlUrl());
+            if (parsed == null) {
+                throw new GitHubInitException("unable to parse configured GraphQL URL " + properties.getGraphqlUrl());
+            }
+            return parsed;
+        }
+
+        final HttpUrl baseUrl = parseBaseUrl();
+        final String basePath = baseUrl.encodedPath();
+        if (ENTERPRISE_REST_PATH.matcher(basePath).find()) {
+            return baseUrl.newBuilder()
+                .encodedPath(ENTERPRISE_REST_PATH.matcher(basePath).replaceFirst("/api/" + PATH_GRAPHQL))
+                .build();
+        }
+        return builderFor(PATH_GRAPHQL).build();
+    }
+
     private HttpUrl.Builder builderFor(String path) {
         final HttpUrl resolved = parseBaseUrl().resolve(path);
         if (resolved == null) {
@@ -1,53 +1,214 @@
 package com.andreaseisele.pullmann.github;
 
 import java.util.Optional;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-import okhttp3.HttpUrl;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Parses 'Link' header values of paged GitHub responses, e.g.
+ * <pre>
+ * &lt;https://api.github.com/repositories/2325298/pulls?page=2&gt;; rel="next", &lt;https://api.github.com/repositories/2325298/pulls?page=11&gt;; rel="last"
+ * </pre>
+ * in a single pass without regular expressions or splitting. Only the pagination relations are kept.
+ */
 public class LinkParser {
 
     private static final Logger logger = LoggerFactory.getLogger(LinkParser.class);
 
-    private static final Pattern PATTERN_LINK = Pattern.compile("<?(?<url>[^>]*)>;\\Wrel=\"(?<rel>.*)\"");
+    private static final String PARAM_REL = "rel";
+    private static final String QUERY_PARAM_PAGE = "page=";
+
+    private static final String REL_FIRST = "first";
+    private static final String REL_PREV = "prev";
+    private static final String REL_NEXT = "next";
+    private static final String REL_LAST = "last";
+
+    /**
+     * Parse a Link value into its pagination relations.
+     * Malformed links are skipped.
+     * @param linkHeader a link header value, may be null
+     * @return the relations found, {@link PageLinks#NONE} if there are none
+     */
+    public static PageLinks parse(String linkHeader) {
+        if (linkHeader == null) {
+            return PageLinks.NONE;
+        }
+
+        PageLinks.PageLink first = null;
+        PageLinks.PageLink prev = null;
+        PageLinks.PageLink next = null;
+        PageLinks.PageLink last = null;
+
+        final int length = linkHeader.length();
+        int i = 0;
+        while (i < length) {
+            i = skipWhitespaceAndCommas(linkHeader, i);
+            if (i >= length) {
+                break;
+            }
+            if (linkHeader.charAt(i) != '<') {
+                i = skipToNextLink(linkHeader, i);
+                continue;
+            }
+
+            final int urlStart = i + 1;
+            final int urlEnd = linkHeader.indexOf('>', urlStart);
+            if (urlEnd < 0) {
+                break;
+            }
+            i = urlEnd + 1;
+
+            // link params up to the next link: ;rel="next"; title="..."
+            int relStart = -1;
+            int relEnd = -1;
+            while (i < length && linkHeader.charAt(i) != ',') {
+                if (linkHeader.charAt(i) != ';') {
+                    i++;
+                    continue;
+                }
+                i = skipWhitespace(linkHeader, i + 1);
+                if (!linkHeader.regionMatches(true, i, PARAM_REL, 0, PARAM_REL.length())) {
+                    continue;
+                }
+                final int nameEnd = skipWhitespace(linkHeader, i + PARAM_REL.length());
+                if (nameEnd >= length || linkHeader.charAt(nameEnd) != '=') {
+                    continue;
+                }
+                i = skipWhitespace(linkHeader, nameEnd + 1);
+                if (i < length && linkHeader.charAt(i) == '"') {
+                    relStart = i + 1;
+                    relEnd = linkHeader.indexOf('"', relStart);
+                    if (relEnd < 0) {
+                        relEnd = length;
+                    }
+                    i = relEnd + 1;
+                } else {
+                    relStart = i;
+                    while (i < length && !isParamEnd(linkHeader.charAt(i))) {
+                        i++;
+                    }
+                    relEnd = i;
+                }
+            }
+
+            if (relStart < 0) {
+                continue;
+            }
+
+            // rel may hold several space separated relation types
+            int typeStart = relStart;
+            while (typeStart < relEnd) {
+                int typeEnd = typeStart;
+                while (typeEnd < relEnd && linkHeader.charAt(typeEnd) != ' ') {
+                    typeEnd++;
+                }
+                if (isRel(linkHeader, typeStart, typeEnd, REL_NEXT)) {
+                    next = link(linkHeader, urlStart, urlEnd);
+                } else if (isRel(linkHeader, typeStart, typeEnd, REL_LAST)) {
+                    last = link(linkHeader, urlStart, urlEnd);
+                } else if (isRel(linkHeader, typeStart, typeEnd, REL_PREV)) {
+                    prev = link(linkHeader, urlStart, urlEnd);
+                } else if (isRel(linkHeader, typeStart, typeEnd, REL_FIRST)) {
+                    first = link(linkHeader, urlStart, urlEnd);
+                }
+                typeStart = typeEnd + 1;
+            }
+        }
+
+        if (first == null && prev == null && next == null && last == null) {
+            return PageLinks.NONE;
+        }
+        return new PageLinks(first, prev, next, last);
+    }
 
     /**
      * Parse Link value and return rel of name 'last'.
      * @param linkHeader a link header value
      * @return the 'last' rel of available
      */
-    // Link: <https://api.github.com/repositories/2325298/pulls?page=2>; rel="next", <https://api.github.com/repositories/2325298/pulls?page=11>; rel="last"
     public static Optional<String> getLastRel(String linkHeader) {
         if (linkHeader == null || linkHeader.isBlank()) {
             return Optional.empty();
         }
 
-        final String[] links = linkHeader.split(",");
-        for (String link : links) {
-            if (link.contains("last")) {
-                final Matcher matcher = PATTERN_LINK.matcher(link.trim());
-                if (matcher.matches()) {
-                    return Optional.of(matcher.group("url"));
+        final PageLinks.PageLink last = parse(linkHeader).last();
+        if (last == null) {
+            logger.warn("could find 'last' rel in Link header value: [{}]", linkHeader);
+            return Optional.empty();
+        }
+        return Optional.of(last.url());
+    }
+
+    public static Optional<Integer> getLastPage(String linkHeader) {
+        final PageLinks.PageLink last = parse(linkHeader).last();
+        if (last == null || last.page() <= 0) {
+            return Optional.empty();
+        }
+        return Optional.of(last.page());
+    }
+
+    private static PageLinks.PageLink link(String value, int urlStart, int urlEnd) {
+        return new PageLinks.PageLink(value.substring(urlStart, urlEnd), pageOf(value, urlStart, urlEnd));
+    }
+
+    /**
+     * @return the value of the 'page' query parameter within the given URL range, 0 if absent or not a number
+     */
+    private static int pageOf(String value, int urlStart, int urlEnd) {
+        int i = value.indexOf('?', urlStart);
+        if (i < 0 || i >= urlEnd) {
+            return 0;
+        }
+
+        while (i < urlEnd) {
+            final int paramStart = i + 1;
+            if (value.startsWith(QUERY_PARAM_PAGE, paramStart)) {
+                int page = 0;
+                for (int digit = paramStart + QUERY_PARAM_PAGE.length(); digit < urlEnd; digit++) {
+                    final char c = value.charAt(digit);
+                    if (c == '&' || c == '#') {
+                        break;
+                    }
+                    if (c < '0' || c > '9' || page > (Integer.MAX_VALUE - 9) / 10) {
+                        return 0;
+                    }
+                    page = page * 10 + (c - '0');
                 }
+                return page;
+            }
+            i = paramStart;
+            while (i < urlEnd && value.charAt(i) != '&') {
+                i++;
             }
         }
+        return 0;
+    }
 
-        logger.warn("could find 'last' rel in Link header value: [{}]", linkHeader);
-        return Optional.empty();
+    private static boolean isRel(String value, int start, int end, String rel) {
+        return end - start == rel.length() && value.regionMatches(true, start, rel, 0, rel.length());
     }
 
-    public static Optional<Integer> getLastPage(String linkHeader) {
-        return getLastRel(linkHeader)
-            .map(url -> {
-                final HttpUrl parsed = HttpUrl.parse(url);
-                if (parsed == null) {
-                    return null;
-                }
-                return parsed.queryParameter("page");
-            })
-            .map(Integer::valueOf);
+    private static boolean isParamEnd(char c) {
+        return c == ';' || c == ',' || Character.isWhitespace(c);
+    }
+
+    private static int skipWhitespace(String value, int i) {
+        while (i < value.length() && Character.isWhitespace(value.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipWhitespaceAndCommas(String value, int i) {
+        while (i < value.length() && (value.charAt(i) == ',' || Character.isWhitespace(value.charAt(i)))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipToNextLink(String value, int i) {
+        final int comma = value.indexOf(',', i);
+        return comma < 0 ? value.length() : comma + 1;
     }
 
     private LinkParser(){}
@@ -0,0 +1,40 @@
+package com.andreaseisele.pullmann.github;
+
+import java.util.OptionalInt;
+
+/**
+ * The pagination relations of a 'Link' header, see {@link LinkParser#parse(String)}.
+ * Relations GitHub did not send are null, e.g. there is no 'next' on the last page.
+ * @param first link to the first page
+ * @param prev link to the previous page
+ * @param next link to the next page
+ * @param last link to the last page
+ */
+public record PageLinks(PageLink first, PageLink prev, PageLink next, PageLink last) {
+
+    public static final PageLinks NONE = new PageLinks(null, null, null, null);
+
+    public OptionalInt nextPage() {
+        return pageOf(next);
+    }
+
+    public OptionalInt prevPage() {
+        return pageOf(prev);
+    }
+
+    public OptionalInt lastPage() {
+        return pageOf(last);
+    }
+
+    private static OptionalInt pageOf(PageLink link) {
+        return link != null && link.page() > 0 ? OptionalInt.of(link.page()) : OptionalInt.empty();
+    }
+
+    /**
+     * @param url the complete URL
+     * @param page value of its 'page' query parameter, 0 if there is none
+     */
+    public record PageLink(String url, int page) {
+    }
+
+}
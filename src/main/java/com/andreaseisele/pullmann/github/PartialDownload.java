@@ -0,0 +1,208 @@
+package com.andreaseisele.pullmann.github;
+
+import com.andreaseisele.pullmann.github.error.GitHubDownloadException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.stream.Stream;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+/**
+ * A download that is written to '&lt;filename&gt;.part' and only renamed to its final name once complete, so a
+ * crash never leaves a truncated file behind under the final name.
+ * <p>
+ * The validator of the response (a strong ETag or Last-Modified) is kept next to the part file. Later attempts
+ * send 'Range' together with 'If-Range', so the server either sends the missing rest or, if the content changed
+ * in the meantime, the whole content again.
+ */
+public final class PartialDownload {
+
+    private static final String EXT_PART = ".part";
+    private static final String EXT_VALIDATOR = ".validator";
+
+    private final Path part;
+    private final String filename;
+    private final long size;
+    private final String validator;
+
+    private PartialDownload(Path part, String filename, long size, String validator) {
+        this.part = part;
+        this.filename = filename;
+        this.size = size;
+        this.validator = validator;
+    }
+
+    /**
+     * @param path any path
+     * @return whether the path belongs to an unfinished download
+     */
+    public static boolean isPartial(Path path) {
+        final String name = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        return name.endsWith(EXT_PART) || name.endsWith(EXT_PART + EXT_VALIDATOR);
+    }
+
+    /**
+     * @param targetDir the directory the download goes to
+     * @return the unfinished download in the directory, if any
+     */
+    static Optional<PartialDownload> find(Path targetDir) {
+        try (Stream<Path> files = Files.list(targetDir)) {
+            final Optional<Path> part = files
+                .filter(path -> path.getFileName().toString().endsWith(EXT_PART))
+                .findAny();
+            if (part.isEmpty()) {
+                return Optional.empty();
+            }
+
+            final String partName = part.get().getFileName().toString();
+            final Path validatorFile = validatorFile(part.get());
+            final String validator = Files.exists(validatorFile)
+                ? Files.readString(validatorFile, StandardCharsets.UTF_8).trim()
+                : null;
+            return Optional.of(new PartialDownload(part.get(),
+                partName.substring(0, partName.length() - EXT_PART.length()),
+                Files.size(part.get()),
+                validator == null || validator.isEmpty() ? null : validator));
+        } catch (IOException e) {
+            throw new GitHubDownloadException("error looking for partial download in " + targetDir, e);
+        }
+    }
+
+    /**
+     * @param request the request for the whole content
+     * @return the request for the missing rest, or the given request if the part can not be resumed
+     */
+    Request resume(Request request) {
+        if (size == 0 || validator == null) {
+            return request;
+        }
+        return request.newBuilder()
+            .header(HttpHeaders.RANGE, "bytes=" + size + "-")
+            .header(HttpHeaders.IF_RANGE, validator)
+            .build();
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * Write a successful response to the part file and move it to its final name once complete.
+     * @param response the response, either '206 Partial Content' continuing the existing part or the whole content
+     * @param targetDir the directory the download goes to
+     * @param existing the part the request was resumed from, may be null
+     * @return the downloaded file
+     * @throws GitHubDownloadException if writing fails, with the {@link IOException} as cause if the response
+     *                                 ended early and the download may be resumed
+     */
+    static Path write(Response response, Path targetDir, PartialDownload existing) {
+        if (response.body() == null) {
+            throw new GitHubDownloadException("tried to download a null body");
+        }
+
+        final boolean resumed = existing != null && response.code() == HttpStatus.PARTIAL_CONTENT.value();
+        final Path part;
+        final String filename;
+        if (resumed) {
+            final long start = parseContentRangeStart(response.header(HttpHeaders.CONTENT_RANGE));
+            if (start != existing.size) {
+                existing.discard();
+                throw new GitHubDownloadException("unexpected content range start %d, expected %d"
+                    .formatted(start, existing.size));
+            }
+            part = existing.part;
+            filename = existing.filename;
+        } else {
+            // the content changed or the server ignored the range, start over
+            if (existing != null) {
+                existing.discard();
+            }
+            filename = GitHubClient.extractFilename(response);
+            part = targetDir.resolve(filename + EXT_PART);
+            storeValidator(part, response);
+        }
+
+        try (InputStream in = response.body().byteStream();
+             OutputStream out = Files.newOutputStream(part,
+                 StandardOpenOption.CREATE,
+                 StandardOpenOption.WRITE,
+                 resumed ? StandardOpenOption.APPEND : StandardOpenOption.TRUNCATE_EXISTING)) {
+            in.transferTo(out);
+        } catch (IOException e) {
+            throw new GitHubDownloadException("download to %s interrupted".formatted(part), e);
+        }
+
+        final Path target = targetDir.resolve(filename);
+        try {
+            try {
+                Files.move(part, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(part, target, StandardCopyOption.REPLACE_EXISTING);
+            }
+            Files.deleteIfExists(validatorFile(part));
+        } catch (IOException e) {
+            throw new GitHubDownloadException("error moving finished download to " + target, e);
+        }
+        return target;
+    }
+
+    /**
+     * Delete the part, e.g. because the server refused to resume it.
+     */
+    void discard() {
+        try {
+            Files.deleteIfExists(part);
+            Files.deleteIfExists(validatorFile(part));
+        } catch (IOException e) {
+            throw new GitHubDownloadException("error deleting partial download " + part, e);
+        }
+    }
+
+    private static void storeValidator(Path part, Response response) {
+        final String etag = response.header(HttpHeaders.ETAG);
+        // 'If-Range' requires a strong validator
+        final String validator = etag != null && !etag.startsWith("W/")
+            ? etag
+            : response.header(HttpHeaders.LAST_MODIFIED);
+
+        try {
+            final Path validatorFile = validatorFile(part);
+            if (validator != null) {
+                Files.writeString(validatorFile, validator, StandardCharsets.UTF_8);
+            } else {
+                Files.deleteIfExists(validatorFile);
+            }
+        } catch (IOException e) {
+            throw new GitHubDownloadException("error storing validator of " + part, e);
+        }
+    }
+
+    // 'bytes <start>-<end>/<length>'
+    private static long parseContentRangeStart(String contentRange) {
+        if (contentRange == null || !contentRange.startsWith("bytes ")) {
+            throw new GitHubDownloadException("missing or unsupported content range [%s]".formatted(contentRange));
+        }
+        final int dash = contentRange.indexOf('-');
+        try {
+            return Long.parseLong(contentRange.substring("bytes ".length(), dash).trim());
+        } catch (RuntimeException e) {
+            throw new GitHubDownloadException("invalid content range [%s]".formatted(contentRange), e);
+        }
+    }
+
+    private static Path validatorFile(Path part) {
+        return part.resolveSibling(part.getFileName().toString() + EXT_VALIDATOR);
+    }
+
+}
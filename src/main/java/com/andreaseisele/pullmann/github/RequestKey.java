@@ -0,0 +1,24 @@
+package com.andreaseisele.pullmann.github;
+
+import okhttp3.Request;
+import org.springframework.http.HttpHeaders;
+
+/**
+ * Identifies a GitHub read by call name, credentials, URL and accepted media type.
+ * Two requests with equal keys are answered with the same data, which makes it suitable for sharing results.
+ * The call name is part of the key as different calls may decode the same URL into different results.
+ * @param callName the name of the call
+ * @param credentials fingerprint of the credentials, see {@link CredentialFingerprints}
+ * @param url the full URL
+ * @param accept the Accept header value, may be null
+ */
+public record RequestKey(String callName, String credentials, String url, String accept) {
+
+    public static RequestKey of(String callName, Request request) {
+        return new RequestKey(callName,
+            CredentialFingerprints.of(request.header(HttpHeaders.AUTHORIZATION)),
+            request.url().toString(),
+            request.header(HttpHeaders.ACCEPT));
+    }
+
+}
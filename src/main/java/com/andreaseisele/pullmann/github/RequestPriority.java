@@ -0,0 +1,18 @@
+package com.andreaseisele.pullmann.github;
+
+/**
+ * Priority of a GitHub call when the rate limit budget runs low.
+ */
+public enum RequestPriority {
+
+    /**
+     * Requests a user is actively waiting for, e.g. page loads.
+     */
+    INTERACTIVE,
+
+    /**
+     * Requests that can be delayed or dropped, e.g. downloads and background refreshes.
+     */
+    BACKGROUND
+
+}
@@ -0,0 +1,118 @@
+package com.andreaseisele.pullmann.github.cache;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.RequestKey;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.util.Optional;
+import java.util.concurrent.atomic.LongAdder;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps already deserialized results of GitHub reads together with their validators (ETag / Last-Modified).
+ * Follow-up reads are sent as conditional requests. GitHub answers those with '304 Not Modified' if nothing
+ * changed, which does not count against the rate limit and lets us skip reading the body altogether.
+ * <p>
+ * Entries are keyed by call name, credentials, URL and accepted media type so users never see each others data.
+ */
+@Component
+public class ConditionalRequestCache {
+
+    private final boolean enabled;
+    private final Cache<RequestKey, Entry> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder notModified = new LongAdder();
+
+    public ConditionalRequestCache(GitHubProperties gitHubProperties) {
+        final GitHubProperties.ResponseCacheProperties properties = gitHubProperties.getResponseCache();
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .build();
+    }
+
+    /**
+     * Look up a cached entry for the given call.
+     * @param callName the name of the call
+     * @param request the request that is about to be sent
+     * @return the entry holding validators and the cached result, if any
+     */
+    public Optional<Entry> lookup(String callName, Request request) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        final Entry entry = cache.getIfPresent(RequestKey.of(callName, request));
+        if (entry == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+
+        hits.increment();
+        return Optional.of(entry);
+    }
+
+    /**
+     * Store the result of a successful call, if the response carries any validators.
+     * @param callName the name of the call
+     * @param request the original (non-conditional) request
+     * @param response the successful response
+     * @param value the deserialized result
+     */
+    public void store(String callName, Request request, Response response, Object value) {
+        if (!enabled || value == null) {
+            return;
+        }
+
+        final String etag = response.header(HttpHeaders.ETAG);
+        final String lastModified = response.header(HttpHeaders.LAST_MODIFIED);
+        if (etag == null && lastModified == null) {
+            return;
+        }
+
+        cache.put(RequestKey.of(callName, request), new Entry(etag, lastModified, value));
+    }
+
+    public void recordNotModified() {
+        notModified.increment();
+    }
+
+    public Stats stats() {
+        return new Stats(hits.sum(), misses.sum(), notModified.sum(), cache.estimatedSize());
+    }
+
+    public record Entry(String etag, String lastModified, Object value) {
+
+        /**
+         * Turn the given request into a conditional one using this entries validators.
+         * @param request the original request
+         * @return the conditional request
+         */
+        public Request applyTo(Request request) {
+            final Request.Builder builder = request.newBuilder();
+            if (etag != null) {
+                builder.header(HttpHeaders.IF_NONE_MATCH, etag);
+            }
+            if (lastModified != null) {
+                builder.header(HttpHeaders.IF_MODIFIED_SINCE, lastModified);
+            }
+            return builder.build();
+        }
+
+    }
+
+    /**
+     * @param hits lookups that found validators and led to a conditional request
+     * @param misses lookups without any cached entry
+     * @param notModified conditional requests answered with '304 Not Modified'
+     * @param size estimated number of cached entries
+     */
+    public record Stats(long hits, long misses, long notModified, long size) {
+    }
+
+}
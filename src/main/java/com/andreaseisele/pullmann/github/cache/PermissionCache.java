@@ -0,0 +1,120 @@
+package com.andreaseisele.pullmann.github.cache;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the current users permission per repository, as those hardly ever change but are needed on every
+ * pull request page. Unlike the {@link ConditionalRequestCache} a hit needs no call to GitHub at all.
+ * <p>
+ * Missing permissions ('NONE') are cached with their own, usually shorter, TTL. Entries should be evicted
+ * when a write to the repository got refused, as the permission is most likely stale then.
+ */
+@Component
+public class PermissionCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PermissionCache.class);
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final Duration negativeTtl;
+    private final Cache<Key, RepositoryPermission> cache;
+
+    public PermissionCache(GitHubProperties gitHubProperties) {
+        final GitHubProperties.PermissionCacheProperties properties = gitHubProperties.getPermissionCache();
+        this.enabled = properties.isEnabled();
+        this.ttl = Duration.ofSeconds(properties.getTtlSeconds());
+        this.negativeTtl = Duration.ofSeconds(properties.getNegativeTtlSeconds());
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .expireAfter(new PermissionExpiry())
+            .build();
+    }
+
+    /**
+     * @param credentials the credentials of the user
+     * @param repositoryName the repository
+     * @return the cached permission, if any
+     */
+    public Optional<RepositoryPermission> lookup(String credentials, RepositoryName repositoryName) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(Key.of(credentials, repositoryName)));
+    }
+
+    public void store(String credentials, RepositoryName repositoryName, RepositoryPermission permission) {
+        if (!enabled || permission == null) {
+            return;
+        }
+        cache.put(Key.of(credentials, repositoryName), permission);
+    }
+
+    /**
+     * Eviction hook for refused writes.
+     * @param credentials the credentials of the user
+     * @param repositoryName the repository
+     */
+    public void evict(String credentials, RepositoryName repositoryName) {
+        logger.debug("evicting cached permission for repository [{}]", repositoryName);
+        cache.invalidate(Key.of(credentials, repositoryName));
+    }
+
+    /**
+     * Evict the permissions of all users for the repository, e.g. when its collaborators changed.
+     * @param repositoryName the repository
+     */
+    public void evictRepository(RepositoryName repositoryName) {
+        logger.debug("evicting all cached permissions for repository [{}]", repositoryName);
+        cache.asMap().keySet().removeIf(key -> key.owner().equalsIgnoreCase(repositoryName.owner())
+            && key.repository().equalsIgnoreCase(repositoryName.repository()));
+    }
+
+    private Duration timeToLive(RepositoryPermission permission) {
+        return permission.permission() == RepositoryPermission.Permission.NONE ? negativeTtl : ttl;
+    }
+
+    /**
+     * Repository names are case-insensitive on GitHub.
+     */
+    private record Key(String credentials, String owner, String repository) {
+
+        static Key of(String credentials, RepositoryName repositoryName) {
+            return new Key(CredentialFingerprints.of(credentials),
+                repositoryName.owner().toLowerCase(Locale.ROOT),
+                repositoryName.repository().toLowerCase(Locale.ROOT));
+        }
+
+    }
+
+    private class PermissionExpiry implements Expiry<Key, RepositoryPermission> {
+
+        @Override
+        public long expireAfterCreate(Key key, RepositoryPermission value, long currentTime) {
+            return timeToLive(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(Key key, RepositoryPermission value, long currentTime, long currentDuration) {
+            return timeToLive(value).toNanos();
+        }
+
+        @Override
+        public long expireAfterRead(Key key, RepositoryPermission value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
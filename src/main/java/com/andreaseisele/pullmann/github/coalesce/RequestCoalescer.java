@@ -0,0 +1,129 @@
+package com.andreaseisele.pullmann.github.coalesce;
+
+import com.andreaseisele.pullmann.github.RequestKey;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import okhttp3.Request;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-flight execution of identical GitHub reads: while a call for a {@link RequestKey} is in flight,
+ * further callers with an equal key don't send their own request but wait for the result of the first one.
+ * Failures are propagated to every waiter.
+ * <p>
+ * Once a call completes its key is released, so later callers always get a fresh call.
+ */
+@Component
+public class RequestCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestCoalescer.class);
+
+    private final ConcurrentMap<RequestKey, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * Blocking single-flight execution, the call runs on the current thread unless an equal one is in flight.
+     * @param callName the name of the call
+     * @param request the request about to be sent
+     * @param call the actual call
+     * @return the (possibly shared) result
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R execute(String callName, Request request, Supplier<R> call) {
+        final RequestKey key = RequestKey.of(callName, request);
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return (R) await(callName, existing);
+        }
+
+        executed.increment();
+        try {
+            final R result = call.get();
+            land(key, flight, result, null);
+            return result;
+        } catch (RuntimeException e) {
+            land(key, flight, null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Non-blocking single-flight execution.
+     * @param callName the name of the call
+     * @param request the request about to be sent
+     * @param call starts the actual call
+     * @return future of the (possibly shared) result
+     */
+    @SuppressWarnings("unchecked")
+    public <R> CompletableFuture<R> executeAsync(String callName, Request request, Supplier<CompletableFuture<R>> call) {
+        final RequestKey key = RequestKey.of(callName, request);
+        final CompletableFuture<Object> flight = new CompletableFuture<>();
+        final CompletableFuture<Object> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            coalesced.increment();
+            logger.debug("joining in-flight call '{}'", callName);
+            // a copy so waiters can't complete or cancel the shared flight
+            return (CompletableFuture<R>) existing.copy();
+        }
+
+        executed.increment();
+        final CompletableFuture<R> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            land(key, flight, null, e);
+            return CompletableFuture.failedFuture(e);
+        }
+        started.whenComplete((result, error) -> land(key, flight, result, error));
+        return started;
+    }
+
+    public Stats stats() {
+        return new Stats(executed.sum(), coalesced.sum(), inFlight.size());
+    }
+
+    private Object await(String callName, CompletableFuture<Object> existing) {
+        coalesced.increment();
+        logger.debug("joining in-flight call '{}'", callName);
+        try {
+            return existing.join();
+        } catch (CompletionException e) {
+            final Throwable cause = e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new GitHubExecutionException("in-flight call '%s' failed".formatted(callName), cause);
+        }
+    }
+
+    private void land(RequestKey key, CompletableFuture<Object> flight, Object result, Throwable error) {
+        // release the key first, callers arriving from now on get a fresh call
+        inFlight.remove(key, flight);
+        if (error != null) {
+            flight.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                ? error.getCause()
+                : error);
+        } else {
+            flight.complete(result);
+        }
+    }
+
+    /**
+     * @param executed calls actually sent
+     * @param coalesced calls that shared the result of an in-flight call instead
+     * @param inFlight calls currently in flight
+     */
+    public record Stats(long executed, long coalesced, long inFlight) {
+    }
+
+}
@@ -3,6 +3,7 @@ package com.andreaseisele.pullmann.github.dto;
 import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.annotation.JsonValue;
+import java.time.Instant;
 
 /**
  * GitHub Pull Request DTO.
@@ -21,7 +22,8 @@ public record PullRequest(
     BranchInfo base,
     @JsonProperty("changed_files") Long changedFiles,
     Boolean mergeable,
-    Boolean merged
+    Boolean merged,
+    @JsonProperty("updated_at") Instant updatedAt
 ) {
     public enum State {
         OPEN("open"),
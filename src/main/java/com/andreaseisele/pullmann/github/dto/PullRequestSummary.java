@@ -0,0 +1,38 @@
+package com.andreaseisele.pullmann.github.dto;
+
+import java.time.Instant;
+
+/**
+ * Lean projection of a GitHub Pull Request holding only what list views display.
+ * Decoded via {@link com.andreaseisele.pullmann.github.json.PullRequestSummaryDecoder}.
+ */
+public record PullRequestSummary(
+    Long id,
+    Long number,
+    String title,
+    PullRequest.State state,
+    String authorLogin,
+    String authorEmail,
+    String headLabel,
+    String baseLabel,
+    Instant updatedAt
+) {
+
+    /**
+     * @param pullRequest the full pull request
+     * @return its list view projection
+     */
+    public static PullRequestSummary of(PullRequest pullRequest) {
+        final User user = pullRequest.user();
+        return new PullRequestSummary(pullRequest.id(),
+            pullRequest.number(),
+            pullRequest.title(),
+            pullRequest.state(),
+            user != null ? user.login() : null,
+            user != null ? user.email() : null,
+            pullRequest.head() != null ? pullRequest.head().label() : null,
+            pullRequest.base() != null ? pullRequest.base().label() : null,
+            pullRequest.updatedAt());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.andreaseisele.pullmann.github.error;
+
+import java.time.Instant;
+
+public class GitHubCircuitOpenException extends GitHubException {
+
+    private final Instant retryAt;
+
+    public GitHubCircuitOpenException(String message, Instant retryAt) {
+        super(message);
+        this.retryAt = retryAt;
+    }
+
+    public Instant getRetryAt() {
+        return retryAt;
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.andreaseisele.pullmann.github.error;
+
+import java.time.Instant;
+
+public class GitHubRateLimitException extends GitHubException {
+
+    private final Instant retryAt;
+
+    public GitHubRateLimitException(String message, Instant retryAt) {
+        super(message);
+        this.retryAt = retryAt;
+    }
+
+    public GitHubRateLimitException(String message, Instant retryAt, Throwable cause) {
+        super(message, cause);
+        this.retryAt = retryAt;
+    }
+
+    public Instant getRetryAt() {
+        return retryAt;
+    }
+
+}
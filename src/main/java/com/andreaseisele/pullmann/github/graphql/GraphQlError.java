@@ -0,0 +1,16 @@
+package com.andreaseisele.pullmann.github.graphql;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+/**
+ * Entry of the 'errors' list of a GraphQL response. GitHub answers those with status '200 OK'.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public record GraphQlError(
+    String type,
+    String message
+) {
+
+    public static final String TYPE_NOT_FOUND = "NOT_FOUND";
+
+}
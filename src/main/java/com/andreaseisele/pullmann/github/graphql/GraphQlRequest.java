@@ -0,0 +1,13 @@
+package com.andreaseisele.pullmann.github.graphql;
+
+import java.util.Map;
+
+/**
+ * Body of a GitHub GraphQL API call.
+ * See <a href="https://docs.github.com/en/graphql/guides/forming-calls-with-graphql">Documentation</a>
+ */
+public record GraphQlRequest(
+    String query,
+    Map<String, Object> variables
+) {
+}
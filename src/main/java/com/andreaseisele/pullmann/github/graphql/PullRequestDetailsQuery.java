@@ -0,0 +1,185 @@
+package com.andreaseisele.pullmann.github.graphql;
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
+import com.andreaseisele.pullmann.github.dto.User;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import com.andreaseisele.pullmann.github.result.PullRequestDetailsResult;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import java.time.Instant;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Fetches a pull request together with the viewers permission on its repository in a single round-trip.
+ */
+public final class PullRequestDetailsQuery {
+
+    static final String QUERY = """
+        query($owner: String!, $repository: String!, $number: Int!) {
+          repository(owner: $owner, name: $repository) {
+            viewerPermission
+            pullRequest(number: $number) {
+              databaseId
+              number
+              title
+              body
+              state
+              merged
+              mergeable
+              changedFiles
+              author { login avatarUrl }
+              headRefName
+              headRefOid
+              headRepositoryOwner { login }
+              baseRefName
+              baseRefOid
+              baseRepository { owner { login } }
+              updatedAt
+            }
+          }
+        }
+        """;
+
+    private PullRequestDetailsQuery() {
+    }
+
+    public static GraphQlRequest request(PullRequestCoordinates coordinates) {
+        return new GraphQlRequest(QUERY, Map.of(
+            "owner", coordinates.repositoryName().owner(),
+            "repository", coordinates.repositoryName().repository(),
+            "number", coordinates.number()));
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public record Response(Data data, List<GraphQlError> errors) {
+
+        /**
+         * Map the response onto the REST DTOs.
+         * @param apiUrl the REST API URL of the pull request
+         * @return the pull request together with the viewers permission
+         * @throws GitHubHttpStatusException with status 404 if the repository or pull request does not exist
+         */
+        public PullRequestDetailsResult toResult(String apiUrl) {
+            final Repository repository = data != null ? data.repository() : null;
+            if (repository == null || repository.pullRequest() == null) {
+                throw toException();
+            }
+            return PullRequestDetailsResult.of(repository.pullRequest().toPullRequest(apiUrl),
+                toPermission(repository.viewerPermission()));
+        }
+
+        private RuntimeException toException() {
+            if (errors == null || errors.isEmpty()) {
+                return new GitHubExecutionException("GraphQL response without data or errors");
+            }
+            final String messages = errors.stream()
+                .map(GraphQlError::message)
+                .collect(Collectors.joining("; "));
+            if (errors.stream().anyMatch(error -> GraphQlError.TYPE_NOT_FOUND.equals(error.type()))) {
+                return new GitHubHttpStatusException(HttpStatus.NOT_FOUND.value(), messages);
+            }
+            return new GitHubExecutionException("GraphQL call failed: " + messages);
+        }
+
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Data(Repository repository) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Repository(String viewerPermission, PullRequestNode pullRequest) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record PullRequestNode(
+        Long databaseId,
+        Long number,
+        String title,
+        String body,
+        String state,
+        Boolean merged,
+        String mergeable,
+        Long changedFiles,
+        Actor author,
+        String headRefName,
+        String headRefOid,
+        Actor headRepositoryOwner,
+        String baseRefName,
+        String baseRefOid,
+        BaseRepository baseRepository,
+        Instant updatedAt
+    ) {
+
+        PullRequest toPullRequest(String apiUrl) {
+            final User user = author != null
+                ? new User(null, author.login(), null, null, author.avatarUrl(), null)
+                : null;
+            final String baseOwner = baseRepository != null && baseRepository.owner() != null
+                ? baseRepository.owner().login()
+                : null;
+
+            return new PullRequest(databaseId,
+                number,
+                apiUrl,
+                title,
+                body,
+                "OPEN".equals(state) ? PullRequest.State.OPEN : PullRequest.State.CLOSED, // MERGED is closed in REST
+                user,
+                new BranchInfo(label(headRepositoryOwner != null ? headRepositoryOwner.login() : null, headRefName),
+                    headRefName,
+                    headRefOid),
+                new BranchInfo(label(baseOwner, baseRefName), baseRefName, baseRefOid),
+                changedFiles,
+                toMergeable(mergeable),
+                merged,
+                updatedAt);
+        }
+
+        private static String label(String owner, String ref) {
+            return owner != null ? owner + ":" + ref : ref;
+        }
+
+        private static Boolean toMergeable(String mergeable) {
+            if ("MERGEABLE".equals(mergeable)) {
+                return Boolean.TRUE;
+            } else if ("CONFLICTING".equals(mergeable)) {
+                return Boolean.FALSE;
+            }
+            return null; // UNKNOWN, still being computed by GitHub
+        }
+
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record Actor(String login, String avatarUrl) {
+    }
+
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    record BaseRepository(Actor owner) {
+    }
+
+    /**
+     * GraphQL knows the finer grained roles 'MAINTAIN' and 'TRIAGE' which map to the closest REST permission.
+     */
+    static RepositoryPermission toPermission(String viewerPermission) {
+        if (viewerPermission == null) {
+            return RepositoryPermission.none();
+        }
+        final RepositoryPermission.Permission permission = switch (viewerPermission) {
+            case "ADMIN" -> RepositoryPermission.Permission.ADMIN;
+            case "MAINTAIN", "WRITE" -> RepositoryPermission.Permission.WRITE;
+            case "TRIAGE", "READ" -> RepositoryPermission.Permission.READ;
+            default -> RepositoryPermission.Permission.NONE;
+        };
+        return new RepositoryPermission(permission, viewerPermission.toLowerCase(Locale.ROOT));
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.andreaseisele.pullmann.github.hedge;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Ring buffer of the most recent latencies of one call, used to derive percentiles.
+ */
+class LatencyWindow {
+
+    private final long[] samples;
+    private int next;
+    private int count;
+
+    LatencyWindow(int size) {
+        this.samples = new long[size];
+    }
+
+    synchronized void record(long millis) {
+        samples[next] = millis;
+        next = (next + 1) % samples.length;
+        count = Math.min(count + 1, samples.length);
+    }
+
+    /**
+     * @param percentile the percentile between 0 and 1
+     * @param minSamples min. number of samples for a meaningful result
+     * @return the latency at the given percentile, empty if there are not enough samples yet
+     */
+    Optional<Long> percentile(double percentile, int minSamples) {
+        final long[] sorted;
+        synchronized (this) {
+            if (count < minSamples) {
+                return Optional.empty();
+            }
+            sorted = Arrays.copyOf(samples, count);
+        }
+        Arrays.sort(sorted);
+        final int index = (int) Math.ceil(percentile * sorted.length) - 1;
+        return Optional.of(sorted[Math.max(0, Math.min(index, sorted.length - 1))]);
+    }
+
+}
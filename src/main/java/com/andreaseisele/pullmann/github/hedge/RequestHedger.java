@@ -0,0 +1,158 @@
+package com.andreaseisele.pullmann.github.hedge;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hedged execution of idempotent, latency critical reads.
+ * <p>
+ * If a call did not complete within the configured latency percentile of its recent calls, a second identical
+ * call is sent. The first successful response wins and the other call gets cancelled. To bound the extra load
+ * only a configured ratio of all calls may be hedged.
+ */
+@Component
+public class RequestHedger {
+
+    private static final Logger logger = LoggerFactory.getLogger(RequestHedger.class);
+
+    private final GitHubProperties gitHubProperties;
+    private final ConcurrentMap<String, LatencyWindow> latencies = new ConcurrentHashMap<>();
+
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder hedged = new LongAdder();
+    private final LongAdder hedgeWins = new LongAdder();
+
+    public RequestHedger(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    public boolean isEnabled() {
+        return gitHubProperties.getHedging().isEnabled();
+    }
+
+    /**
+     * Execute the given call, possibly twice.
+     * @param callName the name of the call
+     * @param attempt starts one attempt of the call, cancelling the returned future must cancel the call
+     * @return future of the first successful attempt, or of the last failure if all attempts fail
+     */
+    public <R> CompletableFuture<R> execute(String callName, Supplier<CompletableFuture<R>> attempt) {
+        if (!isEnabled()) {
+            return attempt.get();
+        }
+
+        calls.increment();
+        final CompletableFuture<R> result = new CompletableFuture<>();
+        final List<CompletableFuture<R>> attempts = new CopyOnWriteArrayList<>();
+        final AtomicInteger pending = new AtomicInteger(1);
+
+        final Optional<Long> hedgeDelay = hedgeDelay(callName);
+        start(callName, attempt, false, result, attempts, pending);
+
+        hedgeDelay.ifPresent(delay -> CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(() -> {
+            if (result.isDone() || !withinBudget()) {
+                return;
+            }
+            hedged.increment();
+            pending.incrementAndGet();
+            logger.debug("call '{}' still running after {} ms, sending hedge", callName, delay);
+            start(callName, attempt, true, result, attempts, pending);
+        }));
+
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled()) {
+                attempts.forEach(running -> running.cancel(true));
+            }
+        });
+        return result;
+    }
+
+    public Stats stats() {
+        return new Stats(calls.sum(), hedged.sum(), hedgeWins.sum());
+    }
+
+    private <R> void start(String callName,
+                           Supplier<CompletableFuture<R>> attempt,
+                           boolean hedge,
+                           CompletableFuture<R> result,
+                           List<CompletableFuture<R>> attempts,
+                           AtomicInteger pending) {
+        final long start = System.nanoTime();
+        final CompletableFuture<R> running;
+        try {
+            running = attempt.get();
+        } catch (RuntimeException e) {
+            onFailure(result, pending, e);
+            return;
+        }
+        attempts.add(running);
+        if (result.isDone()) {
+            running.cancel(true);
+            return;
+        }
+
+        running.whenComplete((value, error) -> {
+            if (error != null) {
+                onFailure(result, pending, error);
+                return;
+            }
+            record(callName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            if (result.complete(value)) {
+                if (hedge) {
+                    hedgeWins.increment();
+                }
+                attempts.stream()
+                    .filter(other -> other != running)
+                    .forEach(loser -> loser.cancel(true));
+            }
+        });
+    }
+
+    private static <R> void onFailure(CompletableFuture<R> result, AtomicInteger pending, Throwable error) {
+        // only the last failing attempt decides, another one might still succeed
+        if (pending.decrementAndGet() == 0) {
+            result.completeExceptionally(error);
+        }
+    }
+
+    private Optional<Long> hedgeDelay(String callName) {
+        final GitHubProperties.HedgingProperties properties = gitHubProperties.getHedging();
+        return window(callName)
+            .percentile(properties.getPercentile(), properties.getMinSamples())
+            .map(delay -> Math.max(delay, properties.getMinDelayMillis()));
+    }
+
+    private boolean withinBudget() {
+        return hedged.sum() < gitHubProperties.getHedging().getMaxRatio() * calls.sum();
+    }
+
+    private void record(String callName, long millis) {
+        window(callName).record(millis);
+    }
+
+    private LatencyWindow window(String callName) {
+        return latencies.computeIfAbsent(callName,
+            name -> new LatencyWindow(gitHubProperties.getHedging().getSampleSize()));
+    }
+
+    /**
+     * @param calls calls executed with hedging enabled
+     * @param hedged calls for which a second request was sent
+     * @param hedgeWins hedges that answered before the original request
+     */
+    public record Stats(long calls, long hedged, long hedgeWins) {
+    }
+
+}
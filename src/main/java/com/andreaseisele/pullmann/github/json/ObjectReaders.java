@@ -0,0 +1,45 @@
+package com.andreaseisele.pullmann.github.json;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of pre-built {@link ObjectReader}s per DTO and list of DTO type.
+ * <p>
+ * Readers are immutable and thread-safe, building them once saves resolving the type and looking up the root
+ * deserializer on every response.
+ */
+public class ObjectReaders {
+
+    private final ObjectMapper objectMapper;
+    private final Map<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectReader> listReaders = new ConcurrentHashMap<>();
+
+    public ObjectReaders(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * @param type the DTO type
+     * @return reader for a single DTO
+     */
+    public ObjectReader forType(Class<?> type) {
+        return readers.computeIfAbsent(type, objectMapper::readerFor);
+    }
+
+    /**
+     * @param elementType the DTO type
+     * @return reader for a JSON array of DTOs, producing a {@link List}
+     */
+    public ObjectReader forListOf(Class<?> elementType) {
+        return listReaders.computeIfAbsent(elementType, type -> {
+            final JavaType listType = objectMapper.getTypeFactory().constructCollectionType(List.class, type);
+            return objectMapper.readerFor(listType);
+        });
+    }
+
+}
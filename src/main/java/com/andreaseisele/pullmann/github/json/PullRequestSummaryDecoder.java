@@ -0,0 +1,99 @@
+package com.andreaseisele.pullmann.github.json;
+
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Decodes a list of GitHub Pull Requests into {@link PullRequestSummary} projections.
+ * Large fields like 'body' and the nested repository objects of 'head' and 'base' are skipped.
+ */
+public class PullRequestSummaryDecoder extends StreamingListDecoder<PullRequestSummary> {
+
+    @Override
+    protected PullRequestSummary readElement(JsonParser parser) throws IOException {
+        Long id = null;
+        Long number = null;
+        String title = null;
+        PullRequest.State state = null;
+        Author author = Author.UNKNOWN;
+        String headLabel = null;
+        String baseLabel = null;
+        Instant updatedAt = null;
+
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "id" -> id = longValue(parser);
+                case "number" -> number = longValue(parser);
+                case "title" -> title = textValue(parser);
+                case "state" -> state = readState(parser);
+                case "user" -> author = readAuthor(parser);
+                case "head" -> headLabel = readLabel(parser);
+                case "base" -> baseLabel = readLabel(parser);
+                case "updated_at" -> updatedAt = instantValue(parser);
+                default -> parser.skipChildren();
+            }
+        }
+
+        return new PullRequestSummary(id, number, title, state, author.login(), author.email(), headLabel, baseLabel,
+            updatedAt);
+    }
+
+    private static PullRequest.State readState(JsonParser parser) throws IOException {
+        final String value = textValue(parser);
+        for (PullRequest.State state : PullRequest.State.values()) {
+            if (state.getApiValue().equalsIgnoreCase(value)) {
+                return state;
+            }
+        }
+        return null;
+    }
+
+    private static Author readAuthor(JsonParser parser) throws IOException {
+        if (!isObject(parser)) {
+            parser.skipChildren();
+            return Author.UNKNOWN;
+        }
+
+        String login = null;
+        String email = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            switch (field) {
+                case "login" -> login = textValue(parser);
+                case "email" -> email = textValue(parser);
+                default -> parser.skipChildren();
+            }
+        }
+        return new Author(login, email);
+    }
+
+    private static String readLabel(JsonParser parser) throws IOException {
+        if (!isObject(parser)) {
+            parser.skipChildren();
+            return null;
+        }
+
+        String label = null;
+        String field;
+        while ((field = parser.nextFieldName()) != null) {
+            parser.nextToken();
+            if ("label".equals(field)) {
+                label = textValue(parser);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return label;
+    }
+
+    private record Author(String login, String email) {
+        static final Author UNKNOWN = new Author(null, null);
+    }
+
+}
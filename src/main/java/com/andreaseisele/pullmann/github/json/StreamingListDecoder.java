@@ -0,0 +1,84 @@
+package com.andreaseisele.pullmann.github.json;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Base class for decoders reading a JSON array element by element straight from a {@link JsonParser}.
+ * <p>
+ * In contrast to data binding only the fields a projection needs are read. All other values are skipped
+ * via {@link JsonParser#skipChildren()}, which for strings means their content is never turned into a
+ * {@link String} at all.
+ * @param <T> the projection type
+ */
+public abstract class StreamingListDecoder<T> {
+
+    /**
+     * Decode the array the given parser is about to read.
+     * @param parser a fresh parser, not yet advanced
+     * @return the decoded elements in order
+     * @throws IOException on malformed input
+     */
+    public List<T> decode(JsonParser parser) throws IOException {
+        JsonToken token = parser.nextToken();
+        if (token != JsonToken.START_ARRAY) {
+            throw new JsonParseException(parser, "expected start of array but got " + token);
+        }
+
+        final List<T> result = new ArrayList<>();
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token == null) {
+                throw new JsonParseException(parser, "unexpected end of input");
+            }
+            if (token == JsonToken.START_OBJECT) {
+                result.add(readElement(parser));
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Read a single element.
+     * @param parser parser positioned on the elements {@link JsonToken#START_OBJECT}, must be left on the
+     *               matching {@link JsonToken#END_OBJECT}
+     * @return the element
+     * @throws IOException on malformed input
+     */
+    protected abstract T readElement(JsonParser parser) throws IOException;
+
+    protected static String textValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NULL ? null : parser.getText();
+    }
+
+    protected static Long longValue(JsonParser parser) throws IOException {
+        return parser.currentToken() == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+    }
+
+    protected static Instant instantValue(JsonParser parser) throws IOException {
+        final String text = textValue(parser);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return Instant.parse(text);
+        } catch (DateTimeParseException e) {
+            throw new JsonParseException(parser, "invalid timestamp [" + text + "]", e);
+        }
+    }
+
+    /**
+     * @return whether the parser is positioned on an object that can be read field by field
+     */
+    protected static boolean isObject(JsonParser parser) {
+        return parser.currentToken() == JsonToken.START_OBJECT;
+    }
+
+}
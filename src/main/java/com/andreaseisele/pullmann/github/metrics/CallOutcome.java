@@ -0,0 +1,24 @@
+package com.andreaseisele.pullmann.github.metrics;
+
+/**
+ * Outcome of a single HTTP exchange with GitHub, used as metrics tag.
+ */
+public enum CallOutcome {
+    /** 2xx response, successfully deserialized */
+    SUCCESS,
+    /** '304 Not Modified', answered from the conditional request cache */
+    NOT_MODIFIED,
+    /** any other response status, including retried ones */
+    BAD_STATUS,
+    /** no response due to an IO error or timeout */
+    IO_ERROR,
+    /** 2xx response whose body could not be deserialized */
+    SERIALIZATION_ERROR,
+    /** cancelled by us, e.g. the losing side of a hedged call */
+    CANCELLED;
+
+    String tagValue() {
+        return name().toLowerCase();
+    }
+
+}
@@ -0,0 +1,91 @@
+package com.andreaseisele.pullmann.github.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Request;
+import org.springframework.stereotype.Component;
+
+/**
+ * Per call name metrics of all GitHub calls: a timer tagged by outcome and status per HTTP exchange (retries
+ * count separately) and a summary of the response body sizes as transferred.
+ */
+@Component
+public class GitHubCallMetrics {
+
+    public static final String CALLS = "pullmann.github.calls";
+    public static final String RESPONSE_SIZE = "pullmann.github.response.size";
+
+    private static final String NO_STATUS = "none";
+
+    private final MeterRegistry registry;
+
+    public GitHubCallMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * @param request a request about to be sent
+     * @param callName the name of the call
+     * @return the request tagged with the call name, so the response size can be attributed
+     */
+    public static Request tag(Request request, String callName) {
+        return request.newBuilder()
+            .tag(CallName.class, new CallName(callName))
+            .build();
+    }
+
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * @param sample the sample started before the exchange
+     * @param callName the name of the call
+     * @param outcome the outcome of the exchange
+     * @param status the response status, null if there was no response
+     */
+    public void stop(Timer.Sample sample, String callName, CallOutcome outcome, Integer status) {
+        sample.stop(Timer.builder(CALLS)
+            .description("GitHub API calls")
+            .tag("call", callName)
+            .tag("outcome", outcome.tagValue())
+            .tag("status", status != null ? String.valueOf(status) : NO_STATUS)
+            .publishPercentileHistogram()
+            .register(registry));
+    }
+
+    public void recordResponseSize(String callName, long bytes) {
+        DistributionSummary.builder(RESPONSE_SIZE)
+            .description("size of GitHub API response bodies as transferred")
+            .baseUnit("bytes")
+            .tag("call", callName)
+            .register(registry)
+            .record(bytes);
+    }
+
+    /**
+     * @return listener factory recording the body size of responses to requests tagged via {@link #tag(Request, String)}
+     */
+    public EventListener.Factory eventListenerFactory() {
+        return call -> new ResponseSizeListener();
+    }
+
+    private class ResponseSizeListener extends EventListener {
+
+        @Override
+        public void responseBodyEnd(Call call, long byteCount) {
+            final CallName callName = call.request().tag(CallName.class);
+            if (callName != null) {
+                recordResponseSize(callName.value(), byteCount);
+            }
+        }
+
+    }
+
+    private record CallName(String value) {
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.andreaseisele.pullmann.github.metrics;
+
+import com.andreaseisele.pullmann.github.cache.ConditionalRequestCache;
+import com.andreaseisele.pullmann.github.coalesce.RequestCoalescer;
+import com.andreaseisele.pullmann.github.hedge.RequestHedger;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.function.ToDoubleFunction;
+import org.springframework.stereotype.Component;
+
+/**
+ * Exposes the statistics the GitHub client components already keep.
+ */
+@Component
+public class GitHubClientMeterBinder implements MeterBinder {
+
+    private final ConditionalRequestCache conditionalRequestCache;
+    private final RequestCoalescer requestCoalescer;
+    private final RequestHedger requestHedger;
+
+    public GitHubClientMeterBinder(ConditionalRequestCache conditionalRequestCache,
+                                   RequestCoalescer requestCoalescer,
+                                   RequestHedger requestHedger) {
+        this.conditionalRequestCache = conditionalRequestCache;
+        this.requestCoalescer = requestCoalescer;
+        this.requestHedger = requestHedger;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        counter(registry, "pullmann.github.response.cache.lookups", conditionalRequestCache,
+            cache -> cache.stats().hits(), "result", "hit");
+        counter(registry, "pullmann.github.response.cache.lookups", conditionalRequestCache,
+            cache -> cache.stats().misses(), "result", "miss");
+        counter(registry, "pullmann.github.response.cache.not.modified", conditionalRequestCache,
+            cache -> cache.stats().notModified());
+        Gauge.builder("pullmann.github.response.cache.size", conditionalRequestCache, cache -> cache.stats().size())
+            .register(registry);
+
+        counter(registry, "pullmann.github.coalesce.calls", requestCoalescer,
+            coalescer -> coalescer.stats().executed(), "result", "executed");
+        counter(registry, "pullmann.github.coalesce.calls", requestCoalescer,
+            coalescer -> coalescer.stats().coalesced(), "result", "coalesced");
+        Gauge.builder("pullmann.github.coalesce.in.flight", requestCoalescer, coalescer -> coalescer.stats().inFlight())
+            .register(registry);
+
+        counter(registry, "pullmann.github.hedge.calls", requestHedger,
+            hedger -> hedger.stats().hedged(), "result", "hedged");
+        counter(registry, "pullmann.github.hedge.calls", requestHedger,
+            hedger -> hedger.stats().hedgeWins(), "result", "hedge_won");
+    }
+
+    private static <T> void counter(MeterRegistry registry,
+                                    String name,
+                                    T source,
+                                    ToDoubleFunction<T> count,
+                                    String... tags) {
+        FunctionCounter.builder(name, source, count)
+            .tags(tags)
+            .register(registry);
+    }
+
+}
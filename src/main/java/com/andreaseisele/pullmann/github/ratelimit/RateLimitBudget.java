@@ -0,0 +1,45 @@
+package com.andreaseisele.pullmann.github.ratelimit;
+
+import java.time.Instant;
+
+/**
+ * Last known rate limit state of one set of credentials as reported by GitHub.
+ * @param limit max. number of requests per window
+ * @param remaining requests left in the current window
+ * @param reset start of the next window
+ * @param retryAfter point in time before which no further requests should be sent, may be null
+ */
+public record RateLimitBudget(
+    int limit,
+    int remaining,
+    Instant reset,
+    Instant retryAfter
+) {
+
+    /**
+     * @param now the current point in time
+     * @return whether the window of this budget already ended and the budget is therefore unknown
+     */
+    public boolean isOutdated(Instant now) {
+        return reset == null || !reset.isAfter(now);
+    }
+
+    /**
+     * @param now the current point in time
+     * @return the point in time requests may be sent again when exhausted or told to back off, null otherwise
+     */
+    public Instant blockedUntil(Instant now) {
+        if (retryAfter != null && retryAfter.isAfter(now)) {
+            return retryAfter;
+        }
+        if (remaining <= 0 && !isOutdated(now)) {
+            return reset;
+        }
+        return null;
+    }
+
+    RateLimitBudget withRetryAfter(Instant retryAfter) {
+        return new RateLimitBudget(limit, remaining, reset, retryAfter);
+    }
+
+}
@@ -0,0 +1,173 @@
+package com.andreaseisele.pullmann.github.ratelimit;
+
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubHeaders;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.RequestPriority;
+import com.andreaseisele.pullmann.github.error.GitHubRateLimitException;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tracks the GitHub rate limit budget per set of credentials via the 'X-RateLimit-*' and 'Retry-After'
+ * response headers.
+ * <p>
+ * Before a call is sent the budget is checked: background traffic is delayed (or shed, if the wait would be
+ * too long) once the remaining budget drops below the configured reserve, so that interactive traffic can use
+ * the rest. Interactive traffic is only stopped when the budget is exhausted or GitHub told us to back off.
+ */
+@Component
+public class RateLimitTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitTracker.class);
+
+    // GitHub recommends to wait at least one minute for secondary rate limits without 'Retry-After'
+    private static final Duration DEFAULT_RETRY_AFTER = Duration.ofMinutes(1);
+
+    private final GitHubProperties gitHubProperties;
+
+    private final Cache<String, RateLimitBudget> budgets = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .expireAfterWrite(Duration.ofHours(2))
+        .build();
+
+    public RateLimitTracker(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * Check the budget before sending a call. Might block the current thread for background calls.
+     * @param callName name of the call for logging
+     * @param credentials the credentials the call will be sent with
+     * @param priority the calls priority
+     * @throws GitHubRateLimitException if the call should not be sent at all
+     */
+    public void acquire(String callName, String credentials, RequestPriority priority) {
+        final GitHubProperties.RateLimitProperties properties = gitHubProperties.getRateLimit();
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        final RateLimitBudget budget = budgets.getIfPresent(CredentialFingerprints.of(credentials));
+        if (budget == null) {
+            return;
+        }
+
+        final Instant now = Instant.now();
+        Instant blockedUntil = budget.blockedUntil(now);
+        if (blockedUntil == null
+            && priority == RequestPriority.BACKGROUND
+            && !budget.isOutdated(now)
+            && budget.remaining() <= properties.getReserve()) {
+            blockedUntil = budget.reset();
+        }
+
+        if (blockedUntil == null) {
+            return;
+        }
+
+        final Duration wait = Duration.between(now, blockedUntil);
+        if (priority == RequestPriority.BACKGROUND
+            && wait.compareTo(Duration.ofSeconds(properties.getMaxDelaySeconds())) <= 0) {
+            logger.info("delaying call '{}' by {} due to rate limit", callName, wait);
+            sleep(callName, wait, blockedUntil);
+            return;
+        }
+
+        logger.warn("shedding {} call '{}', rate limit budget exhausted until {}", priority, callName, blockedUntil);
+        throw new GitHubRateLimitException("rate limit budget exhausted for call '%s'".formatted(callName),
+            blockedUntil);
+    }
+
+    /**
+     * Update the budget from a response.
+     * @param credentials the credentials the call was sent with
+     * @param response any response
+     */
+    public void update(String credentials, Response response) {
+        final Integer remaining = parseInt(response.header(GitHubHeaders.RATE_LIMIT_REMAINING));
+        final Integer limit = parseInt(response.header(GitHubHeaders.RATE_LIMIT_LIMIT));
+        final Long reset = parseLong(response.header(GitHubHeaders.RATE_LIMIT_RESET));
+        final Instant retryAfter = parseRetryAfter(response);
+
+        if ((remaining == null || reset == null) && retryAfter == null) {
+            return;
+        }
+
+        budgets.asMap().compute(CredentialFingerprints.of(credentials), (key, previous) -> {
+            RateLimitBudget next = previous;
+            if (remaining != null && reset != null) {
+                final Instant resetInstant = Instant.ofEpochSecond(reset);
+                // responses can arrive out of order, a lower count for the same window wins
+                final int effectiveRemaining = previous != null && resetInstant.equals(previous.reset())
+                    ? Math.min(previous.remaining(), remaining)
+                    : remaining;
+                next = new RateLimitBudget(limit != null ? limit : effectiveRemaining,
+                    effectiveRemaining,
+                    resetInstant,
+                    previous != null ? previous.retryAfter() : null);
+            }
+            if (retryAfter != null) {
+                next = next != null ? next.withRetryAfter(retryAfter) : new RateLimitBudget(0, 0, null, retryAfter);
+            }
+            return next;
+        });
+    }
+
+    /**
+     * @param credentials the credentials to look up
+     * @return the last known budget, if any
+     */
+    public Optional<RateLimitBudget> budget(String credentials) {
+        return Optional.ofNullable(budgets.getIfPresent(CredentialFingerprints.of(credentials)));
+    }
+
+    private static void sleep(String callName, Duration wait, Instant blockedUntil) {
+        try {
+            Thread.sleep(wait.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubRateLimitException("interrupted while delaying call '%s'".formatted(callName),
+                blockedUntil,
+                e);
+        }
+    }
+
+    private static Instant parseRetryAfter(Response response) {
+        final Long seconds = parseLong(response.header(HttpHeaders.RETRY_AFTER));
+        if (seconds != null) {
+            return Instant.now().plusSeconds(seconds);
+        }
+        if (response.code() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return Instant.now().plus(DEFAULT_RETRY_AFTER);
+        }
+        return null;
+    }
+
+    private static Integer parseInt(String value) {
+        final Long parsed = parseLong(value);
+        return parsed != null ? parsed.intValue() : null;
+    }
+
+    private static Long parseLong(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException nfe) {
+            logger.warn("unable to parse rate limit header value [{}]", value);
+            return null;
+        }
+    }
+
+}
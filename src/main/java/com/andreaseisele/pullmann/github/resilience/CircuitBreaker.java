@@ -0,0 +1,147 @@
+package com.andreaseisele.pullmann.github.resilience;
+
+import com.andreaseisele.pullmann.github.error.GitHubCircuitOpenException;
+import java.time.Duration;
+import java.time.Instant;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Circuit breaker for a single GitHub call.
+ * <p>
+ * After the configured number of consecutive failures (IO errors or 5xx responses) the circuit opens and calls
+ * fail fast with a {@link GitHubCircuitOpenException}. Once the open duration passed a single trial call is let
+ * through (half open): its success closes the circuit again, its failure re-opens it.
+ */
+public class CircuitBreaker {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    private final String name;
+    private final int failureThreshold;
+    private final Duration openDuration;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openUntil;
+    private boolean trialInFlight;
+
+    public CircuitBreaker(String name, int failureThreshold, Duration openDuration) {
+        this.name = name;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+    }
+
+    /**
+     * Acquire permission for a call. The outcome has to be reported via the returned permit.
+     * @return the permit
+     * @throws GitHubCircuitOpenException if the circuit is open
+     */
+    public synchronized Permit acquire() {
+        final Instant now = Instant.now();
+        if (state == State.OPEN) {
+            if (now.isBefore(openUntil)) {
+                throw new GitHubCircuitOpenException("circuit for call '%s' is open".formatted(name), openUntil);
+            }
+            state = State.HALF_OPEN;
+            trialInFlight = false;
+        }
+
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                throw new GitHubCircuitOpenException("circuit for call '%s' is half open".formatted(name), now);
+            }
+            trialInFlight = true;
+            return new Permit(true);
+        }
+
+        return new Permit(false);
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized void onSuccess(boolean trial) {
+        consecutiveFailures = 0;
+        if (trial && state == State.HALF_OPEN) {
+            logger.info("closing circuit for call '{}'", name);
+            state = State.CLOSED;
+            trialInFlight = false;
+        }
+    }
+
+    private synchronized void onFailure(boolean trial) {
+        consecutiveFailures++;
+        if ((trial && state == State.HALF_OPEN)
+            || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("opening circuit for call '{}' after {} consecutive failures", name, consecutiveFailures);
+            state = State.OPEN;
+            openUntil = Instant.now().plus(openDuration);
+            trialInFlight = false;
+        }
+    }
+
+    private synchronized void onRelease(boolean trial) {
+        if (trial && state == State.HALF_OPEN) {
+            trialInFlight = false;
+        }
+    }
+
+    /**
+     * Permission for a single call. Only the first reported outcome counts.
+     */
+    public final class Permit {
+
+        private final boolean trial;
+        private boolean done;
+
+        private Permit(boolean trial) {
+            this.trial = trial;
+        }
+
+        /**
+         * Report the outcome by HTTP status, only server errors count as failure.
+         * @param httpStatus the final status of the call
+         */
+        public void record(int httpStatus) {
+            if (httpStatus >= 500) {
+                failure();
+            } else {
+                success();
+            }
+        }
+
+        public synchronized void success() {
+            if (!done) {
+                done = true;
+                onSuccess(trial);
+            }
+        }
+
+        public synchronized void failure() {
+            if (!done) {
+                done = true;
+                onFailure(trial);
+            }
+        }
+
+        /**
+         * Give the permit back without an outcome, e.g. when the call was never sent.
+         */
+        public synchronized void release() {
+            if (!done) {
+                done = true;
+                onRelease(trial);
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.andreaseisele.pullmann.github.resilience;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Component;
+
+/**
+ * Holds one {@link CircuitBreaker} per GitHub call name.
+ */
+@Component
+public class CircuitBreakerRegistry {
+
+    private final GitHubProperties gitHubProperties;
+    private final ConcurrentMap<String, CircuitBreaker> circuitBreakers = new ConcurrentHashMap<>();
+
+    public CircuitBreakerRegistry(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * Acquire permission for a call.
+     * @param callName the name of the call
+     * @return the permit to report the outcome to
+     * @throws com.andreaseisele.pullmann.github.error.GitHubCircuitOpenException if the circuit is open
+     */
+    public CircuitBreaker.Permit acquire(String callName) {
+        return circuitBreakers.computeIfAbsent(callName, this::create).acquire();
+    }
+
+    /**
+     * @return the current state per call name
+     */
+    public Map<String, CircuitBreaker.State> states() {
+        return circuitBreakers.entrySet().stream()
+            .collect(Collectors.toMap(Map.Entry::getKey, entry -> entry.getValue().getState()));
+    }
+
+    private CircuitBreaker create(String callName) {
+        final GitHubProperties.ResilienceProperties properties = gitHubProperties.getResilience();
+        final int threshold = properties.isCircuitBreakerEnabled() ? properties.getFailureThreshold() : Integer.MAX_VALUE;
+        return new CircuitBreaker(callName, threshold, Duration.ofSeconds(properties.getOpenSeconds()));
+    }
+
+}
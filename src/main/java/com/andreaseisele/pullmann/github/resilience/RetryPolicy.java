@@ -0,0 +1,123 @@
+package com.andreaseisele.pullmann.github.resilience;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Decides whether and when a failed GitHub call gets retried.
+ * <p>
+ * Only idempotent GETs are retried, on IO errors and transient server errors. The delay grows exponentially with
+ * jitter, unless GitHub sent a 'Retry-After' header which is honored as long as it is within the max. backoff.
+ * Mutations like merge or close are never retried.
+ */
+@Component
+public class RetryPolicy {
+
+    private static final Set<Integer> RETRYABLE_STATUS = Set.of(
+        HttpStatus.INTERNAL_SERVER_ERROR.value(),
+        HttpStatus.BAD_GATEWAY.value(),
+        HttpStatus.SERVICE_UNAVAILABLE.value(),
+        HttpStatus.GATEWAY_TIMEOUT.value());
+
+    private final GitHubProperties gitHubProperties;
+
+    public RetryPolicy(GitHubProperties gitHubProperties) {
+        this.gitHubProperties = gitHubProperties;
+    }
+
+    /**
+     * @param request the request that was sent
+     * @param attempt number of attempts made so far, starting with 1
+     * @param response the response of the last attempt
+     * @return the delay before the next attempt, empty if the response should be used as it is
+     */
+    public Optional<Duration> retryDelay(Request request, int attempt, Response response) {
+        if (!mayRetry(request, attempt)) {
+            return Optional.empty();
+        }
+
+        final Duration retryAfter = parseRetryAfter(response.header(HttpHeaders.RETRY_AFTER));
+        if (response.code() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            // without explicit instructions rate limits are left to the rate limit tracker
+            return Optional.ofNullable(retryAfter).filter(this::withinMaxBackoff);
+        }
+        if (!RETRYABLE_STATUS.contains(response.code())) {
+            return Optional.empty();
+        }
+        if (retryAfter != null) {
+            return Optional.of(retryAfter).filter(this::withinMaxBackoff);
+        }
+        return Optional.of(backoff(attempt));
+    }
+
+    /**
+     * @param request the request that was sent
+     * @param attempt number of attempts made so far, starting with 1
+     * @param exception the error of the last attempt
+     * @return the delay before the next attempt, empty if the error should be propagated
+     */
+    public Optional<Duration> retryDelay(Request request, int attempt, IOException exception) {
+        if (!mayRetry(request, attempt)) {
+            return Optional.empty();
+        }
+        return Optional.of(backoff(attempt));
+    }
+
+    /**
+     * Block the current thread for the given delay.
+     * @param callName the name of the call for error messages
+     * @param delay the delay
+     * @throws GitHubExecutionException if interrupted
+     */
+    public static void sleep(String callName, Duration delay) {
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubExecutionException("interrupted while waiting to retry call '%s'".formatted(callName), e);
+        }
+    }
+
+    Duration backoff(int attempt) {
+        final GitHubProperties.ResilienceProperties properties = gitHubProperties.getResilience();
+        final long exponential = properties.getInitialBackoffMillis() * (1L << Math.min(attempt - 1, 20));
+        final long capped = Math.min(exponential, properties.getMaxBackoffMillis());
+        // "equal jitter": at least half the backoff, so retries of concurrent callers spread out but still wait
+        final long jittered = capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1);
+        return Duration.ofMillis(jittered);
+    }
+
+    private boolean mayRetry(Request request, int attempt) {
+        final GitHubProperties.ResilienceProperties properties = gitHubProperties.getResilience();
+        return properties.isRetryEnabled()
+            && attempt < properties.getMaxAttempts()
+            && HttpMethod.GET.matches(request.method());
+    }
+
+    private boolean withinMaxBackoff(Duration delay) {
+        return delay.toMillis() <= gitHubProperties.getResilience().getMaxBackoffMillis();
+    }
+
+    private static Duration parseRetryAfter(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Long.parseLong(value.trim()));
+        } catch (NumberFormatException nfe) {
+            return null;
+        }
+    }
+
+}
@@ -0,0 +1,35 @@
+package com.andreaseisele.pullmann.github.result;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SortedMap;
+
+/**
+ * Aggregate of all pages of a paged GitHub resource, merged in page order.
+ * <p>
+ * {@link #getPage()} is the last page that was requested, {@link #getMaxPages()} the last page GitHub reported.
+ * Both differ only if fetching was capped. Pages that failed are missing from the list and reported via
+ * {@link #getFailedPages()}.
+ * @param <T> the element type
+ */
+public class AllPagesResult<T> extends PagedResult<T> {
+
+    private final SortedMap<Integer, RuntimeException> failedPages;
+
+    public AllPagesResult(List<T> list, int page, int maxPages, SortedMap<Integer, RuntimeException> failedPages) {
+        super(list, page, maxPages);
+        this.failedPages = Collections.unmodifiableSortedMap(failedPages);
+    }
+
+    public SortedMap<Integer, RuntimeException> getFailedPages() {
+        return failedPages;
+    }
+
+    /**
+     * @return whether every page up to the last reported one was fetched successfully
+     */
+    public boolean isComplete() {
+        return failedPages.isEmpty() && getPage() == getMaxPages();
+    }
+
+}
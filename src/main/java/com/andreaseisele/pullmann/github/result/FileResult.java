@@ -1,10 +1,10 @@
 package com.andreaseisele.pullmann.github.result;
 
 import com.andreaseisele.pullmann.github.LinkParser;
+import com.andreaseisele.pullmann.github.PageLinks;
 import com.andreaseisele.pullmann.github.dto.File;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 public class FileResult extends PagedResult<File> {
 
@@ -12,9 +12,12 @@ public class FileResult extends PagedResult<File> {
         super(files, page, maxPages);
     }
 
+    private FileResult(List<File> files, int page, PageLinks links) {
+        super(files, page, links);
+    }
+
     public static FileResult of(List<File> files, int page, String linkInfo) {
-        final Optional<Integer> maxPage = LinkParser.getLastPage(linkInfo);
-        return new FileResult(files, page, maxPage.orElse(page));
+        return new FileResult(files, page, LinkParser.parse(linkInfo));
     }
 
     public static FileResult empty() {
@@ -6,24 +6,47 @@ public class MergeResult {
 
     private final MergeResponse response;
 
-    private MergeResult(MergeResponse response) {
+    private final Integer failureStatus;
+
+    private MergeResult(MergeResponse response, Integer failureStatus) {
         this.response = response;
+        this.failureStatus = failureStatus;
     }
 
     public static MergeResult of(MergeResponse response) {
-        return new MergeResult(response);
+        return new MergeResult(response, null);
     }
 
     public static MergeResult failure() {
-        return new MergeResult(null);
+        return new MergeResult(null, null);
+    }
+
+    /**
+     * @param status the HTTP status GitHub refused the merge with
+     * @return a failed result
+     */
+    public static MergeResult failure(int status) {
+        return new MergeResult(null, status);
     }
 
     public boolean isSuccessful() {
         return response != null && response.merged();
     }
 
+    /**
+     * @return whether GitHub refused the merge with '409 Conflict', i.e. the head or base branch was modified
+     *         concurrently
+     */
+    public boolean isConflict() {
+        return failureStatus != null && failureStatus == 409;
+    }
+
     public MergeResponse getResponse() {
         return response;
     }
 
+    public Integer getFailureStatus() {
+        return failureStatus;
+    }
+
 }
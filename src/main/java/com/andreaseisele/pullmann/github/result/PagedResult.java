@@ -1,17 +1,34 @@
 package com.andreaseisele.pullmann.github.result;
 
+import com.andreaseisele.pullmann.github.PageLinks;
 import java.util.List;
+import java.util.OptionalInt;
 
 public abstract class PagedResult<T> {
 
     private final List<T> list;
     private final int page;
     private final int maxPages;
+    private final PageLinks links;
 
     protected PagedResult(List<T> list, int page, int maxPages) {
+        this(list, page, maxPages, PageLinks.NONE);
+    }
+
+    /**
+     * @param list the elements of this page
+     * @param page the page number
+     * @param links the pagination links GitHub sent, the last page defaults to this page if there is none
+     */
+    protected PagedResult(List<T> list, int page, PageLinks links) {
+        this(list, page, links.lastPage().orElse(page), links);
+    }
+
+    private PagedResult(List<T> list, int page, int maxPages, PageLinks links) {
         this.list = list;
         this.page = page;
         this.maxPages = maxPages;
+        this.links = links;
     }
 
     public List<T> getList() {
@@ -26,4 +43,23 @@ public abstract class PagedResult<T> {
         return maxPages;
     }
 
+    public PageLinks getLinks() {
+        return links;
+    }
+
+    /**
+     * @return whether GitHub linked a next page
+     */
+    public boolean hasNext() {
+        return links.next() != null;
+    }
+
+    public OptionalInt getNextPage() {
+        return links.nextPage();
+    }
+
+    public OptionalInt getPrevPage() {
+        return links.prevPage();
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.andreaseisele.pullmann.github.result;
+
+import static java.util.Objects.requireNonNull;
+
+
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
+
+/**
+ * Everything the pull request details page needs: the pull request and the users permission on its repository.
+ */
+public class PullRequestDetailsResult {
+
+    private final PullRequest pullRequest;
+    private final RepositoryPermission permission;
+
+    private PullRequestDetailsResult(PullRequest pullRequest, RepositoryPermission permission) {
+        this.pullRequest = pullRequest;
+        this.permission = permission;
+    }
+
+    public static PullRequestDetailsResult of(PullRequest pullRequest, RepositoryPermission permission) {
+        requireNonNull(pullRequest, "pull request must not be null");
+        requireNonNull(permission, "permission must not be null");
+        return new PullRequestDetailsResult(pullRequest, permission);
+    }
+
+    public PullRequest getPullRequest() {
+        return pullRequest;
+    }
+
+    public RepositoryPermission getPermission() {
+        return permission;
+    }
+
+}
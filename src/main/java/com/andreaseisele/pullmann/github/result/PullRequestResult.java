@@ -1,10 +1,10 @@
 package com.andreaseisele.pullmann.github.result;
 
 import com.andreaseisele.pullmann.github.LinkParser;
+import com.andreaseisele.pullmann.github.PageLinks;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 public class PullRequestResult extends PagedResult<PullRequest> {
 
@@ -12,9 +12,12 @@ public class PullRequestResult extends PagedResult<PullRequest> {
         super(list, page, maxPages);
     }
 
+    private PullRequestResult(List<PullRequest> list, int page, PageLinks links) {
+        super(list, page, links);
+    }
+
     public static PullRequestResult of(List<PullRequest> pullRequests, int page, String linkInfo) {
-        final Optional<Integer> maxPage = LinkParser.getLastPage(linkInfo);
-        return new PullRequestResult(pullRequests, page, maxPage.orElse(page));
+        return new PullRequestResult(pullRequests, page, LinkParser.parse(linkInfo));
     }
 
     public static PullRequestResult empty() {
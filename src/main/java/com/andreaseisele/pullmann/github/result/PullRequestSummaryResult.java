@@ -0,0 +1,31 @@
+package com.andreaseisele.pullmann.github.result;
+
+import com.andreaseisele.pullmann.github.LinkParser;
+import com.andreaseisele.pullmann.github.PageLinks;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import java.util.Collections;
+import java.util.List;
+
+public class PullRequestSummaryResult extends PagedResult<PullRequestSummary> {
+
+    private PullRequestSummaryResult(List<PullRequestSummary> list, int page, int maxPages) {
+        super(list, page, maxPages);
+    }
+
+    private PullRequestSummaryResult(List<PullRequestSummary> list, int page, PageLinks links) {
+        super(list, page, links);
+    }
+
+    public static PullRequestSummaryResult of(List<PullRequestSummary> pullRequests, int page, String linkInfo) {
+        return new PullRequestSummaryResult(pullRequests, page, LinkParser.parse(linkInfo));
+    }
+
+    public static PullRequestSummaryResult of(List<PullRequestSummary> pullRequests, int page, int maxPages) {
+        return new PullRequestSummaryResult(pullRequests, page, maxPages);
+    }
+
+    public static PullRequestSummaryResult empty() {
+        return new PullRequestSummaryResult(Collections.emptyList(), 1, 1);
+    }
+
+}
@@ -1,10 +1,10 @@
 package com.andreaseisele.pullmann.github.result;
 
 import com.andreaseisele.pullmann.github.LinkParser;
+import com.andreaseisele.pullmann.github.PageLinks;
 import com.andreaseisele.pullmann.github.dto.Repository;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 public class RepositoryResult extends PagedResult<Repository> {
 
@@ -12,9 +12,12 @@ public class RepositoryResult extends PagedResult<Repository> {
         super(list, page, maxPages);
     }
 
+    private RepositoryResult(List<Repository> list, int page, PageLinks links) {
+        super(list, page, links);
+    }
+
     public static RepositoryResult of(List<Repository> repositories, int page, String linkInfo) {
-        final Optional<Integer> maxPage = LinkParser.getLastPage(linkInfo);
-        return new RepositoryResult(repositories, page, maxPage.orElse(page));
+        return new RepositoryResult(repositories, page, LinkParser.parse(linkInfo));
     }
 
     public static RepositoryResult empty() {
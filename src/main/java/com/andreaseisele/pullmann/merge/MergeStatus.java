@@ -0,0 +1,10 @@
+package com.andreaseisele.pullmann.merge;
+
+/**
+ * Snapshot of a {@link MergeTicket} as sent to the browser.
+ * @param state the current state
+ * @param position number of merges ahead in the repositories queue, 0 while merging or finished
+ * @param message reason of a failure, may be null
+ */
+public record MergeStatus(MergeTicketState state, int position, String message) {
+}
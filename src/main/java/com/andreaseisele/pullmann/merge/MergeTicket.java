@@ -0,0 +1,88 @@
+package com.andreaseisele.pullmann.merge;
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+
+/**
+ * A merge waiting in or processed by the merge queue.
+ */
+public class MergeTicket {
+
+    private final String id;
+    private final String owner;
+    private final PullRequestCoordinates coordinates;
+    private final String headSha;
+    private final UsernamePasswordAuthenticationToken authentication;
+    private final CompletableFuture<MergeStatus> finished = new CompletableFuture<>();
+
+    // guarded by this
+    private MergeTicketState state = MergeTicketState.QUEUED;
+    private int position;
+    private String message;
+
+    /**
+     * @param id unique id of the ticket
+     * @param owner fingerprint of the credentials that queued the merge, see
+     *              {@link com.andreaseisele.pullmann.github.CredentialFingerprints}
+     * @param coordinates the pull request
+     * @param headSha the head sha the user saw, null to merge whatever the head is
+     * @param authentication the authentication to merge with
+     */
+    public MergeTicket(String id,
+                       String owner,
+                       PullRequestCoordinates coordinates,
+                       String headSha,
+                       UsernamePasswordAuthenticationToken authentication) {
+        this.id = id;
+        this.owner = owner;
+        this.coordinates = coordinates;
+        this.headSha = headSha;
+        this.authentication = authentication;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getOwner() {
+        return owner;
+    }
+
+    public PullRequestCoordinates getCoordinates() {
+        return coordinates;
+    }
+
+    public String getHeadSha() {
+        return headSha;
+    }
+
+    public UsernamePasswordAuthenticationToken getAuthentication() {
+        return authentication;
+    }
+
+    public synchronized MergeStatus status() {
+        return new MergeStatus(state, position, message);
+    }
+
+    public void update(MergeTicketState state, int position, String message) {
+        final MergeStatus status;
+        synchronized (this) {
+            this.state = state;
+            this.position = position;
+            this.message = message;
+            status = status();
+        }
+        if (state.isFinished()) {
+            finished.complete(status);
+        }
+    }
+
+    /**
+     * @return completes with the final status once the merge is done
+     */
+    public CompletableFuture<MergeStatus> finished() {
+        return finished;
+    }
+
+}
@@ -0,0 +1,12 @@
+package com.andreaseisele.pullmann.merge;
+
+public enum MergeTicketState {
+    QUEUED,
+    MERGING,
+    MERGED,
+    FAILED;
+
+    public boolean isFinished() {
+        return this == MERGED || this == FAILED;
+    }
+}
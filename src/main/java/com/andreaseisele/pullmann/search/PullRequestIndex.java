@@ -0,0 +1,267 @@
+package com.andreaseisele.pullmann.search;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.error.GitHubStorageException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.annotation.PreDestroy;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.Document;
+import org.apache.lucene.document.Field;
+import org.apache.lucene.document.StoredField;
+import org.apache.lucene.document.StringField;
+import org.apache.lucene.document.TextField;
+import org.apache.lucene.index.IndexWriter;
+import org.apache.lucene.index.IndexWriterConfig;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.Term;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.BooleanClause;
+import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.Query;
+import org.apache.lucene.search.ScoreDoc;
+import org.apache.lucene.search.SearcherManager;
+import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.search.TopDocs;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Embedded full-text index over the pull requests the application synchronizes, persisted on disk so it
+ * survives restarts.
+ * <p>
+ * Every pull request is one document keyed by repository and number, updates replace it. Title, body, author
+ * and branch labels are searchable, the fields of a {@link PullRequestSummary} are stored so hits can be
+ * rendered without asking GitHub. Searches are always scoped to one repository.
+ * <p>
+ * Updates are visible to searches right away through near-real-time readers of the writer. They are committed to
+ * disk every {@code pullman.github.search.commit-interval-seconds} and on shutdown, so frequent small updates, e.g.
+ * one per webhook delivery, don't each cost an fsync and a new segment.
+ */
+@Component
+public class PullRequestIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestIndex.class);
+
+    private static final String FIELD_KEY = "key";
+    private static final String FIELD_REPOSITORY = "repository";
+    private static final String FIELD_ID = "id";
+    private static final String FIELD_NUMBER = "number";
+    private static final String FIELD_TITLE = "title";
+    private static final String FIELD_BODY = "body";
+    private static final String FIELD_STATE = "state";
+    private static final String FIELD_AUTHOR = "author";
+    private static final String FIELD_AUTHOR_EMAIL = "authorEmail";
+    private static final String FIELD_HEAD = "head";
+    private static final String FIELD_BASE = "base";
+    private static final String FIELD_UPDATED_AT = "updatedAt";
+
+    private static final Map<String, Float> SEARCH_FIELDS = Map.of(
+        FIELD_TITLE, 3.0f,
+        FIELD_BODY, 1.0f,
+        FIELD_AUTHOR, 2.0f,
+        FIELD_HEAD, 1.5f,
+        FIELD_BASE, 1.0f);
+
+    private final GitHubProperties.SearchProperties properties;
+    private final Analyzer analyzer = new StandardAnalyzer();
+
+    private final Directory directory;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final AtomicBoolean uncommitted = new AtomicBoolean();
+
+    public PullRequestIndex(GitHubProperties gitHubProperties) {
+        this.properties = gitHubProperties.getSearch();
+        if (!properties.isEnabled()) {
+            this.directory = null;
+            this.writer = null;
+            this.searcherManager = null;
+            return;
+        }
+
+        try {
+            final Path location = Files.createDirectories(properties.getLocation().getFile().toPath());
+            this.directory = FSDirectory.open(location);
+            this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer)
+                .setOpenMode(IndexWriterConfig.OpenMode.CREATE_OR_APPEND));
+            this.searcherManager = new SearcherManager(writer, null);
+            logger.info("opened pull request index at {} with {} documents", location, writer.getDocStats().numDocs);
+        } catch (IOException e) {
+            throw new GitHubStorageException("error opening pull request index", e);
+        }
+    }
+
+    /**
+     * Add or replace the given pull requests and make them visible to searches.
+     * @param repositoryName the repository the pull requests belong to
+     * @param pullRequests the changed pull requests
+     */
+    public void update(RepositoryName repositoryName, Collection<PullRequest> pullRequests) {
+        if (!properties.isEnabled() || pullRequests.isEmpty()) {
+            return;
+        }
+
+        final String repository = repositoryKey(repositoryName);
+        try {
+            for (PullRequest pullRequest : pullRequests) {
+                if (pullRequest.number() == null) {
+                    continue;
+                }
+                final String key = repository + "#" + pullRequest.number();
+                writer.updateDocument(new Term(FIELD_KEY, key), toDocument(key, repository, pullRequest));
+            }
+            uncommitted.set(true);
+            searcherManager.maybeRefresh();
+        } catch (IOException e) {
+            throw new GitHubStorageException("error updating pull request index", e);
+        }
+    }
+
+    /**
+     * Persist the updates since the last commit, if there are any.
+     */
+    @Scheduled(fixedDelayString = "${pullman.github.search.commit-interval-seconds:60}", timeUnit = TimeUnit.SECONDS)
+    public void commit() {
+        if (writer == null || !uncommitted.getAndSet(false)) {
+            return;
+        }
+        try {
+            writer.commit();
+        } catch (IOException e) {
+            uncommitted.set(true);
+            logger.warn("error committing pull request index, retrying with the next commit", e);
+        }
+    }
+
+    /**
+     * @param repositoryName the repository to search in
+     * @param queryText the users query, supports the operators of {@link SimpleQueryParser} ('"', '+', '|', '-',
+     *                  '*' etc.) and never fails on malformed input
+     * @return the best matching pull requests, best first
+     */
+    public List<PullRequestSummary> search(RepositoryName repositoryName, String queryText) {
+        if (!properties.isEnabled() || queryText == null || queryText.isBlank()) {
+            return List.of();
+        }
+
+        final SimpleQueryParser parser = new SimpleQueryParser(analyzer, SEARCH_FIELDS);
+        parser.setDefaultOperator(BooleanClause.Occur.MUST);
+        final Query textQuery = parser.parse(queryText);
+        if (textQuery == null) {
+            return List.of();
+        }
+
+        final Query query = new BooleanQuery.Builder()
+            .add(textQuery, BooleanClause.Occur.MUST)
+            .add(new TermQuery(new Term(FIELD_REPOSITORY, repositoryKey(repositoryName))), BooleanClause.Occur.FILTER)
+            .build();
+
+        try {
+            final IndexSearcher searcher = searcherManager.acquire();
+            try {
+                final TopDocs topDocs = searcher.search(query, properties.getMaxResults());
+                final List<PullRequestSummary> hits = new ArrayList<>(topDocs.scoreDocs.length);
+                for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                    hits.add(toSummary(searcher.doc(scoreDoc.doc)));
+                }
+                return hits;
+            } finally {
+                searcherManager.release(searcher);
+            }
+        } catch (IOException e) {
+            throw new GitHubStorageException("error searching pull request index", e);
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        commit();
+        searcherManager.close();
+        writer.close();
+        directory.close();
+    }
+
+    private static Document toDocument(String key, String repository, PullRequest pullRequest) {
+        final PullRequestSummary summary = PullRequestSummary.of(pullRequest);
+
+        final Document document = new Document();
+        document.add(new StringField(FIELD_KEY, key, Field.Store.NO));
+        document.add(new StringField(FIELD_REPOSITORY, repository, Field.Store.NO));
+        document.add(new StoredField(FIELD_NUMBER, summary.number()));
+        addStored(document, FIELD_ID, summary.id());
+        addText(document, FIELD_TITLE, summary.title(), Field.Store.YES);
+        addText(document, FIELD_BODY, pullRequest.body(), Field.Store.NO);
+        addText(document, FIELD_AUTHOR, summary.authorLogin(), Field.Store.YES);
+        addText(document, FIELD_HEAD, summary.headLabel(), Field.Store.YES);
+        addText(document, FIELD_BASE, summary.baseLabel(), Field.Store.YES);
+        if (summary.authorEmail() != null) {
+            document.add(new StoredField(FIELD_AUTHOR_EMAIL, summary.authorEmail()));
+        }
+        if (summary.state() != null) {
+            document.add(new StoredField(FIELD_STATE, summary.state().name()));
+        }
+        if (summary.updatedAt() != null) {
+            document.add(new StoredField(FIELD_UPDATED_AT, summary.updatedAt().toEpochMilli()));
+        }
+        return document;
+    }
+
+    private static PullRequestSummary toSummary(Document document) {
+        final String state = document.get(FIELD_STATE);
+        final Number id = numericValue(document, FIELD_ID);
+        final Number updatedAt = numericValue(document, FIELD_UPDATED_AT);
+        return new PullRequestSummary(id != null ? id.longValue() : null,
+            numericValue(document, FIELD_NUMBER).longValue(),
+            document.get(FIELD_TITLE),
+            state != null ? PullRequest.State.valueOf(state) : null,
+            document.get(FIELD_AUTHOR),
+            document.get(FIELD_AUTHOR_EMAIL),
+            document.get(FIELD_HEAD),
+            document.get(FIELD_BASE),
+            updatedAt != null ? Instant.ofEpochMilli(updatedAt.longValue()) : null);
+    }
+
+    private static void addText(Document document, String name, String value, Field.Store store) {
+        if (value != null) {
+            document.add(new TextField(name, value, store));
+        }
+    }
+
+    private static void addStored(Document document, String name, Long value) {
+        if (value != null) {
+            document.add(new StoredField(name, value));
+        }
+    }
+
+    private static Number numericValue(Document document, String name) {
+        final IndexableField field = document.getField(name);
+        return field != null ? field.numericValue() : null;
+    }
+
+    private static String repositoryKey(RepositoryName repositoryName) {
+        return (repositoryName.owner() + "/" + repositoryName.repository()).toLowerCase(Locale.ROOT);
+    }
+
+}
@@ -7,6 +7,7 @@ import com.andreaseisele.pullmann.github.GitHubClient;
 import com.andreaseisele.pullmann.github.dto.User;
 import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
 import com.andreaseisele.pullmann.github.result.UserResult;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 import org.slf4j.Logger;
@@ -30,9 +31,11 @@ public class PatAuthenticationProvider implements AuthenticationProvider {
     private static final Logger logger = LoggerFactory.getLogger(PatAuthenticationProvider.class);
 
     private final GitHubClient gitHubClient;
+    private final PatValidationCache validationCache;
 
-    public PatAuthenticationProvider(GitHubClient gitHubClient) {
+    public PatAuthenticationProvider(GitHubClient gitHubClient, PatValidationCache validationCache) {
         this.gitHubClient = gitHubClient;
+        this.validationCache = validationCache;
     }
 
     @Override
@@ -46,9 +49,17 @@ public class PatAuthenticationProvider implements AuthenticationProvider {
 
         if (authentication instanceof UsernamePasswordAuthenticationToken token) {
             try {
+                final String credentials = GitHubClient.buildCredentials(token);
+                final Optional<PatValidationCache.Validation> cached = validationCache.lookup(credentials);
+                if (cached.isPresent()) {
+                    logger.debug("token validation for [{}] served from cache", token.getName());
+                    return createAuthentication(token, createUserDetails(cached.get(), (String) token.getCredentials()));
+                }
+
                 final UserResult result = gitHubClient.currentUserViaToken(token);
-                final GitHubUserDetails userDetails = createUserDetails(result);
-                return createAuthentication(token, userDetails);
+                final PatValidationCache.Validation validation = PatValidationCache.Validation.of(result);
+                validationCache.store(credentials, validation);
+                return createAuthentication(token, createUserDetails(validation, result.getAccessToken()));
             } catch (GitHubHttpStatusException hse) {
                 if (HttpStatus.UNAUTHORIZED.value() == hse.getHttpStatus()) {
                     throw new BadCredentialsException("invalid login", hse);
@@ -62,17 +73,17 @@ public class PatAuthenticationProvider implements AuthenticationProvider {
         throw new IllegalArgumentException("unsupported authentication type " + authentication);
     }
 
-    private static GitHubUserDetails createUserDetails(UserResult result) {
-        final User user = result.getUser();
-        final Set<SimpleGrantedAuthority> authorities = result.getScopes().stream()
+    private static GitHubUserDetails createUserDetails(PatValidationCache.Validation validation, String accessToken) {
+        final User user = validation.user();
+        final Set<SimpleGrantedAuthority> authorities = validation.scopes().stream()
             .map(SimpleGrantedAuthority::new)
             .collect(Collectors.toSet());
 
         return new GitHubUserDetails(
             user,
-            result.getAccessToken(),
+            accessToken,
             authorities,
-            result.getTokenExpiry()
+            validation.tokenExpiry()
         );
     }
 
@@ -0,0 +1,148 @@
+package com.andreaseisele.pullmann.security;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.GitHubUnauthorizedEvent;
+import com.andreaseisele.pullmann.github.dto.User;
+import com.andreaseisele.pullmann.github.result.UserResult;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.Set;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers successful personal access token validations so repeated logins don't need a GitHub round trip.
+ * <p>
+ * Entries are keyed by a salted hash (HMAC with a random key per process) of the credentials and never outlive
+ * the configured TTL or the tokens expiry. Any '401 Unauthorized' from GitHub for the same credentials removes
+ * the entry.
+ */
+@Component
+public class PatValidationCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PatValidationCache.class);
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final boolean enabled;
+    private final Duration ttl;
+    private final SecretKeySpec salt;
+    private final Cache<String, Validation> cache;
+
+    public PatValidationCache(GitHubProperties gitHubProperties) {
+        final GitHubProperties.LoginCacheProperties properties = gitHubProperties.getLoginCache();
+        this.enabled = properties.isEnabled();
+        this.ttl = Duration.ofSeconds(properties.getTtlSeconds());
+
+        final byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.salt = new SecretKeySpec(key, HMAC_ALGORITHM);
+
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .expireAfter(new ValidationExpiry())
+            .build();
+    }
+
+    /**
+     * @param credentials the Authorization header value for the login
+     * @return the cached validation, if any
+     */
+    public Optional<Validation> lookup(String credentials) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        return Optional.ofNullable(cache.getIfPresent(key(credentials)));
+    }
+
+    /**
+     * @param credentials the Authorization header value the validation was done with
+     * @param validation the successful validation
+     */
+    public void store(String credentials, Validation validation) {
+        if (!enabled) {
+            return;
+        }
+        final Duration ttl = timeToLive(validation);
+        if (ttl.isNegative() || ttl.isZero()) {
+            return;
+        }
+        cache.put(key(credentials), validation);
+    }
+
+    public void invalidate(String credentials) {
+        cache.invalidate(key(credentials));
+    }
+
+    @EventListener
+    public void onUnauthorized(GitHubUnauthorizedEvent event) {
+        if (event.credentials() == null) {
+            return;
+        }
+        logger.debug("invalidating token validation after {}", event);
+        invalidate(event.credentials());
+    }
+
+    private Duration timeToLive(Validation validation) {
+        if (validation.tokenExpiry() == null) {
+            return ttl;
+        }
+        // token expiry is reported in UTC
+        final Duration untilExpiry = Duration.between(LocalDateTime.now(ZoneOffset.UTC), validation.tokenExpiry());
+        return untilExpiry.compareTo(ttl) < 0 ? untilExpiry : ttl;
+    }
+
+    private String key(String credentials) {
+        try {
+            final Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(salt);
+            return HexFormat.of().formatHex(mac.doFinal(credentials.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(HMAC_ALGORITHM + " not available", e);
+        }
+    }
+
+    /**
+     * What is needed to rebuild the users details, deliberately without the access token itself.
+     */
+    public record Validation(User user, Set<String> scopes, LocalDateTime tokenExpiry) {
+
+        public static Validation of(UserResult result) {
+            return new Validation(result.getUser(), Set.copyOf(result.getScopes()), result.getTokenExpiry());
+        }
+
+    }
+
+    private class ValidationExpiry implements Expiry<String, Validation> {
+
+        @Override
+        public long expireAfterCreate(String key, Validation value, long currentTime) {
+            return Math.max(0, timeToLive(value).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Validation value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Validation value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
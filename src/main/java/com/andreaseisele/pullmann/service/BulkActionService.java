@@ -0,0 +1,331 @@
+package com.andreaseisele.pullmann.service;
+
+import com.andreaseisele.pullmann.bulk.BulkAction;
+import com.andreaseisele.pullmann.bulk.BulkItem;
+import com.andreaseisele.pullmann.bulk.BulkItemState;
+import com.andreaseisele.pullmann.bulk.BulkJob;
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import com.andreaseisele.pullmann.github.error.GitHubRateLimitException;
+import com.andreaseisele.pullmann.merge.MergeStatus;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.merge.MergeTicketState;
+import com.andreaseisele.pullmann.security.AuthenticationHolder;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Merges or closes many pull requests at once.
+ * <p>
+ * Each pull request is a task on the bounded bulk executor. The mutating calls of one user are paced to keep
+ * GitHubs secondary rate limits happy and wait for the rate limit budget if GitHub told us to back off. Merges go
+ * through the {@link MergeQueue}, so they are serialized with all other merges into the same repository and
+ * retried on conflicting heads. The bulk thread only queues a merge, the item completes with its ticket. Merges
+ * rejected by a full queue are reported as {@link BulkItemState#REJECTED} and can be retried as a new job. Progress
+ * is streamed to subscribed browsers per item.
+ */
+@Service
+public class BulkActionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkActionService.class);
+
+    private final GitHubClient gitHubClient;
+    private final MergeQueue mergeQueue;
+    private final AsyncTaskExecutor bulkActionExecutor;
+    private final PullRequestSync pullRequestSync;
+    private final GitHubProperties gitHubProperties;
+
+    private final Cache<String, BulkJob> jobs;
+    private final Cache<String, Pacer> pacers;
+    private final Map<String, Set<SseEmitter>> emittersByJob = new ConcurrentHashMap<>();
+
+    public BulkActionService(GitHubClient gitHubClient,
+                             MergeQueue mergeQueue,
+                             @Qualifier("bulkActionExecutor") AsyncTaskExecutor bulkActionExecutor,
+                             PullRequestSync pullRequestSync,
+                             GitHubProperties gitHubProperties) {
+        this.gitHubClient = gitHubClient;
+        this.mergeQueue = mergeQueue;
+        this.bulkActionExecutor = bulkActionExecutor;
+        this.pullRequestSync = pullRequestSync;
+        this.gitHubProperties = gitHubProperties;
+
+        final Duration retention = Duration.ofSeconds(gitHubProperties.getBulkAction().getRetentionSeconds());
+        this.jobs = Caffeine.newBuilder()
+            .expireAfterAccess(retention)
+            .build();
+        this.pacers = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    }
+
+    /**
+     * Start a new job for the current user.
+     * @param action what to do
+     * @param coordinates the pull requests
+     * @return the started job
+     * @throws ResponseStatusException with 400 if there are no or too many pull requests
+     */
+    public BulkJob start(BulkAction action, Set<PullRequestCoordinates> coordinates) {
+        final GitHubProperties.BulkActionProperties properties = gitHubProperties.getBulkAction();
+        if (coordinates.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "no pull requests selected");
+        }
+        if (coordinates.size() > properties.getMaxPullRequests()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "at most %d pull requests per bulk action".formatted(properties.getMaxPullRequests()));
+        }
+
+        final List<PullRequestCoordinates> ordered = coordinates.stream()
+            .sorted(Comparator.comparing((PullRequestCoordinates c) -> c.repositoryName().owner())
+                .thenComparing(c -> c.repositoryName().repository())
+                .thenComparingLong(PullRequestCoordinates::number))
+            .toList();
+        final BulkJob job = new BulkJob(UUID.randomUUID().toString(), currentUser(), action, ordered);
+        jobs.put(job.getId(), job);
+
+        logger.info("starting bulk {} of {} pull requests [{}]", action, ordered.size(), job.getId());
+        for (PullRequestCoordinates c : ordered) {
+            bulkActionExecutor.execute(() -> execute(job, c));
+        }
+        return job;
+    }
+
+    /**
+     * Start a new job for the pull requests of the given job that were rejected by a full merge queue.
+     * @param job the finished job
+     * @return the started job
+     * @throws ResponseStatusException with 400 if there is nothing to retry
+     */
+    public BulkJob retryRejected(BulkJob job) {
+        return start(job.getAction(), new LinkedHashSet<>(job.getRejected()));
+    }
+
+    /**
+     * @param id the job id
+     * @return the job, if it exists and was started by the current user
+     */
+    public Optional<BulkJob> find(String id) {
+        final BulkJob job = jobs.getIfPresent(id);
+        if (job == null || !job.getOwner().equals(currentUser())) {
+            return Optional.empty();
+        }
+        return Optional.of(job);
+    }
+
+    /**
+     * @param job the job to follow
+     * @return an emitter receiving the current state of every item right away and each change afterwards.
+     *         It gets completed once the job is finished.
+     */
+    public SseEmitter subscribe(BulkJob job) {
+        final SseEmitter emitter =
+            new SseEmitter(Duration.ofSeconds(gitHubProperties.getBulkAction().getRetentionSeconds()).toMillis());
+        final Set<SseEmitter> emitters = emittersByJob.computeIfAbsent(job.getId(), k -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+
+        final Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        // the page might have been rendered before some items changed
+        for (BulkItem item : job.getItems()) {
+            send(emitter, itemEvent(item));
+        }
+        if (job.isFinished()) {
+            emittersByJob.remove(job.getId());
+            send(emitter, doneEvent());
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    private void execute(BulkJob job, PullRequestCoordinates coordinates) {
+        final BulkItem running = new BulkItem(coordinates, BulkItemState.RUNNING, null);
+        job.update(running);
+        emit(job, itemEvent(running));
+
+        try {
+            switch (job.getAction()) {
+                case MERGE -> merge(job, running);
+                case CLOSE -> {
+                    final boolean closed = paced(job, () -> gitHubClient.close(coordinates));
+                    complete(job, running.withState(closed ? BulkItemState.SUCCEEDED : BulkItemState.FAILED, null));
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.warn("bulk {} of [{}] failed: {}", job.getAction(), coordinates, e.getMessage());
+            complete(job, running.withState(BulkItemState.FAILED, e.getMessage()));
+        }
+    }
+
+    /**
+     * Queue the merge and complete the item once its ticket is finished. The bulk thread does not wait for the
+     * merge, so merges serialized on one repository don't hold up the other items.
+     */
+    private void merge(BulkJob job, BulkItem running) {
+        final MergeTicket ticket;
+        try {
+            ticket = paced(job, () -> mergeQueue.enqueue(running.coordinates(), null));
+        } catch (ResponseStatusException e) {
+            if (e.getStatus() != HttpStatus.SERVICE_UNAVAILABLE) {
+                throw e;
+            }
+            logger.info("bulk merge of [{}] rejected: {}", running.coordinates(), e.getReason());
+            complete(job, running.withState(BulkItemState.REJECTED, "merge queue is full, please retry later"));
+            return;
+        }
+
+        ticket.finished().thenAccept(status -> complete(job, mergeResult(running, status)));
+    }
+
+    private static BulkItem mergeResult(BulkItem running, MergeStatus status) {
+        if (status.state() == MergeTicketState.MERGED) {
+            return running.withState(BulkItemState.SUCCEEDED, null);
+        }
+        return running.withState(BulkItemState.FAILED, status.message());
+    }
+
+    private void complete(BulkJob job, BulkItem result) {
+        final boolean finished = job.update(result);
+        emit(job, itemEvent(result));
+        if (finished) {
+            finish(job);
+        }
+    }
+
+    private void finish(BulkJob job) {
+        logger.info("bulk {} finished [{}]", job.getAction(), job.getId());
+        job.getRepositoryNames().forEach(pullRequestSync::markDue);
+
+        final Set<SseEmitter> emitters = emittersByJob.remove(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, doneEvent());
+            emitter.complete();
+        }
+    }
+
+    /**
+     * Run a mutating call once the users pacer and rate limit budget allow it.
+     */
+    private <T> T paced(BulkJob job, Supplier<T> call) {
+        final GitHubProperties.BulkActionProperties properties = gitHubProperties.getBulkAction();
+        final Pacer pacer = pacers.get(job.getOwner(), k -> new Pacer());
+        sleep(pacer.reserve(Duration.ofMillis(properties.getPacingMillis())));
+
+        final Instant now = Instant.now();
+        final Instant blockedUntil = gitHubClient.currentRateLimitBudget()
+            .map(budget -> budget.blockedUntil(now))
+            .orElse(null);
+        if (blockedUntil != null) {
+            final Duration wait = Duration.between(now, blockedUntil);
+            if (wait.compareTo(Duration.ofSeconds(properties.getMaxRateLimitWaitSeconds())) > 0) {
+                throw new GitHubRateLimitException("rate limit budget exhausted until " + blockedUntil, blockedUntil);
+            }
+            sleep(wait);
+        }
+
+        return call.get();
+    }
+
+    private void emit(BulkJob job, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        final Set<SseEmitter> emitters = emittersByJob.get(job.getId());
+        if (emitters == null) {
+            return;
+        }
+        for (SseEmitter emitter : emitters) {
+            send(emitter, event);
+        }
+    }
+
+    private static void send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            logger.warn("unable to send SSE bulk event {}", e.getMessage());
+            emitter.completeWithError(e);
+        } catch (IllegalStateException e) {
+            // completed concurrently by the finishing job
+            logger.debug("SSE bulk emitter already completed");
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> itemEvent(BulkItem item) {
+        return SseEmitter.event()
+            .id(UUID.randomUUID().toString())
+            .name("bulk-item")
+            .data(item, MediaType.APPLICATION_JSON)
+            .build();
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> doneEvent() {
+        return SseEmitter.event()
+            .id(UUID.randomUUID().toString())
+            .name("bulk-done")
+            .data("")
+            .build();
+    }
+
+    private static String currentUser() {
+        return CredentialFingerprints.of(GitHubClient.buildCredentials(AuthenticationHolder.currentAuthentication()));
+    }
+
+    private static void sleep(Duration duration) {
+        if (duration.isZero() || duration.isNegative()) {
+            return;
+        }
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubExecutionException("interrupted while pacing bulk action", e);
+        }
+    }
+
+    /**
+     * Hands out time slots at least one interval apart.
+     */
+    private static final class Pacer {
+
+        private long next = System.nanoTime();
+
+        synchronized Duration reserve(Duration interval) {
+            final long now = System.nanoTime();
+            final long slot = Math.max(now, next);
+            next = slot + interval.toNanos();
+            return Duration.ofNanos(slot - now);
+        }
+
+    }
+
+}
@@ -1,11 +1,16 @@
 package com.andreaseisele.pullmann.service;
 
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.download.DownloadScheduler;
 import com.andreaseisele.pullmann.download.DownloadState;
 import com.andreaseisele.pullmann.download.FileStore;
 import com.andreaseisele.pullmann.download.PullRequestDownload;
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
 import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.RequestPriority;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.security.AuthenticationHolder;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.util.Map;
@@ -13,11 +18,12 @@ import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
 import javax.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Qualifier;
-import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
@@ -28,44 +34,96 @@ public class DownloadService {
     private final Logger logger = LoggerFactory.getLogger(DownloadService.class);
 
     private final GitHubClient gitHubClient;
-    private final AsyncTaskExecutor pullRequestDownloadExecutor;
+    private final DownloadScheduler downloadScheduler;
     private final FileStore fileStore;
+    private final GitHubProperties gitHubProperties;
 
     private final Map<PullRequestDownload, DownloadState> downloads = new ConcurrentHashMap<>();
 
     private final Set<SseEmitter> eventEmitters = ConcurrentHashMap.newKeySet();
 
     public DownloadService(GitHubClient gitHubClient,
-                           @Qualifier("pullRequestDownloadExecutor") AsyncTaskExecutor pullRequestDownloadExecutor,
-                           FileStore fileStore) {
+                           DownloadScheduler downloadScheduler,
+                           FileStore fileStore,
+                           GitHubProperties gitHubProperties) {
         this.gitHubClient = gitHubClient;
-        this.pullRequestDownloadExecutor = pullRequestDownloadExecutor;
+        this.downloadScheduler = downloadScheduler;
         this.fileStore = fileStore;
+        this.gitHubProperties = gitHubProperties;
     }
 
     @PostConstruct
     public void init() {
         for (PullRequestDownload download : fileStore.findFinished()) {
             downloads.put(download, DownloadState.FINISHED);
+            // zips downloaded before sharing existed
+            fileStore.share(download);
         }
     }
 
+    /**
+     * Start downloading the zip of the pull requests current head for the current user.
+     * @param coordinates the pull request
+     * @throws TaskRejectedException if too many downloads are waiting already
+     */
     public void startDownload(PullRequestCoordinates coordinates) {
         final PullRequest pullRequest = gitHubClient.pullRequestDetails(coordinates);
-        final String headSha = pullRequest.head().sha();
+        start(new PullRequestDownload(coordinates, pullRequest.head().sha()), RequestPriority.INTERACTIVE);
+    }
 
-        final PullRequestDownload download = new PullRequestDownload(coordinates, headSha);
+    /**
+     * Download the zip of the given head in the background if prefetching is enabled, behind all downloads users
+     * asked for. Nothing happens if too many downloads are waiting.
+     * @param coordinates the pull request
+     * @param headSha the head sha to download
+     */
+    public void prefetch(PullRequestCoordinates coordinates, String headSha) {
+        if (!gitHubProperties.getDownload().isPrefetch()) {
+            return;
+        }
+        try {
+            start(new PullRequestDownload(coordinates, headSha), RequestPriority.BACKGROUND);
+        } catch (TaskRejectedException e) {
+            logger.debug("not prefetching [{}], too many downloads waiting", coordinates);
+        }
+    }
 
-        DownloadState state = downloads.computeIfAbsent(download, k -> {
-            pullRequestDownloadExecutor.submit(() -> executeDownload(download));
-            return DownloadState.RUNNING;
+    private void start(PullRequestDownload download, RequestPriority priority) {
+        final String user =
+            CredentialFingerprints.of(GitHubClient.buildCredentials(AuthenticationHolder.currentAuthentication()));
+
+        // failed downloads start again, resuming from what they left behind
+        final AtomicBoolean queued = new AtomicBoolean();
+        final AtomicReference<DownloadState> replaced = new AtomicReference<>();
+        final DownloadState state = downloads.compute(download, (k, previous) -> {
+            if (previous == null || previous == DownloadState.ERROR) {
+                queued.set(true);
+                replaced.set(previous);
+                return DownloadState.QUEUED;
+            }
+            return previous;
         });
 
+        // scheduling happens outside of compute, it must not run while the map entry is locked
+        if (queued.get()) {
+            try {
+                downloadScheduler.schedule(user,
+                    download.coordinates().repositoryName(),
+                    priority,
+                    () -> executeDownload(download));
+            } catch (TaskRejectedException e) {
+                if (replaced.get() == null) {
+                    downloads.remove(download, DownloadState.QUEUED);
+                } else {
+                    downloads.replace(download, DownloadState.QUEUED, replaced.get());
+                }
+                throw e;
+            }
+        }
+
         if (state == DownloadState.FINISHED) {
             logger.info("pull request download already done [{}]", download);
-        } else if (state == DownloadState.ERROR) {
-            logger.info("pull request download is in error state [{}]", download);
-        } else if (state == DownloadState.RUNNING) {
+        } else if (state == DownloadState.QUEUED || state == DownloadState.RUNNING) {
             emitEvent();
         }
     }
@@ -80,7 +138,7 @@ public class DownloadService {
 
     public void deleteZip(PullRequestDownload download) {
         downloads.computeIfPresent(download, (k, state) -> {
-            if (state != DownloadState.RUNNING) {
+            if (state != DownloadState.QUEUED && state != DownloadState.RUNNING) {
                 fileStore.deleteZip(download);
                 emitEvent();
                 return null;
@@ -96,12 +154,19 @@ public class DownloadService {
 
     private void executeDownload(PullRequestDownload pullRequestDownload) {
         logger.info("starting new pull request download [{}]", pullRequestDownload);
+        downloads.put(pullRequestDownload, DownloadState.RUNNING);
+        emitEvent();
 
         final Path target = fileStore.getForPullRequest(pullRequestDownload);
         try {
-            gitHubClient.downloadRepoContent(pullRequestDownload.coordinates().repositoryName(),
-                pullRequestDownload.headSha(),
-                target);
+            if (fileStore.linkShared(pullRequestDownload)) {
+                logger.info("reusing zip of head sha for [{}]", pullRequestDownload);
+            } else {
+                gitHubClient.downloadRepoContent(pullRequestDownload.coordinates().repositoryName(),
+                    pullRequestDownload.headSha(),
+                    target);
+                fileStore.share(pullRequestDownload);
+            }
 
             logger.debug("pull request download done for [{}]", pullRequestDownload);
             downloads.put(pullRequestDownload, DownloadState.FINISHED);
@@ -0,0 +1,307 @@
+package com.andreaseisele.pullmann.service;
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
+import com.andreaseisele.pullmann.github.result.MergeResult;
+import com.andreaseisele.pullmann.merge.MergeStatus;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.merge.MergeTicketState;
+import com.andreaseisele.pullmann.security.AuthenticationHolder;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Serializes merges per repository, merges into different repositories run in parallel.
+ * <p>
+ * GitHub answers a merge with '409 Conflict' if the head or base branch was modified concurrently, which is common
+ * when several people merge into a busy repository. Such merges are retried with the current head sha a bounded
+ * number of times. If the user saw a specific head sha the merge is only retried while the head still is that
+ * sha, so nobody merges commits they did not look at.
+ * <p>
+ * Position and outcome of each merge are streamed to the browser of the user who queued it.
+ */
+@Service
+public class MergeQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(MergeQueue.class);
+
+    private final GitHubClient gitHubClient;
+    private final AsyncTaskExecutor mergeQueueExecutor;
+    private final PullRequestSync pullRequestSync;
+    private final GitHubProperties gitHubProperties;
+
+    // guarded by itself, a repository has a queue as long as its first ticket is being merged
+    private final Map<String, Deque<MergeTicket>> queues = new HashMap<>();
+    private final Cache<String, MergeTicket> tickets;
+    private final Map<String, Set<SseEmitter>> emittersByTicket = new ConcurrentHashMap<>();
+
+    public MergeQueue(GitHubClient gitHubClient,
+                      @Qualifier("mergeQueueExecutor") AsyncTaskExecutor mergeQueueExecutor,
+                      PullRequestSync pullRequestSync,
+                      GitHubProperties gitHubProperties) {
+        this.gitHubClient = gitHubClient;
+        this.mergeQueueExecutor = mergeQueueExecutor;
+        this.pullRequestSync = pullRequestSync;
+        this.gitHubProperties = gitHubProperties;
+        this.tickets = Caffeine.newBuilder()
+            .expireAfterAccess(Duration.ofSeconds(gitHubProperties.getMergeQueue().getRetentionSeconds()))
+            .build();
+    }
+
+    /**
+     * Queue a merge on behalf of the current user.
+     * @param coordinates the pull request
+     * @param headSha the head sha the user saw, null to merge whatever the head is
+     * @return the ticket to follow the merge
+     * @throws ResponseStatusException with 503 if the repositories queue is full
+     */
+    public MergeTicket enqueue(PullRequestCoordinates coordinates, String headSha) {
+        final UsernamePasswordAuthenticationToken authentication = AuthenticationHolder.currentAuthentication();
+        final MergeTicket ticket = new MergeTicket(UUID.randomUUID().toString(),
+            fingerprint(authentication),
+            coordinates,
+            headSha,
+            authentication);
+
+        final String key = key(coordinates.repositoryName());
+        final boolean startWorker;
+        synchronized (queues) {
+            final Deque<MergeTicket> queue = queues.computeIfAbsent(key, k -> new ArrayDeque<>());
+            if (queue.size() >= gitHubProperties.getMergeQueue().getMaxQueueLength()) {
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "merge queue is full");
+            }
+            queue.addLast(ticket);
+            ticket.update(MergeTicketState.QUEUED, queue.size() - 1, null);
+            startWorker = queue.size() == 1;
+        }
+        tickets.put(ticket.getId(), ticket);
+
+        logger.info("queued merge of [{}] at position {}", coordinates, ticket.status().position());
+        if (startWorker) {
+            mergeQueueExecutor.execute(() -> drain(key));
+        }
+        return ticket;
+    }
+
+    /**
+     * @param id the ticket id
+     * @return the ticket, if it exists and was queued by the current user
+     */
+    public Optional<MergeTicket> find(String id) {
+        final MergeTicket ticket = tickets.getIfPresent(id);
+        if (ticket == null
+            || !ticket.getOwner().equals(fingerprint(AuthenticationHolder.currentAuthentication()))) {
+            return Optional.empty();
+        }
+        return Optional.of(ticket);
+    }
+
+    /**
+     * @param repositoryName the repository
+     * @return the number of merges queued for the repository, including the one being merged
+     */
+    int queueLength(RepositoryName repositoryName) {
+        synchronized (queues) {
+            final Deque<MergeTicket> queue = queues.get(key(repositoryName));
+            return queue != null ? queue.size() : 0;
+        }
+    }
+
+    /**
+     * @param ticket the ticket to follow
+     * @return an emitter receiving the current status right away and each change afterwards. It gets completed
+     *         once the merge is finished.
+     */
+    public SseEmitter subscribe(MergeTicket ticket) {
+        final SseEmitter emitter =
+            new SseEmitter(Duration.ofSeconds(gitHubProperties.getMergeQueue().getRetentionSeconds()).toMillis());
+        final Set<SseEmitter> emitters =
+            emittersByTicket.computeIfAbsent(ticket.getId(), k -> ConcurrentHashMap.newKeySet());
+        emitters.add(emitter);
+
+        final Runnable remove = () -> emitters.remove(emitter);
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+
+        final MergeStatus status = ticket.status();
+        send(emitter, statusEvent(status));
+        if (status.state().isFinished()) {
+            emittersByTicket.remove(ticket.getId());
+            emitter.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * Merge the tickets of one repository one after the other until its queue is empty.
+     */
+    private void drain(String key) {
+        while (true) {
+            final MergeTicket ticket;
+            synchronized (queues) {
+                ticket = queues.get(key).peekFirst();
+            }
+
+            process(ticket);
+
+            final List<MergeTicket> waiting;
+            synchronized (queues) {
+                final Deque<MergeTicket> queue = queues.get(key);
+                queue.removeFirst();
+                if (queue.isEmpty()) {
+                    queues.remove(key);
+                    return;
+                }
+                waiting = new ArrayList<>(queue);
+                for (int i = 0; i < waiting.size(); i++) {
+                    waiting.get(i).update(MergeTicketState.QUEUED, i, null);
+                }
+            }
+            waiting.forEach(this::emit);
+        }
+    }
+
+    private void process(MergeTicket ticket) {
+        ticket.update(MergeTicketState.MERGING, 0, null);
+        emit(ticket);
+
+        final SecurityContext previous = SecurityContextHolder.getContext();
+        final SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(ticket.getAuthentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            final MergeResult result = merge(ticket);
+            if (result.isSuccessful()) {
+                ticket.update(MergeTicketState.MERGED, 0, null);
+                pullRequestSync.markDue(ticket.getCoordinates().repositoryName());
+            } else {
+                final String message = result.getFailureStatus() != null
+                    ? "GitHub refused the merge with status " + result.getFailureStatus()
+                    : null;
+                ticket.update(MergeTicketState.FAILED, 0, message);
+            }
+        } catch (RuntimeException e) {
+            logger.warn("merge of [{}] failed: {}", ticket.getCoordinates(), e.getMessage());
+            ticket.update(MergeTicketState.FAILED, 0, e.getMessage());
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+
+        logger.info("merge of [{}] finished: {}", ticket.getCoordinates(), ticket.status().state());
+        final Set<SseEmitter> emitters = emittersByTicket.remove(ticket.getId());
+        if (emitters != null) {
+            final Set<ResponseBodyEmitter.DataWithMediaType> event = statusEvent(ticket.status());
+            for (SseEmitter emitter : emitters) {
+                send(emitter, event);
+                emitter.complete();
+            }
+        }
+    }
+
+    private MergeResult merge(MergeTicket ticket) {
+        final GitHubProperties.MergeQueueProperties properties = gitHubProperties.getMergeQueue();
+        final PullRequestCoordinates coordinates = ticket.getCoordinates();
+
+        String sha = ticket.getHeadSha() != null ? ticket.getHeadSha() : currentHeadSha(coordinates);
+        for (int attempt = 1; ; attempt++) {
+            final MergeResult result = gitHubClient.merge(coordinates, gitHubProperties.getMergeMessage(), sha);
+            if (!result.isConflict() || attempt >= properties.getMaxAttempts()) {
+                return result;
+            }
+
+            final String currentSha = currentHeadSha(coordinates);
+            if (ticket.getHeadSha() != null && !ticket.getHeadSha().equals(currentSha)) {
+                logger.info("head of [{}] moved since it was queued, not retrying the merge", coordinates);
+                return result;
+            }
+            logger.info("merge of [{}] conflicted in attempt {}, retrying", coordinates, attempt);
+            sha = currentSha;
+            sleep(Duration.ofMillis(properties.getRetryDelayMillis()));
+        }
+    }
+
+    private String currentHeadSha(PullRequestCoordinates coordinates) {
+        return gitHubClient.pullRequestDetails(coordinates).head().sha();
+    }
+
+    private void emit(MergeTicket ticket) {
+        final Set<SseEmitter> emitters = emittersByTicket.get(ticket.getId());
+        if (emitters == null) {
+            return;
+        }
+        final Set<ResponseBodyEmitter.DataWithMediaType> event = statusEvent(ticket.status());
+        for (SseEmitter emitter : emitters) {
+            send(emitter, event);
+        }
+    }
+
+    private static void send(SseEmitter emitter, Set<ResponseBodyEmitter.DataWithMediaType> event) {
+        try {
+            emitter.send(event);
+        } catch (IOException e) {
+            logger.warn("unable to send SSE merge queue event {}", e.getMessage());
+            emitter.completeWithError(e);
+        } catch (IllegalStateException e) {
+            // completed concurrently by the finished merge
+            logger.debug("SSE merge queue emitter already completed");
+        }
+    }
+
+    private static Set<ResponseBodyEmitter.DataWithMediaType> statusEvent(MergeStatus status) {
+        return SseEmitter.event()
+            .id(UUID.randomUUID().toString())
+            .name("merge-queue")
+            .data(status, MediaType.APPLICATION_JSON)
+            .build();
+    }
+
+    private static String fingerprint(UsernamePasswordAuthenticationToken authentication) {
+        return CredentialFingerprints.of(GitHubClient.buildCredentials(authentication));
+    }
+
+    private static String key(RepositoryName repositoryName) {
+        return (repositoryName.owner() + "/" + repositoryName.repository()).toLowerCase(Locale.ROOT);
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GitHubExecutionException("interrupted while waiting to retry a merge", e);
+        }
+    }
+
+}
@@ -1,46 +1,122 @@
 package com.andreaseisele.pullmann.service;
 
+import com.andreaseisele.pullmann.bulk.BulkAction;
+import com.andreaseisele.pullmann.bulk.BulkJob;
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
 import com.andreaseisele.pullmann.github.GitHubClient;
-import com.andreaseisele.pullmann.github.GitHubProperties;
-import com.andreaseisele.pullmann.github.dto.PullRequest;
-import com.andreaseisele.pullmann.github.result.MergeResult;
-import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.result.PullRequestDetailsResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.search.PullRequestIndex;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @Service
 public class PullRequestService {
 
     private final GitHubClient gitHubClient;
 
-    private final GitHubProperties gitHubProperties;
-
     private final DownloadService downloadService;
 
+    private final PullRequestSync pullRequestSync;
+
+    private final PullRequestIndex pullRequestIndex;
+
+    private final BulkActionService bulkActionService;
+
+    private final MergeQueue mergeQueue;
+
     public PullRequestService(GitHubClient gitHubClient,
-                              GitHubProperties gitHubProperties,
-                              DownloadService downloadService) {
+                              DownloadService downloadService,
+                              PullRequestSync pullRequestSync,
+                              PullRequestIndex pullRequestIndex,
+                              BulkActionService bulkActionService,
+                              MergeQueue mergeQueue) {
         this.gitHubClient = gitHubClient;
-        this.gitHubProperties = gitHubProperties;
         this.downloadService = downloadService;
+        this.pullRequestSync = pullRequestSync;
+        this.pullRequestIndex = pullRequestIndex;
+        this.bulkActionService = bulkActionService;
+        this.mergeQueue = mergeQueue;
+    }
+
+    /**
+     * A page of the repositories pull requests, served from the synchronized local copy.
+     * @param repositoryName the repository
+     * @param page the page to list
+     * @return the page
+     */
+    @PreAuthorize("isAuthenticated()")
+    public PullRequestSummaryResult requestsForRepo(RepositoryName repositoryName, int page) {
+        return pullRequestSync.page(repositoryName, page);
+    }
+
+    /**
+     * @param repositoryName the repository
+     * @return whether the current user can see pull requests of the repository
+     */
+    @PreAuthorize("isAuthenticated()")
+    public boolean isVisible(RepositoryName repositoryName) {
+        return pullRequestSync.isVisible(repositoryName);
+    }
+
+    /**
+     * Full-text search over the repositories pull requests.
+     * @param repositoryName the repository
+     * @param query the search query
+     * @return the best matching pull requests, best first
+     */
+    @PreAuthorize("isAuthenticated()")
+    public List<PullRequestSummary> search(RepositoryName repositoryName, String query) {
+        // the index is shared between users, the sync makes sure this user can see the repository
+        if (!pullRequestSync.isVisible(repositoryName)) {
+            return List.of();
+        }
+        return pullRequestIndex.search(repositoryName, query);
+    }
+
+    @PreAuthorize("isAuthenticated()")
+    public CompletableFuture<PullRequestDetailsResult> requestDetailsWithPermissionAsync(
+        PullRequestCoordinates coordinates) {
+        return gitHubClient.pullRequestDetailsWithPermissionAsync(coordinates);
     }
 
+    /**
+     * Queue the merge behind other merges into the same repository.
+     * @param coordinates the pull request
+     * @param headSha the head sha the user saw, conflicting merges are only retried while the head is unchanged.
+     *                If null the current head gets merged.
+     * @return the ticket to follow the merge
+     */
     @PreAuthorize("isAuthenticated()")
-    public PullRequestResult requestsForRepo(RepositoryName repositoryName, int page) {
-        return gitHubClient.pullRequestsForRepo(repositoryName, page);
+    public MergeTicket enqueueMerge(PullRequestCoordinates coordinates, String headSha) {
+        return mergeQueue.enqueue(coordinates, headSha);
     }
 
+    /**
+     * @param id the ticket id
+     * @return the ticket, if it was queued by the current user and is still known
+     */
     @PreAuthorize("isAuthenticated()")
-    public PullRequest requestDetails(PullRequestCoordinates coordinates) {
-        return gitHubClient.pullRequestDetails(coordinates);
+    public Optional<MergeTicket> findMergeTicket(String id) {
+        return mergeQueue.find(id);
     }
 
+    /**
+     * @param ticket the ticket to follow
+     * @return an emitter receiving the status of the merge
+     */
     @PreAuthorize("isAuthenticated()")
-    public MergeResult merge(PullRequestCoordinates coordinates) {
-        final PullRequest pullRequest = gitHubClient.pullRequestDetails(coordinates);
-        return gitHubClient.merge(coordinates, gitHubProperties.getMergeMessage(), pullRequest.head().sha());
+    public SseEmitter subscribeMergeTicket(MergeTicket ticket) {
+        return mergeQueue.subscribe(ticket);
     }
 
     @PreAuthorize("isAuthenticated()")
@@ -48,9 +124,58 @@ public class PullRequestService {
         return gitHubClient.close(coordinates);
     }
 
+    /**
+     * Merge or close all given pull requests in the background.
+     * @param action merge or close
+     * @param coordinates the pull requests
+     * @return the job to follow the progress
+     */
+    @PreAuthorize("isAuthenticated()")
+    public BulkJob startBulkAction(BulkAction action, Set<PullRequestCoordinates> coordinates) {
+        return bulkActionService.start(action, coordinates);
+    }
+
+    /**
+     * Retry the pull requests of a job that were rejected by a full merge queue.
+     * @param job the finished job
+     * @return the new job to follow the progress
+     */
+    @PreAuthorize("isAuthenticated()")
+    public BulkJob retryBulkJob(BulkJob job) {
+        return bulkActionService.retryRejected(job);
+    }
+
+    /**
+     * @param id the job id
+     * @return the job, if it was started by the current user and is still known
+     */
+    @PreAuthorize("isAuthenticated()")
+    public Optional<BulkJob> findBulkJob(String id) {
+        return bulkActionService.find(id);
+    }
+
+    /**
+     * @param job the job to follow
+     * @return an emitter receiving the progress of the job
+     */
+    @PreAuthorize("isAuthenticated()")
+    public SseEmitter subscribeBulkJob(BulkJob job) {
+        return bulkActionService.subscribe(job);
+    }
+
     @PreAuthorize("isAuthenticated()")
     public void startDownload(PullRequestCoordinates coordinates){
         downloadService.startDownload(coordinates);
     }
 
+    /**
+     * Download the zip of the head in the background, if prefetching is enabled.
+     * @param coordinates the pull request
+     * @param headSha the head sha to download
+     */
+    @PreAuthorize("isAuthenticated()")
+    public void prefetchDownload(PullRequestCoordinates coordinates, String headSha) {
+        downloadService.prefetch(coordinates, headSha);
+    }
+
 }
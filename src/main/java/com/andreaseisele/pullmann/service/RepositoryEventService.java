@@ -0,0 +1,103 @@
+package com.andreaseisele.pullmann.service;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.webhook.RepositoryChangedEvent;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Notifies browsers looking at a repository about changes GitHub pushed via webhook.
+ */
+@Service
+public class RepositoryEventService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryEventService.class);
+
+    private final GitHubProperties.WebhookProperties properties;
+
+    private final Map<String, Set<SseEmitter>> emittersByRepository = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    public RepositoryEventService(GitHubProperties gitHubProperties) {
+        this.properties = gitHubProperties.getWebhook();
+    }
+
+    /**
+     * @return whether there will be any events at all, which requires webhooks to be set up
+     */
+    public boolean isEnabled() {
+        return properties.isEnabled();
+    }
+
+    /**
+     * @param repositoryName the repository the browser looks at
+     * @return an emitter receiving an event per change, data is the pull request number or empty
+     * @throws ResponseStatusException with 503 if there are too many subscribers
+     */
+    public SseEmitter subscribe(RepositoryName repositoryName) {
+        if (subscribers.incrementAndGet() > properties.getMaxSubscribers()) {
+            subscribers.decrementAndGet();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "too many event subscribers");
+        }
+
+        final SseEmitter emitter = new SseEmitter(Duration.ofSeconds(properties.getSseTimeoutSeconds()).toMillis());
+        final String key = key(repositoryName);
+        emittersByRepository.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(emitter);
+
+        final Runnable remove = () -> {
+            emittersByRepository.computeIfPresent(key, (k, emitters) -> {
+                if (emitters.remove(emitter)) {
+                    subscribers.decrementAndGet();
+                }
+                return emitters.isEmpty() ? null : emitters;
+            });
+        };
+        emitter.onCompletion(remove);
+        emitter.onTimeout(remove);
+        emitter.onError(e -> remove.run());
+        return emitter;
+    }
+
+    @EventListener
+    public void onRepositoryChanged(RepositoryChangedEvent event) {
+        final Set<SseEmitter> emitters = emittersByRepository.get(key(event.repositoryName()));
+        if (emitters == null) {
+            return;
+        }
+
+        final Set<ResponseBodyEmitter.DataWithMediaType> sseEvent = SseEmitter.event()
+            .id(UUID.randomUUID().toString())
+            .name("repository-update")
+            .data(event.number() != null ? event.number().toString() : "")
+            .build();
+
+        for (final SseEmitter emitter : emitters) {
+            try {
+                emitter.send(sseEvent);
+            } catch (IOException e) {
+                logger.warn("unable to send SSE repository update event {}", e.getMessage());
+                emitter.completeWithError(e);
+            }
+        }
+    }
+
+    private static String key(RepositoryName repositoryName) {
+        return (repositoryName.owner() + "/" + repositoryName.repository()).toLowerCase(Locale.ROOT);
+    }
+
+}
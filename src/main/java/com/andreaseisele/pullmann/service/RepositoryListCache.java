@@ -0,0 +1,117 @@
+package com.andreaseisele.pullmann.service;
+
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.GitHubUnauthorizedEvent;
+import com.andreaseisele.pullmann.github.result.RepositoryResult;
+import com.andreaseisele.pullmann.security.AuthenticationHolder;
+import com.github.benmanes.caffeine.cache.AsyncLoadingCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stale-while-revalidate cache of the current users repository list pages.
+ * <p>
+ * Once a page is older than the refresh interval the next request still gets the cached page immediately while
+ * a single background refresh per user and page fetches a new one. Pages nobody asked for within the expiry
+ * are dropped, the number of pages is bounded.
+ */
+@Component
+public class RepositoryListCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(RepositoryListCache.class);
+
+    private final GitHubClient gitHubClient;
+    private final boolean enabled;
+    private final AsyncLoadingCache<Key, RepositoryResult> cache;
+
+    public RepositoryListCache(GitHubClient gitHubClient, GitHubProperties gitHubProperties) {
+        final GitHubProperties.RepositoryListCacheProperties properties = gitHubProperties.getRepositoryListCache();
+        this.gitHubClient = gitHubClient;
+        this.enabled = properties.isEnabled();
+        this.cache = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxEntries())
+            .refreshAfterWrite(Duration.ofSeconds(properties.getRefreshAfterSeconds()))
+            .expireAfterAccess(Duration.ofSeconds(properties.getExpireAfterSeconds()))
+            .buildAsync((key, executor) -> load(key));
+    }
+
+    /**
+     * @param page the page to get
+     * @return future of the page of the current user, completed right away if cached (even if stale)
+     */
+    public CompletableFuture<RepositoryResult> get(int page) {
+        if (!enabled) {
+            return gitHubClient.userReposAsync(page);
+        }
+        return cache.get(Key.of(AuthenticationHolder.currentAuthentication(), page));
+    }
+
+    @EventListener
+    public void onUnauthorized(GitHubUnauthorizedEvent event) {
+        if (event.credentials() == null) {
+            return;
+        }
+        final String fingerprint = CredentialFingerprints.of(event.credentials());
+        cache.synchronous().asMap().keySet().removeIf(key -> key.credentials().equals(fingerprint));
+    }
+
+    /**
+     * Drop all pages of the given user, e.g. when they were added to or removed from a repository.
+     * @param login the users GitHub login
+     */
+    public void invalidateUser(String login) {
+        cache.synchronous().asMap().keySet().removeIf(key -> key.authentication().getName().equalsIgnoreCase(login));
+    }
+
+    private CompletableFuture<RepositoryResult> load(Key key) {
+        logger.debug("loading repository list page {}", key.page());
+        // refreshes run outside of any request, so the client needs the users authentication explicitly
+        final SecurityContext previous = SecurityContextHolder.getContext();
+        final SecurityContext context = SecurityContextHolder.createEmptyContext();
+        context.setAuthentication(key.authentication());
+        SecurityContextHolder.setContext(context);
+        try {
+            return gitHubClient.userReposAsync(key.page());
+        } finally {
+            SecurityContextHolder.setContext(previous);
+        }
+    }
+
+    /**
+     * Identifies a page by credentials fingerprint, the authentication is only carried along for refreshes.
+     */
+    private record Key(String credentials, int page, UsernamePasswordAuthenticationToken authentication) {
+
+        static Key of(UsernamePasswordAuthenticationToken authentication, int page) {
+            return new Key(CredentialFingerprints.of(GitHubClient.buildCredentials(authentication)), page, authentication);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key other && page == other.page && credentials.equals(other.credentials);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(credentials, page);
+        }
+
+        @Override
+        public String toString() {
+            return "Key[credentials=" + credentials + ", page=" + page + "]";
+        }
+
+    }
+
+}
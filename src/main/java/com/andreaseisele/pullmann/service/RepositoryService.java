@@ -1,29 +1,27 @@
 package com.andreaseisele.pullmann.service;
 
-import com.andreaseisele.pullmann.domain.RepositoryName;
-import com.andreaseisele.pullmann.github.GitHubClient;
-import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
 import com.andreaseisele.pullmann.github.result.RepositoryResult;
+import java.util.concurrent.CompletableFuture;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 
 @Service
 public class RepositoryService {
 
-    private final GitHubClient gitHubClient;
+    private final RepositoryListCache repositoryListCache;
 
-    public RepositoryService(GitHubClient gitHubClient) {
-        this.gitHubClient = gitHubClient;
+    public RepositoryService(RepositoryListCache repositoryListCache) {
+        this.repositoryListCache = repositoryListCache;
     }
 
+    /**
+     * Non-blocking and cached listing of the current users repositories, may serve slightly stale pages.
+     * @param page the page to list
+     * @return future of the page
+     */
     @PreAuthorize("isAuthenticated()")
-    public RepositoryResult listRepositories(int page) {
-        return gitHubClient.userRepos(page);
-    }
-
-    @PreAuthorize("isAuthenticated()")
-    public RepositoryPermission permissionForRepository(RepositoryName repositoryName) {
-        return gitHubClient.usersRepositoryPermission(repositoryName);
+    public CompletableFuture<RepositoryResult> listRepositoriesAsync(int page) {
+        return repositoryListCache.get(page);
     }
 
 }
@@ -0,0 +1,135 @@
+package com.andreaseisele.pullmann.sync;
+
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Local copy of all pull requests of one repository as seen by one user.
+ * <p>
+ * Updates are applied by {@link PullRequestSync} while holding this snapshots monitor, reads of
+ * {@link #pullRequests()} never block.
+ */
+class PullRequestSnapshot {
+
+    private static final Comparator<PullRequestSummary> NEWEST_FIRST =
+        Comparator.comparing(PullRequestSummary::number, Comparator.nullsLast(Comparator.reverseOrder()));
+
+    private final Map<Long, PullRequestSummary> byNumber = new HashMap<>();
+
+    private Instant watermark;
+    private Instant lastSync;
+    private boolean backfilled;
+    private boolean backfilling;
+
+    private volatile List<PullRequestSummary> pullRequests = List.of();
+
+    /**
+     * @return all pull requests, newest first like GitHubs own listing
+     */
+    List<PullRequestSummary> pullRequests() {
+        return pullRequests;
+    }
+
+    /**
+     * @return the most recent 'updated_at' seen so far, null before the first sync
+     */
+    Instant watermark() {
+        return watermark;
+    }
+
+    /**
+     * @return whether the initial sync of all pull requests finished, until then the copy is not complete
+     */
+    boolean isBackfilled() {
+        return backfilled;
+    }
+
+    /**
+     * @return true if the caller should run the initial sync, false if it is running or already done
+     */
+    boolean startBackfill() {
+        if (backfilled || backfilling) {
+            return false;
+        }
+        backfilling = true;
+        return true;
+    }
+
+    /**
+     * @param pullRequests all pull requests of the repository
+     * @param syncedAt when the initial sync started
+     */
+    void finishBackfill(Collection<PullRequestSummary> pullRequests, Instant syncedAt) {
+        apply(pullRequests, syncedAt);
+        backfilling = false;
+        backfilled = true;
+    }
+
+    /**
+     * The initial sync failed, the next access starts it again.
+     */
+    void abortBackfill() {
+        backfilling = false;
+    }
+
+    boolean isSyncDue(Instant now, long intervalSeconds) {
+        return lastSync == null || !lastSync.plusSeconds(intervalSeconds).isAfter(now);
+    }
+
+    /**
+     * Force the next access to sync.
+     */
+    void markDue() {
+        lastSync = null;
+    }
+
+    /**
+     * Replace a single pull request without moving the watermark, see {@link PullRequestSync#push}.
+     * @param pullRequest the current state of the pull request
+     */
+    void upsert(PullRequestSummary pullRequest) {
+        if (pullRequest.number() == null) {
+            return;
+        }
+        byNumber.put(pullRequest.number(), pullRequest);
+        pullRequests = byNumber.values().stream().sorted(NEWEST_FIRST).toList();
+    }
+
+    /**
+     * Drop everything, the next access starts over with an initial sync.
+     */
+    void clear() {
+        byNumber.clear();
+        watermark = null;
+        backfilled = false;
+        pullRequests = List.of();
+    }
+
+    /**
+     * @param changed pull requests updated since the last sync, replacing their previous state
+     * @param syncedAt when the sync started
+     */
+    void apply(Collection<PullRequestSummary> changed, Instant syncedAt) {
+        for (PullRequestSummary pullRequest : changed) {
+            if (pullRequest.number() == null) {
+                continue;
+            }
+            byNumber.put(pullRequest.number(), pullRequest);
+            final Instant updatedAt = pullRequest.updatedAt();
+            if (updatedAt != null && (watermark == null || updatedAt.isAfter(watermark))) {
+                watermark = updatedAt;
+            }
+        }
+        lastSync = syncedAt;
+
+        if (!changed.isEmpty()) {
+            pullRequests = byNumber.values().stream().sorted(NEWEST_FIRST).toList();
+        }
+    }
+
+}
@@ -0,0 +1,280 @@
+package com.andreaseisele.pullmann.sync;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.CredentialFingerprints;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.GitHubUnauthorizedEvent;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.error.GitHubAuthenticationException;
+import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import com.andreaseisele.pullmann.github.error.GitHubException;
+import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
+import com.andreaseisele.pullmann.search.PullRequestIndex;
+import com.andreaseisele.pullmann.security.AuthenticationHolder;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps a local copy of the pull requests of every repository a user looks at.
+ * <p>
+ * The first sync of a repository fetches all of its pull requests. It runs in the background, until it is done
+ * pages are requested from GitHub directly, so the first visit of a large repository costs no more than a page.
+ * Afterwards only pull requests updated since the last seen 'updated_at' are requested: GitHub lists them most
+ * recently updated first, so paging stops at the first already known update. A refresh therefore costs requests
+ * proportional to the changed pull requests instead of all of them, and mostly a single conditional request
+ * answered with '304 Not Modified'.
+ * <p>
+ * Changed pull requests are fed into the {@link PullRequestIndex} page by page, only their lean
+ * {@link PullRequestSummary} projections are kept.
+ */
+@Component
+public class PullRequestSync {
+
+    /**
+     * Page size of the local listing, same as GitHubs default.
+     */
+    static final int PAGE_SIZE = 30;
+
+    private static final Logger logger = LoggerFactory.getLogger(PullRequestSync.class);
+
+    private final GitHubClient gitHubClient;
+    private final PullRequestIndex pullRequestIndex;
+    private final AsyncTaskExecutor pullRequestSyncExecutor;
+    private final GitHubProperties.PullRequestSyncProperties properties;
+    private final Cache<Key, PullRequestSnapshot> snapshots;
+
+    public PullRequestSync(GitHubClient gitHubClient,
+                           PullRequestIndex pullRequestIndex,
+                           @Qualifier("pullRequestSyncExecutor") AsyncTaskExecutor pullRequestSyncExecutor,
+                           GitHubProperties gitHubProperties) {
+        this.gitHubClient = gitHubClient;
+        this.pullRequestIndex = pullRequestIndex;
+        this.pullRequestSyncExecutor = pullRequestSyncExecutor;
+        this.properties = gitHubProperties.getPullRequestSync();
+        this.snapshots = Caffeine.newBuilder()
+            .maximumSize(properties.getMaxRepositories())
+            .expireAfterAccess(Duration.ofSeconds(properties.getExpireAfterSeconds()))
+            .build();
+    }
+
+    /**
+     * A page of the repositories pull requests for the current user, newest first. Synchronizes the local copy
+     * first if it is older than the configured interval, or starts the initial sync and asks GitHub for the page.
+     * @param repositoryName the repository
+     * @param page the page to get
+     * @return the page
+     */
+    public PullRequestSummaryResult page(RepositoryName repositoryName, int page) {
+        if (!properties.isEnabled()) {
+            return gitHubClient.pullRequestSummariesForRepo(repositoryName, page);
+        }
+
+        final PullRequestSnapshot snapshot = sync(repositoryName);
+        if (!snapshot.isBackfilled()) {
+            return gitHubClient.pullRequestSummariesForRepo(repositoryName, page);
+        }
+        final List<PullRequestSummary> pullRequests = snapshot.pullRequests();
+        final int maxPages = Math.max(1, (pullRequests.size() + PAGE_SIZE - 1) / PAGE_SIZE);
+        final int from = Math.min((page - 1) * PAGE_SIZE, pullRequests.size());
+        final int to = Math.min(from + PAGE_SIZE, pullRequests.size());
+        return PullRequestSummaryResult.of(pullRequests.subList(from, to), page, maxPages);
+    }
+
+    /**
+     * Whether the current user sees any pull requests in the repository. Synchronizes the local copy first if
+     * due, so this mostly needs no call to GitHub.
+     * @param repositoryName the repository
+     * @return true if the repository exists, is visible to the user and has pull requests
+     */
+    public boolean isVisible(RepositoryName repositoryName) {
+        if (!properties.isEnabled()) {
+            return !gitHubClient.pullRequestSummariesForRepo(repositoryName, 1).getList().isEmpty();
+        }
+        final PullRequestSnapshot snapshot = sync(repositoryName);
+        if (!snapshot.isBackfilled()) {
+            return !gitHubClient.pullRequestSummariesForRepo(repositoryName, 1).getList().isEmpty();
+        }
+        return !snapshot.pullRequests().isEmpty();
+    }
+
+    /**
+     * Apply a pull request pushed by GitHub (e.g. via webhook) to the local copies of all users that already
+     * synced its repository, they are known to have access. The watermark is left alone so the next regular
+     * sync still picks up changes that were not pushed.
+     * @param repositoryName the repository
+     * @param pullRequest the current state of the pull request
+     */
+    public void push(RepositoryName repositoryName, PullRequest pullRequest) {
+        final PullRequestSummary summary = PullRequestSummary.of(pullRequest);
+        forEachSnapshot(repositoryName, snapshot -> snapshot.upsert(summary));
+        pullRequestIndex.update(repositoryName, List.of(pullRequest));
+    }
+
+    /**
+     * Make the next access to the repository sync again, for every user.
+     * @param repositoryName the repository
+     */
+    public void markDue(RepositoryName repositoryName) {
+        forEachSnapshot(repositoryName, PullRequestSnapshot::markDue);
+    }
+
+    @EventListener
+    public void onUnauthorized(GitHubUnauthorizedEvent event) {
+        if (event.credentials() == null) {
+            return;
+        }
+        final String fingerprint = CredentialFingerprints.of(event.credentials());
+        snapshots.asMap().keySet().removeIf(key -> key.credentials().equals(fingerprint));
+    }
+
+    private PullRequestSnapshot sync(RepositoryName repositoryName) {
+        final String credentials = GitHubClient.buildCredentials(AuthenticationHolder.currentAuthentication());
+        final PullRequestSnapshot snapshot = snapshots.get(Key.of(credentials, repositoryName),
+            key -> new PullRequestSnapshot());
+
+        // concurrent requests for the same repository wait for one sync instead of running their own
+        synchronized (snapshot) {
+            if (!snapshot.isBackfilled()) {
+                if (snapshot.startBackfill()) {
+                    startBackfill(repositoryName, snapshot);
+                }
+                return snapshot;
+            }
+
+            final Instant now = Instant.now();
+            if (!snapshot.isSyncDue(now, properties.getIntervalSeconds())) {
+                return snapshot;
+            }
+
+            try {
+                final List<PullRequestSummary> changed = fetchChanged(repositoryName, snapshot.watermark());
+                if (changed.isEmpty() && snapshot.watermark() != null) {
+                    // at least the pull request at the watermark is always listed again, pull requests can't be
+                    // deleted so the repository is gone or no longer visible to the user
+                    logger.info("repository {} no longer lists any pull requests, dropping local copy", repositoryName);
+                    snapshot.clear();
+                }
+                snapshot.apply(changed, now);
+                logger.debug("synced {} changed pull requests of {}", changed.size(), repositoryName);
+            } catch (GitHubException e) {
+                // never hand out a local copy to credentials GitHub no longer accepts
+                if (snapshot.watermark() == null || isAuthenticationFailure(e)) {
+                    throw e;
+                }
+                logger.warn("unable to sync pull requests of {}, serving last known state", repositoryName, e);
+            }
+        }
+        return snapshot;
+    }
+
+    private void startBackfill(RepositoryName repositoryName, PullRequestSnapshot snapshot) {
+        try {
+            pullRequestSyncExecutor.execute(() -> backfill(repositoryName, snapshot));
+        } catch (TaskRejectedException e) {
+            logger.warn("too many initial syncs running, not syncing {} yet", repositoryName);
+            snapshot.abortBackfill();
+        }
+    }
+
+    private void backfill(RepositoryName repositoryName, PullRequestSnapshot snapshot) {
+        final Instant startedAt = Instant.now();
+        try {
+            final List<PullRequestSummary> pullRequests = fetchChanged(repositoryName, null);
+            synchronized (snapshot) {
+                snapshot.finishBackfill(pullRequests, startedAt);
+            }
+            logger.debug("initial sync of {} fetched {} pull requests", repositoryName, pullRequests.size());
+        } catch (RuntimeException e) {
+            logger.warn("initial sync of {} failed, retrying on next access", repositoryName, e);
+            synchronized (snapshot) {
+                snapshot.abortBackfill();
+            }
+        }
+    }
+
+    private void forEachSnapshot(RepositoryName repositoryName, Consumer<PullRequestSnapshot> action) {
+        snapshots.asMap().forEach((key, snapshot) -> {
+            if (key.isFor(repositoryName)) {
+                synchronized (snapshot) {
+                    action.accept(snapshot);
+                }
+            }
+        });
+    }
+
+    /**
+     * Pull requests updated since the watermark, all of them if it is null. Each page is indexed right away, so
+     * only one page of full pull requests is held at a time.
+     */
+    private List<PullRequestSummary> fetchChanged(RepositoryName repositoryName, Instant watermark) {
+        final List<PullRequestSummary> changed = new ArrayList<>();
+        int page = 1;
+        while (true) {
+            final PullRequestResult result =
+                gitHubClient.pullRequestsByUpdated(repositoryName, page, properties.getPerPage());
+            final List<PullRequest> pagePullRequests = new ArrayList<>(result.getList().size());
+            boolean reachedWatermark = false;
+            boolean passedWatermark = false;
+            for (PullRequest pullRequest : result.getList()) {
+                final Instant updatedAt = pullRequest.updatedAt();
+                if (watermark != null && updatedAt != null && !updatedAt.isAfter(watermark)) {
+                    // 'updated_at' only has second precision, updates within the watermarks second are taken again
+                    if (updatedAt.isBefore(watermark)) {
+                        passedWatermark = true;
+                        break;
+                    }
+                    reachedWatermark = true;
+                }
+                pagePullRequests.add(pullRequest);
+            }
+            pullRequestIndex.update(repositoryName, pagePullRequests);
+            pagePullRequests.forEach(pullRequest -> changed.add(PullRequestSummary.of(pullRequest)));
+            if (passedWatermark || reachedWatermark || !result.hasNext()) {
+                return changed;
+            }
+            page = result.getNextPage().orElse(page + 1);
+        }
+    }
+
+    private static boolean isAuthenticationFailure(GitHubException e) {
+        return e instanceof GitHubAuthenticationException
+            || e instanceof GitHubHttpStatusException statusException
+            && statusException.getHttpStatus() == HttpStatus.UNAUTHORIZED.value();
+    }
+
+    /**
+     * Repository as seen by one set of credentials, users never share snapshots since their access may differ.
+     */
+    private record Key(String credentials, String owner, String repository) {
+
+        static Key of(String credentials, RepositoryName repositoryName) {
+            return new Key(CredentialFingerprints.of(credentials),
+                repositoryName.owner().toLowerCase(Locale.ROOT),
+                repositoryName.repository().toLowerCase(Locale.ROOT));
+        }
+
+        boolean isFor(RepositoryName repositoryName) {
+            return owner.equalsIgnoreCase(repositoryName.owner())
+                && repository.equalsIgnoreCase(repositoryName.repository());
+        }
+
+    }
+
+}
@@ -4,24 +4,22 @@ import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
 import com.andreaseisele.pullmann.download.DownloadState;
 import com.andreaseisele.pullmann.download.PullRequestDownload;
+import com.andreaseisele.pullmann.download.ZipResponses;
 import com.andreaseisele.pullmann.service.DownloadService;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Map;
 import java.util.Optional;
-import org.springframework.core.io.PathResource;
-import org.springframework.http.ContentDisposition;
-import org.springframework.http.HttpHeaders;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import org.springframework.http.HttpStatus;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.server.ResponseStatusException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
@@ -36,18 +34,21 @@ public class DownloadController {
     }
 
     @GetMapping
-    public String list(Model model) {
+    public String list(@RequestParam(value = "rejected", required = false) Boolean rejected, Model model) {
         final Map<PullRequestDownload, DownloadState> downloads = downloadService.getDownloads();
         model.addAttribute("downloads", downloads);
+        model.addAttribute("rejected", rejected);
 
         return "downloads";
     }
 
     @GetMapping("/zip/{owner}/{repo}/{number}/{headSha}")
-    public ResponseEntity<PathResource> downloadZip(@PathVariable("owner") String owner,
-                                                    @PathVariable("repo") String repo,
-                                                    @PathVariable("number") Long number,
-                                                    @PathVariable("headSha") String headSha) throws IOException {
+    public void downloadZip(@PathVariable("owner") String owner,
+                            @PathVariable("repo") String repo,
+                            @PathVariable("number") Long number,
+                            @PathVariable("headSha") String headSha,
+                            HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
 
         final RepositoryName repositoryName = new RepositoryName(owner, repo);
         final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, number);
@@ -58,16 +59,7 @@ public class DownloadController {
             throw new ResponseStatusException(HttpStatus.INTERNAL_SERVER_ERROR, "unable to find pull request zip");
         }
 
-        final ContentDisposition contentDisposition = ContentDisposition.attachment()
-            .filename(zip.get().getFileName().toString())
-            .build();
-
-        final HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(new MediaType("application", "zip"));
-        headers.setContentDisposition(contentDisposition);
-        headers.setContentLength(Files.size(zip.get()));
-
-        return new ResponseEntity<>(new PathResource(zip.get()), headers, HttpStatus.OK);
+        ZipResponses.write(request, response, zip.get(), headSha);
     }
 
     @PostMapping("/delete/{owner}/{repo}/{number}/{headSha}")
@@ -1,7 +1,13 @@
 package com.andreaseisele.pullmann.web;
 
+import com.andreaseisele.pullmann.github.error.GitHubCircuitOpenException;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.Map;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.ConstraintViolationException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -16,4 +22,12 @@ public class ErrorHandler {
         return new ModelAndView("validation-error", model, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler
+    public void handleCircuitOpen(GitHubCircuitOpenException exception, HttpServletResponse response)
+        throws IOException {
+        final long seconds = Math.max(1, Duration.between(Instant.now(), exception.getRetryAt()).toSeconds());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(seconds));
+        response.sendError(HttpStatus.SERVICE_UNAVAILABLE.value(), "GitHub is currently unavailable, please retry later");
+    }
+
 }
@@ -1,7 +1,7 @@
 package com.andreaseisele.pullmann.web;
 
-import com.andreaseisele.pullmann.github.result.RepositoryResult;
 import com.andreaseisele.pullmann.service.RepositoryService;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.constraints.Positive;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -22,16 +22,17 @@ public class IndexController {
     }
 
     @GetMapping
-    public String index(@Positive @RequestParam(value = "page", required = false, defaultValue = "1") Integer page,
-                        Model model) {
+    public CompletableFuture<String> index(@Positive @RequestParam(value = "page", required = false, defaultValue = "1") Integer page,
+                                           Model model) {
 
-        final RepositoryResult result = repositoryService.listRepositories(page);
+        return repositoryService.listRepositoriesAsync(page)
+            .thenApply(result -> {
+                model.addAttribute("repositories", result.getList());
+                model.addAttribute("page", result.getPage());
+                model.addAttribute("maxPages", result.getMaxPages());
 
-        model.addAttribute("repositories", result.getList());
-        model.addAttribute("page", result.getPage());
-        model.addAttribute("maxPages", result.getMaxPages());
-
-        return "index";
+                return "index";
+            });
     }
 
 }
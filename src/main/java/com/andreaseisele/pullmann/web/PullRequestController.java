@@ -1,16 +1,26 @@
 package com.andreaseisele.pullmann.web;
 
+import com.andreaseisele.pullmann.bulk.BulkAction;
+import com.andreaseisele.pullmann.bulk.BulkJob;
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
 import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
-import com.andreaseisele.pullmann.github.result.MergeResult;
-import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
+import com.andreaseisele.pullmann.merge.MergeStatus;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.merge.MergeTicketState;
 import com.andreaseisele.pullmann.service.PullRequestService;
-import com.andreaseisele.pullmann.service.RepositoryService;
+import com.andreaseisele.pullmann.service.RepositoryEventService;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import javax.validation.constraints.Pattern;
 import javax.validation.constraints.Positive;
+import javax.validation.constraints.Size;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -21,6 +31,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import org.springframework.web.servlet.view.RedirectView;
 
@@ -31,17 +42,19 @@ public class PullRequestController {
 
     private final PullRequestService pullRequestService;
 
-    private final RepositoryService repositoryService;
+    private final RepositoryEventService repositoryEventService;
 
-    public PullRequestController(PullRequestService pullRequestService, RepositoryService repositoryService) {
+    public PullRequestController(PullRequestService pullRequestService,
+                                 RepositoryEventService repositoryEventService) {
         this.pullRequestService = pullRequestService;
-        this.repositoryService = repositoryService;
+        this.repositoryEventService = repositoryEventService;
     }
 
     @GetMapping
     public String pullsForRepo(
         @RequestParam(required = false) @Pattern(regexp = RepositoryName.REGEX_REPO_FULL_NAME) String repoFullName,
         @RequestParam(required = false, defaultValue = "1") @Positive Integer page,
+        @RequestParam(required = false) @Size(max = 256) String query,
         Model model) {
 
         if (repoFullName != null && !repoFullName.isBlank()) {
@@ -51,65 +64,111 @@ public class PullRequestController {
             }
             final RepositoryName repositoryName = maybeRepositoryName.get();
 
-            final PullRequestResult result = pullRequestService.requestsForRepo(repositoryName, page);
             model.addAttribute("repoFullName", repoFullName);
             model.addAttribute("owner", repositoryName.owner());
             model.addAttribute("repo", repositoryName.repository());
-            model.addAttribute("pulls", result.getList());
-            model.addAttribute("page", result.getPage());
-            model.addAttribute("maxPages", result.getMaxPages());
+            model.addAttribute("liveUpdates", repositoryEventService.isEnabled());
+
+            if (query != null && !query.isBlank()) {
+                model.addAttribute("query", query);
+                model.addAttribute("pulls", pullRequestService.search(repositoryName, query));
+            } else {
+                final PullRequestSummaryResult result = pullRequestService.requestsForRepo(repositoryName, page);
+                model.addAttribute("pulls", result.getList());
+                model.addAttribute("page", result.getPage());
+                model.addAttribute("maxPages", result.getMaxPages());
+            }
         }
 
         return "pulls";
     }
 
+    @GetMapping("/events/{owner}/{repo}")
+    public SseEmitter events(@PathVariable("owner") String owner, @PathVariable("repo") String repo) {
+        final RepositoryName repositoryName = new RepositoryName(owner, repo);
+        if (!pullRequestService.isVisible(repositoryName)) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown repository");
+        }
+        return repositoryEventService.subscribe(repositoryName);
+    }
+
     @GetMapping("/details/{owner}/{repo}/{number}")
-    public String details(@PathVariable("owner") String owner,
-                          @PathVariable("repo") String repo,
-                          @PathVariable("number") Long number,
-                          @RequestParam(value = "merged", required = false) Boolean merged,
-                          @RequestParam(value = "closed", required = false) Boolean closed,
-                          Model model) {
+    public CompletableFuture<String> details(@PathVariable("owner") String owner,
+                                             @PathVariable("repo") String repo,
+                                             @PathVariable("number") Long number,
+                                             @RequestParam(value = "merged", required = false) Boolean merged,
+                                             @RequestParam(value = "closed", required = false) Boolean closed,
+                                             @RequestParam(value = "mergeTicket", required = false) String mergeTicket,
+                                             Model model) {
         final PullRequestCoordinates coordinates = buildCoordinates(owner, repo, number);
-        final PullRequest pullRequest = pullRequestService.requestDetails(coordinates);
-
-        model.addAttribute("pr", pullRequest);
-        model.addAttribute("canMerge", Boolean.TRUE.equals(pullRequest.mergeable())
-            && pullRequest.state() != PullRequest.State.CLOSED);
-        model.addAttribute("owner", owner);
-        model.addAttribute("repo", repo);
-
-        final RepositoryPermission permission = repositoryService.permissionForRepository(coordinates.repositoryName());
-        model.addAttribute("repoPermission", permission);
-        final boolean writeAllowed = permission.permission() == RepositoryPermission.Permission.ADMIN
-            || permission.permission() == RepositoryPermission.Permission.WRITE;
-        model.addAttribute("writeAllowed", writeAllowed);
-
-        if (merged != null) {
-            model.addAttribute("merged", merged);
-        }
-        if (closed != null) {
-            model.addAttribute("closed", closed);
-        }
+        final Optional<MergeTicket> ticket = mergeTicket != null
+            ? pullRequestService.findMergeTicket(mergeTicket)
+            : Optional.empty();
+
+        // doesn't block the request thread
+        return pullRequestService.requestDetailsWithPermissionAsync(coordinates).thenApply(details -> {
+            final PullRequest pullRequest = details.getPullRequest();
+            final RepositoryPermission permission = details.getPermission();
+
+            model.addAttribute("pr", pullRequest);
+            model.addAttribute("canMerge", Boolean.TRUE.equals(pullRequest.mergeable())
+                && pullRequest.state() != PullRequest.State.CLOSED);
+            model.addAttribute("owner", owner);
+            model.addAttribute("repo", repo);
+            model.addAttribute("liveUpdates", repositoryEventService.isEnabled());
+
+            model.addAttribute("repoPermission", permission);
+            final boolean writeAllowed = permission.permission() == RepositoryPermission.Permission.ADMIN
+                || permission.permission() == RepositoryPermission.Permission.WRITE;
+            model.addAttribute("writeAllowed", writeAllowed);
+
+            // those who can merge are the ones likely to download the zip next
+            if (writeAllowed && pullRequest.state() == PullRequest.State.OPEN && pullRequest.head() != null) {
+                pullRequestService.prefetchDownload(coordinates, pullRequest.head().sha());
+            }
 
-        return "prDetails";
+            if (merged != null) {
+                model.addAttribute("merged", merged);
+            }
+            if (closed != null) {
+                model.addAttribute("closed", closed);
+            }
+            ticket.ifPresent(t -> {
+                final MergeStatus status = t.status();
+                if (status.state().isFinished()) {
+                    model.addAttribute("merged", status.state() == MergeTicketState.MERGED);
+                } else {
+                    model.addAttribute("mergeTicket", t.getId());
+                    model.addAttribute("mergeStatus", status);
+                }
+            });
+
+            return "prDetails";
+        });
     }
 
     @PostMapping("/merge/{owner}/{repo}/{number}")
     public RedirectView merge(@PathVariable("owner") String owner,
                               @PathVariable("repo") String repo,
                               @PathVariable("number") Long number,
+                              @RequestParam(value = "sha", required = false) String sha,
                               RedirectAttributes redirectAttributes) {
 
         final PullRequestCoordinates coordinates = buildCoordinates(owner, repo, number);
-        final MergeResult result = pullRequestService.merge(coordinates);
-        final boolean merged = result.isSuccessful();
+        final MergeTicket ticket = pullRequestService.enqueueMerge(coordinates, sha);
 
-        redirectAttributes.addAttribute("merged", merged);
+        redirectAttributes.addAttribute("mergeTicket", ticket.getId());
 
         return new RedirectView("/pulls/details/{owner}/{repo}/{number}");
     }
 
+    @GetMapping("/merge-queue/{id}/events")
+    public SseEmitter mergeQueueEvents(@PathVariable("id") String id) {
+        final MergeTicket ticket = pullRequestService.findMergeTicket(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown merge ticket"));
+        return pullRequestService.subscribeMergeTicket(ticket);
+    }
+
     @PostMapping("/close/{owner}/{repo}/{number}")
     public RedirectView close(@PathVariable("owner") String owner,
                               @PathVariable("repo") String repo,
@@ -124,17 +183,71 @@ public class PullRequestController {
         return new RedirectView("/pulls/details/{owner}/{repo}/{number}");
     }
 
+    @PostMapping("/bulk/{owner}/{repo}")
+    public RedirectView bulk(@PathVariable("owner") String owner,
+                             @PathVariable("repo") String repo,
+                             @RequestParam("action") BulkAction action,
+                             @RequestParam(value = "number", required = false) List<@Positive Long> numbers,
+                             RedirectAttributes redirectAttributes) {
+
+        final Set<PullRequestCoordinates> coordinates = new LinkedHashSet<>();
+        if (numbers != null) {
+            for (Long number : numbers) {
+                coordinates.add(buildCoordinates(owner, repo, number));
+            }
+        }
+        final BulkJob job = pullRequestService.startBulkAction(action, coordinates);
+
+        redirectAttributes.addAttribute("id", job.getId());
+
+        return new RedirectView("/pulls/bulk/jobs/{id}");
+    }
+
+    @GetMapping("/bulk/jobs/{id}")
+    public String bulkJob(@PathVariable("id") String id, Model model) {
+        final BulkJob job = findBulkJob(id);
+
+        model.addAttribute("job", job);
+        model.addAttribute("items", job.getItems());
+
+        return "bulk";
+    }
+
+    @PostMapping("/bulk/jobs/{id}/retry")
+    public RedirectView retryBulkJob(@PathVariable("id") String id, RedirectAttributes redirectAttributes) {
+        final BulkJob job = pullRequestService.retryBulkJob(findBulkJob(id));
+
+        redirectAttributes.addAttribute("id", job.getId());
+
+        return new RedirectView("/pulls/bulk/jobs/{id}");
+    }
+
+    @GetMapping("/bulk/jobs/{id}/events")
+    public SseEmitter bulkJobEvents(@PathVariable("id") String id) {
+        return pullRequestService.subscribeBulkJob(findBulkJob(id));
+    }
+
     @PostMapping("download/{owner}/{repo}/{number}")
     public String download(@PathVariable("owner") String owner,
                            @PathVariable("repo") String repo,
-                           @PathVariable("number") Long number) {
+                           @PathVariable("number") Long number,
+                           RedirectAttributes redirectAttributes) {
 
         final PullRequestCoordinates coordinates = buildCoordinates(owner, repo, number);
-        pullRequestService.startDownload(coordinates);
+        try {
+            pullRequestService.startDownload(coordinates);
+        } catch (TaskRejectedException e) {
+            redirectAttributes.addAttribute("rejected", true);
+        }
 
         return "redirect:/downloads";
     }
 
+    private BulkJob findBulkJob(String id) {
+        return pullRequestService.findBulkJob(id)
+            .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "unknown bulk job"));
+    }
+
     private static PullRequestCoordinates buildCoordinates(String owner, String repo, Long number) {
         return new PullRequestCoordinates(new RepositoryName(owner, repo), number);
     }
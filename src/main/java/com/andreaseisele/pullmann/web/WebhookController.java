@@ -0,0 +1,48 @@
+package com.andreaseisele.pullmann.web;
+
+import com.andreaseisele.pullmann.webhook.WebhookReceiver;
+import com.andreaseisele.pullmann.webhook.WebhookSignature;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoint for GitHub webhook deliveries. Authenticated by the payload signature instead of a login.
+ */
+@RestController
+@RequestMapping("/webhooks")
+public class WebhookController {
+
+    private static final String HEADER_EVENT = "X-GitHub-Event";
+    private static final String HEADER_DELIVERY = "X-GitHub-Delivery";
+
+    private final WebhookReceiver webhookReceiver;
+
+    public WebhookController(WebhookReceiver webhookReceiver) {
+        this.webhookReceiver = webhookReceiver;
+    }
+
+    @PostMapping("/github")
+    public ResponseEntity<Void> github(@RequestHeader(HEADER_EVENT) String type,
+                                       @RequestHeader(value = HEADER_DELIVERY, required = false) String deliveryId,
+                                       @RequestHeader(value = WebhookSignature.HEADER, required = false) String signature,
+                                       @RequestBody byte[] body) {
+
+        return switch (webhookReceiver.receive(type, deliveryId, signature, body)) {
+            case DISABLED -> ResponseEntity.notFound().build();
+            case INVALID_SIGNATURE -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+            case MALFORMED -> ResponseEntity.badRequest().build();
+            case IGNORED -> ResponseEntity.noContent().build();
+            case QUEUE_FULL -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .build();
+            case ACCEPTED -> ResponseEntity.accepted().build();
+        };
+    }
+
+}
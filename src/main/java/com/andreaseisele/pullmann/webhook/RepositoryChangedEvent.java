@@ -0,0 +1,12 @@
+package com.andreaseisele.pullmann.webhook;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+
+/**
+ * Published after a webhook delivery changed what we know about a repository.
+ * @param repositoryName the repository
+ * @param type the webhook event type that caused the change
+ * @param number the affected pull request, null if the change is not about a single one
+ */
+public record RepositoryChangedEvent(RepositoryName repositoryName, String type, Long number) {
+}
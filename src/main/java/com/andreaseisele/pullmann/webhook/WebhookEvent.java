@@ -0,0 +1,12 @@
+package com.andreaseisele.pullmann.webhook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * A verified webhook delivery.
+ * @param type the event type from the 'X-GitHub-Event' header, e.g. 'pull_request'
+ * @param deliveryId the unique id from the 'X-GitHub-Delivery' header, may be null
+ * @param payload the parsed request body
+ */
+public record WebhookEvent(String type, String deliveryId, JsonNode payload) {
+}
@@ -0,0 +1,103 @@
+package com.andreaseisele.pullmann.webhook;
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.cache.PermissionCache;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.service.RepositoryListCache;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+/**
+ * Applies webhook deliveries to the local state that is served without asking GitHub:
+ * <ul>
+ *     <li>'pull_request': the pull request is pushed into the synchronized copies and the search index</li>
+ *     <li>'push': branches moved, the repositories copies get synchronized on next access</li>
+ *     <li>'member': collaborators changed, cached permissions and the members repository list are dropped</li>
+ * </ul>
+ * Each applied delivery is announced as {@link RepositoryChangedEvent} for connected browsers.
+ * Caches that revalidate with GitHub on every read (e.g. the conditional request cache) need no update.
+ */
+@Component
+public class WebhookEventProcessor {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookEventProcessor.class);
+
+    private final ObjectMapper objectMapper;
+    private final PullRequestSync pullRequestSync;
+    private final PermissionCache permissionCache;
+    private final RepositoryListCache repositoryListCache;
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WebhookEventProcessor(@Qualifier("githubObjectMapper") ObjectMapper objectMapper,
+                                 PullRequestSync pullRequestSync,
+                                 PermissionCache permissionCache,
+                                 RepositoryListCache repositoryListCache,
+                                 ApplicationEventPublisher eventPublisher) {
+        this.objectMapper = objectMapper;
+        this.pullRequestSync = pullRequestSync;
+        this.permissionCache = permissionCache;
+        this.repositoryListCache = repositoryListCache;
+        this.eventPublisher = eventPublisher;
+    }
+
+    public void process(WebhookEvent event) {
+        final RepositoryName repositoryName = repositoryName(event.payload());
+        if (repositoryName == null) {
+            logger.warn("webhook delivery {} without repository, ignoring", event.deliveryId());
+            return;
+        }
+
+        try {
+            final Long number = switch (event.type()) {
+                case "pull_request" -> onPullRequest(repositoryName, event.payload());
+                case "push" -> onPush(repositoryName);
+                case "member" -> onMember(repositoryName, event.payload());
+                default -> throw new IllegalArgumentException("unsupported webhook event type " + event.type());
+            };
+            logger.debug("applied webhook delivery {} of type '{}' for {}", event.deliveryId(), event.type(),
+                repositoryName);
+            eventPublisher.publishEvent(new RepositoryChangedEvent(repositoryName, event.type(), number));
+        } catch (RuntimeException | JsonProcessingException e) {
+            logger.error("error processing webhook delivery {} of type '{}'", event.deliveryId(), event.type(), e);
+        }
+    }
+
+    private Long onPullRequest(RepositoryName repositoryName, JsonNode payload) throws JsonProcessingException {
+        final PullRequest pullRequest = objectMapper.treeToValue(payload.path("pull_request"), PullRequest.class);
+        if (pullRequest == null || pullRequest.number() == null) {
+            throw new IllegalArgumentException("pull_request event without pull request");
+        }
+        pullRequestSync.push(repositoryName, pullRequest);
+        return pullRequest.number();
+    }
+
+    private Long onPush(RepositoryName repositoryName) {
+        pullRequestSync.markDue(repositoryName);
+        return null;
+    }
+
+    private Long onMember(RepositoryName repositoryName, JsonNode payload) {
+        permissionCache.evictRepository(repositoryName);
+        pullRequestSync.markDue(repositoryName);
+        final String login = payload.path("member").path("login").asText(null);
+        if (login != null) {
+            repositoryListCache.invalidateUser(login);
+        }
+        return null;
+    }
+
+    private static RepositoryName repositoryName(JsonNode payload) {
+        final JsonNode repository = payload.path("repository");
+        final String owner = repository.path("owner").path("login").asText(null);
+        final String name = repository.path("name").asText(null);
+        return owner != null && name != null ? new RepositoryName(owner, name) : null;
+    }
+
+}
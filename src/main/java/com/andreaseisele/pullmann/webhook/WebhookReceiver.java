@@ -0,0 +1,92 @@
+package com.andreaseisele.pullmann.webhook;
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.util.Set;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.stereotype.Component;
+
+/**
+ * Verifies incoming webhook deliveries and hands them to the {@link WebhookEventProcessor} via a bounded queue.
+ * Deliveries are only acknowledged, the actual processing happens asynchronously as GitHub expects an answer
+ * within a few seconds.
+ */
+@Component
+public class WebhookReceiver {
+
+    static final Set<String> SUPPORTED_TYPES = Set.of("pull_request", "push", "member");
+
+    private static final Logger logger = LoggerFactory.getLogger(WebhookReceiver.class);
+
+    private final GitHubProperties.WebhookProperties properties;
+    private final ObjectMapper objectMapper;
+    private final AsyncTaskExecutor webhookExecutor;
+    private final WebhookEventProcessor processor;
+
+    public WebhookReceiver(GitHubProperties gitHubProperties,
+                           @Qualifier("githubObjectMapper") ObjectMapper objectMapper,
+                           @Qualifier("webhookExecutor") AsyncTaskExecutor webhookExecutor,
+                           WebhookEventProcessor processor) {
+        this.properties = gitHubProperties.getWebhook();
+        this.objectMapper = objectMapper;
+        this.webhookExecutor = webhookExecutor;
+        this.processor = processor;
+    }
+
+    /**
+     * @param type the 'X-GitHub-Event' header
+     * @param deliveryId the 'X-GitHub-Delivery' header, may be null
+     * @param signature the 'X-Hub-Signature-256' header, may be null
+     * @param body the raw request body
+     * @return what happened to the delivery
+     */
+    public Receipt receive(String type, String deliveryId, String signature, byte[] body) {
+        if (!properties.isEnabled()) {
+            return Receipt.DISABLED;
+        }
+        if (!WebhookSignature.isValid(properties.getSecret(), body, signature)) {
+            logger.warn("rejecting webhook delivery {} with invalid signature", deliveryId);
+            return Receipt.INVALID_SIGNATURE;
+        }
+        if (!SUPPORTED_TYPES.contains(type)) {
+            logger.debug("ignoring webhook delivery {} of type '{}'", deliveryId, type);
+            return Receipt.IGNORED;
+        }
+
+        final JsonNode payload;
+        try {
+            payload = objectMapper.readTree(body);
+        } catch (IOException e) {
+            logger.warn("rejecting malformed webhook delivery {}: {}", deliveryId, e.getMessage());
+            return Receipt.MALFORMED;
+        }
+
+        final WebhookEvent event = new WebhookEvent(type, deliveryId, payload);
+        try {
+            webhookExecutor.execute(() -> processor.process(event));
+        } catch (TaskRejectedException e) {
+            logger.warn("webhook queue full, rejecting delivery {}", deliveryId);
+            return Receipt.QUEUE_FULL;
+        }
+        return Receipt.ACCEPTED;
+    }
+
+    public enum Receipt {
+        /** no secret configured */
+        DISABLED,
+        INVALID_SIGNATURE,
+        /** unsupported event type, e.g. 'ping' */
+        IGNORED,
+        MALFORMED,
+        /** the queue is full, the delivery can be redelivered from the webhook settings on GitHub */
+        QUEUE_FULL,
+        ACCEPTED
+    }
+
+}
@@ -0,0 +1,56 @@
+package com.andreaseisele.pullmann.webhook;
+
+import java.nio.charset.StandardCharsets;
+import java.security.InvalidKeyException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+/**
+ * Verifies the 'X-Hub-Signature-256' header GitHub sends with every webhook delivery: the HMAC-SHA256 of the
+ * raw request body keyed with the webhooks secret.
+ */
+public final class WebhookSignature {
+
+    public static final String HEADER = "X-Hub-Signature-256";
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final String PREFIX = "sha256=";
+
+    private WebhookSignature() {
+    }
+
+    /**
+     * @param secret the webhook secret
+     * @param payload the raw request body
+     * @return the header value GitHub would send for the payload
+     */
+    public static String sign(String secret, byte[] payload) {
+        try {
+            final Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return PREFIX + HexFormat.of().formatHex(mac.doFinal(payload));
+        } catch (NoSuchAlgorithmException | InvalidKeyException e) {
+            throw new IllegalStateException("unable to compute webhook signature", e);
+        }
+    }
+
+    /**
+     * @param secret the webhook secret
+     * @param payload the raw request body
+     * @param signature the received header value, may be null
+     * @return whether the signature matches, compared in constant time
+     */
+    public static boolean isValid(String secret, byte[] payload, String signature) {
+        if (signature == null) {
+            return false;
+        }
+        final byte[] expected = sign(secret, payload).getBytes(StandardCharsets.US_ASCII);
+        final byte[] actual = signature.trim().toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual);
+    }
+
+}
@@ -0,0 +1,134 @@
+package com.andreaseisele.pullmann.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.RequestPriority;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+class DownloadSchedulerTest {
+
+    private static final RepositoryName MONOREPO = new RepositoryName("octocat", "monorepo");
+    private static final RepositoryName HELLO_WORLD = new RepositoryName("octocat", "Hello-World");
+
+    private List<Runnable> workerTasks;
+    private List<String> executed;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        workerTasks = new ArrayList<>();
+        executed = new ArrayList<>();
+        registry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void schedule_fairPerUserAndRepository() {
+        final DownloadScheduler scheduler = scheduler(10, 10);
+
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-1");
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.BACKGROUND, "alice-prefetch");
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-2");
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-3");
+        schedule(scheduler, "alice", HELLO_WORLD, RequestPriority.INTERACTIVE, "alice-4");
+        schedule(scheduler, "bob", MONOREPO, RequestPriority.INTERACTIVE, "bob-1");
+
+        // a single worker, the others wait
+        assertThat(workerTasks).hasSize(1);
+        assertThat(scheduler.queued()).isEqualTo(5);
+        assertThat(registry.get("pullmann.download.queue.size").tag("priority", "interactive").gauge().value())
+            .isEqualTo(4);
+
+        workerTasks.get(0).run();
+
+        assertThat(executed).containsExactly("alice-1", "alice-2", "bob-1", "alice-4", "alice-3", "alice-prefetch");
+        assertThat(scheduler.queued()).isZero();
+        assertThat(registry.get("pullmann.download.running").gauge().value()).isZero();
+    }
+
+    @Test
+    void schedule_boundedPerUser() {
+        final DownloadScheduler scheduler = scheduler(10, 1);
+
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-1");
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-2");
+
+        assertThatThrownBy(() -> schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-3"))
+            .isInstanceOf(TaskRejectedException.class);
+        schedule(scheduler, "bob", MONOREPO, RequestPriority.INTERACTIVE, "bob-1");
+
+        assertThat(registry.get("pullmann.download.rejected").counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    void schedule_boundedInTotal() {
+        final DownloadScheduler scheduler = scheduler(1, 10);
+
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-1");
+        schedule(scheduler, "alice", MONOREPO, RequestPriority.INTERACTIVE, "alice-2");
+
+        assertThatThrownBy(() -> schedule(scheduler, "bob", MONOREPO, RequestPriority.INTERACTIVE, "bob-1"))
+            .isInstanceOf(TaskRejectedException.class);
+
+        workerTasks.get(0).run();
+        schedule(scheduler, "bob", MONOREPO, RequestPriority.INTERACTIVE, "bob-1");
+
+        assertThat(workerTasks).hasSize(2);
+    }
+
+    @Test
+    void schedule_runsWithSchedulingUser() {
+        final DownloadScheduler scheduler = scheduler(10, 10);
+        final List<String> users = new ArrayList<>();
+
+        authenticate("alice");
+        scheduler.schedule("alice", MONOREPO, RequestPriority.INTERACTIVE, () -> users.add(currentUser()));
+        authenticate("bob");
+        scheduler.schedule("bob", MONOREPO, RequestPriority.INTERACTIVE, () -> users.add(currentUser()));
+        SecurityContextHolder.clearContext();
+
+        workerTasks.get(0).run();
+
+        assertThat(users).containsExactly("alice", "bob");
+    }
+
+    private DownloadScheduler scheduler(int maxQueued, int maxQueuedPerUser) {
+        return new DownloadScheduler(new TaskExecutorAdapter(workerTasks::add), 1, maxQueued, maxQueuedPerUser,
+            registry);
+    }
+
+    private void schedule(DownloadScheduler scheduler,
+                          String user,
+                          RepositoryName repositoryName,
+                          RequestPriority priority,
+                          String name) {
+        scheduler.schedule(user, repositoryName, priority, () -> executed.add(name));
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken(username, "token", Collections.emptyList()));
+    }
+
+    private static String currentUser() {
+        return SecurityContextHolder.getContext().getAuthentication().getName();
+    }
+
+}
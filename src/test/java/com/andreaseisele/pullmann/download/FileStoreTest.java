@@ -144,4 +144,50 @@ class FileStoreTest {
         assertThat(maybeZip).isEmpty();
     }
 
-}
\ No newline at end of file
+    @Test
+    void shareAndLinkShared() throws IOException {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final String ref = "6dcb09b5b57875f334f61aebed695e2e4193db5e";
+        final PullRequestDownload first = new PullRequestDownload(new PullRequestCoordinates(repositoryName, 1), ref);
+        final PullRequestDownload second = new PullRequestDownload(new PullRequestCoordinates(repositoryName, 2), ref);
+        final FileStore fileStore = new FileStore(properties);
+        final Path zip = fileStore.getForPullRequest(first).resolve("aeisele-pullman-playgournd-5bed3c6.zip");
+        Files.writeString(zip, "zip");
+
+        assertThat(fileStore.linkShared(second)).isFalse();
+
+        fileStore.share(first);
+        final boolean linked = fileStore.linkShared(second);
+
+        assertThat(linked).isTrue();
+        assertThat(fileStore.findZip(second)).hasValueSatisfying(secondZip -> {
+            assertThat(secondZip.getFileName()).isEqualTo(zip.getFileName());
+            assertThat(secondZip).hasContent("zip");
+        });
+    }
+
+    @Test
+    void deleteZip_releasesSharedOnceUnlinked() throws IOException {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final String ref = "6dcb09b5b57875f334f61aebed695e2e4193db5e";
+        final PullRequestDownload first = new PullRequestDownload(new PullRequestCoordinates(repositoryName, 1), ref);
+        final PullRequestDownload second = new PullRequestDownload(new PullRequestCoordinates(repositoryName, 2), ref);
+        final PullRequestDownload third = new PullRequestDownload(new PullRequestCoordinates(repositoryName, 3), ref);
+        final FileStore fileStore = new FileStore(properties);
+        Files.writeString(fileStore.getForPullRequest(first).resolve("aeisele-pullman-playgournd-5bed3c6.zip"), "zip");
+        fileStore.share(first);
+        fileStore.linkShared(second);
+
+        fileStore.deleteZip(first);
+
+        assertThat(fileStore.findZip(first)).isEmpty();
+        assertThat(fileStore.findZip(second)).isPresent();
+        assertThat(fileStore.linkShared(third)).isTrue();
+
+        fileStore.deleteZip(second);
+        fileStore.deleteZip(third);
+
+        assertThat(fileStore.linkShared(first)).isFalse();
+    }
+
+}
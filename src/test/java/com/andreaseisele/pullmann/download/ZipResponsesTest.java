@@ -0,0 +1,174 @@
+package com.andreaseisele.pullmann.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+class ZipResponsesTest {
+
+    private static final String HEAD_SHA = "6dcb09b5b57875f334f61aebed695e2e4193db5e";
+    private static final String ETAG = "\"" + HEAD_SHA + "\"";
+
+    @TempDir
+    private Path tempDir;
+
+    private Path zip;
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        content = new byte[1000];
+        ThreadLocalRandom.current().nextBytes(content);
+        zip = Files.write(tempDir.resolve("octocat-Hello-World-6dcb09b.zip"), content);
+    }
+
+    @Test
+    void write_whole() throws IOException {
+        final MockHttpServletResponse response = write(get());
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentType()).isEqualTo("application/zip");
+        assertThat(response.getHeader(HttpHeaders.ETAG)).isEqualTo(ETAG);
+        assertThat(response.getHeader(HttpHeaders.ACCEPT_RANGES)).isEqualTo("bytes");
+        assertThat(response.getHeader(HttpHeaders.CONTENT_DISPOSITION)).contains("octocat-Hello-World-6dcb09b.zip");
+        assertThat(response.getContentLengthLong()).isEqualTo(1000);
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void write_singleRange() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 100-199/1000");
+        assertThat(response.getContentLengthLong()).isEqualTo(100);
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 100, 200));
+    }
+
+    @Test
+    void write_suffixRange() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=-10");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes 990-999/1000");
+        assertThat(response.getContentAsByteArray()).isEqualTo(Arrays.copyOfRange(content, 990, 1000));
+    }
+
+    @Test
+    void write_multipleRanges() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-9,500-509");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+        assertThat(response.getContentType()).startsWith("multipart/byteranges; boundary=");
+        final String boundary = response.getContentType().substring("multipart/byteranges; boundary=".length());
+        final byte[] body = response.getContentAsByteArray();
+        assertThat(response.getContentLengthLong()).isEqualTo(body.length);
+
+        final String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertThat(text)
+            .contains("--" + boundary + "\r\nContent-Type: application/zip\r\nContent-Range: bytes 0-9/1000\r\n\r\n")
+            .contains("Content-Range: bytes 500-509/1000\r\n\r\n")
+            .endsWith("\r\n--" + boundary + "--\r\n");
+        final int firstPart = text.indexOf("bytes 0-9/1000\r\n\r\n") + "bytes 0-9/1000\r\n\r\n".length();
+        assertThat(Arrays.copyOfRange(body, firstPart, firstPart + 10)).isEqualTo(Arrays.copyOfRange(content, 0, 10));
+    }
+
+    @Test
+    void write_overlappingRangesSendWhole() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=0-999,0-999");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void write_unsatisfiableRange() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=1000-");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value());
+        assertThat(response.getHeader(HttpHeaders.CONTENT_RANGE)).isEqualTo("bytes */1000");
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void write_ifRangeMismatchSendsWhole() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        request.addHeader(HttpHeaders.IF_RANGE, "\"another-sha\"");
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentAsByteArray()).isEqualTo(content);
+    }
+
+    @Test
+    void write_ifRangeMatch() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.RANGE, "bytes=100-199");
+        request.addHeader(HttpHeaders.IF_RANGE, ETAG);
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.PARTIAL_CONTENT.value());
+    }
+
+    @Test
+    void write_notModified() throws IOException {
+        final MockHttpServletRequest request = get();
+        request.addHeader(HttpHeaders.IF_NONE_MATCH, ETAG);
+
+        final MockHttpServletResponse response = write(request);
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.NOT_MODIFIED.value());
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    @Test
+    void write_head() throws IOException {
+        final MockHttpServletResponse response = write(new MockHttpServletRequest("HEAD", "/"));
+
+        assertThat(response.getStatus()).isEqualTo(HttpStatus.OK.value());
+        assertThat(response.getContentLengthLong()).isEqualTo(1000);
+        assertThat(response.getContentAsByteArray()).isEmpty();
+    }
+
+    private MockHttpServletResponse write(MockHttpServletRequest request) throws IOException {
+        final MockHttpServletResponse response = new MockHttpServletResponse();
+        ZipResponses.write(request, response, zip, HEAD_SHA);
+        return response;
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/");
+    }
+
+}
@@ -5,41 +5,62 @@ import static com.github.tomakehurst.wiremock.client.WireMock.containing;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalTo;
 import static com.github.tomakehurst.wiremock.client.WireMock.equalToJson;
 import static com.github.tomakehurst.wiremock.client.WireMock.get;
+import static com.github.tomakehurst.wiremock.client.WireMock.getRequestedFor;
+import static com.github.tomakehurst.wiremock.client.WireMock.matchingJsonPath;
 import static com.github.tomakehurst.wiremock.client.WireMock.patch;
+import static com.github.tomakehurst.wiremock.client.WireMock.post;
 import static com.github.tomakehurst.wiremock.client.WireMock.put;
+import static com.github.tomakehurst.wiremock.client.WireMock.putRequestedFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.stubFor;
 import static com.github.tomakehurst.wiremock.client.WireMock.temporaryRedirect;
 import static com.github.tomakehurst.wiremock.client.WireMock.urlPathEqualTo;
+import static com.github.tomakehurst.wiremock.client.WireMock.verify;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.cache.ConditionalRequestCache;
 import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.File;
 import com.andreaseisele.pullmann.github.dto.MergeResponse;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
 import com.andreaseisele.pullmann.github.dto.Repository;
 import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
 import com.andreaseisele.pullmann.github.dto.User;
+import com.andreaseisele.pullmann.github.error.GitHubExecutionException;
 import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import com.andreaseisele.pullmann.github.metrics.GitHubCallMetrics;
+import com.andreaseisele.pullmann.github.result.AllPagesResult;
 import com.andreaseisele.pullmann.github.result.FileResult;
 import com.andreaseisele.pullmann.github.result.MergeResult;
+import com.andreaseisele.pullmann.github.result.PullRequestDetailsResult;
 import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
 import com.andreaseisele.pullmann.github.result.RepositoryResult;
 import com.andreaseisele.pullmann.github.result.UserResult;
+import com.github.tomakehurst.wiremock.http.Fault;
 import com.github.tomakehurst.wiremock.junit5.WireMockRuntimeInfo;
 import com.github.tomakehurst.wiremock.junit5.WireMockTest;
+import com.github.tomakehurst.wiremock.stubbing.Scenario;
 import com.google.common.jimfs.Configuration;
 import com.google.common.jimfs.Jimfs;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import java.io.IOException;
 import java.nio.file.FileSystem;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.stream.Stream;
 import org.junit.jupiter.api.BeforeEach;
@@ -69,9 +90,16 @@ class GitHubClientIntegrationTest {
     @Autowired
     private GitHubProperties properties;
 
+    @Autowired
+    private ConditionalRequestCache conditionalRequestCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     @BeforeEach
     void setUp(WireMockRuntimeInfo wmRuntimeInfo) {
         properties.setBaseUrl("http://localhost:" + wmRuntimeInfo.getHttpPort());
+        properties.setApiMode(GitHubProperties.ApiMode.REST);
     }
 
     @Test
@@ -164,6 +192,133 @@ class GitHubClientIntegrationTest {
             });
     }
 
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void userReposAsync_ok() {
+        stubFor(get(urlPathEqualTo("/user/repos"))
+            .withQueryParam("page", equalTo("2"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("user_repos.json")
+            )
+        );
+
+        final CompletableFuture<RepositoryResult> future = gitHubClient.userReposAsync(2);
+
+        assertThat(future)
+            .succeedsWithin(Duration.ofSeconds(5))
+            .satisfies(result -> {
+                assertThat(result.getPage()).isEqualTo(2);
+                assertThat(result.getMaxPages()).isEqualTo(2);
+                assertThat(result.getList())
+                    .hasSize(1)
+                    .anySatisfy(repository -> assertThat(repository.fullName()).isEqualTo("octocat/Hello-World"));
+            });
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void allUserRepos_partialFailure() {
+        final String linkHeaderValue =
+            "<http://localhost/user/repos?page=2>; rel=\"next\", <http://localhost/user/repos?page=4>; rel=\"last\"";
+
+        for (String page : List.of("1", "3", "4")) {
+            stubFor(get(urlPathEqualTo("/user/repos"))
+                .withQueryParam("page", equalTo(page))
+                .withBasicAuth("test_user", "test")
+                .willReturn(aResponse()
+                    .withStatus(HttpStatus.OK.value())
+                    .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .withHeader(HttpHeaders.LINK, linkHeaderValue)
+                    .withBodyFile("user_repos.json")
+                )
+            );
+        }
+        stubFor(get(urlPathEqualTo("/user/repos"))
+            .withQueryParam("page", equalTo("2"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.INTERNAL_SERVER_ERROR.value())
+            )
+        );
+
+        final AllPagesResult<Repository> result = gitHubClient.allUserRepos();
+
+        assertThat(result.getPage()).isEqualTo(4);
+        assertThat(result.getMaxPages()).isEqualTo(4);
+        assertThat(result.getList()).hasSize(3);
+        assertThat(result.getFailedPages()).containsOnlyKeys(2);
+        assertThat(result.getFailedPages().get(2)).isInstanceOfSatisfying(GitHubHttpStatusException.class,
+            e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR.value()));
+        assertThat(result.isComplete()).isFalse();
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void allUserRepos_connectionFailureDoesNotStopFollowingPages() {
+        final String linkHeaderValue =
+            "<http://localhost/user/repos?page=2>; rel=\"next\", <http://localhost/user/repos?page=4>; rel=\"last\"";
+
+        for (String page : List.of("1", "3", "4")) {
+            stubFor(get(urlPathEqualTo("/user/repos"))
+                .withQueryParam("page", equalTo(page))
+                .withBasicAuth("test_user", "test")
+                .willReturn(aResponse()
+                    .withStatus(HttpStatus.OK.value())
+                    .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                    .withHeader(HttpHeaders.LINK, linkHeaderValue)
+                    .withBodyFile("user_repos.json")
+                )
+            );
+        }
+        stubFor(get(urlPathEqualTo("/user/repos"))
+            .withQueryParam("page", equalTo("2"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse().withFault(Fault.CONNECTION_RESET_BY_PEER))
+        );
+
+        // a single worker fetches pages 3 and 4 after page 2 failed on the HTTP clients thread
+        final int parallelism = properties.getFetchAll().getParallelism();
+        properties.getFetchAll().setParallelism(1);
+        final AllPagesResult<Repository> result;
+        try {
+            result = gitHubClient.allUserRepos();
+        } finally {
+            properties.getFetchAll().setParallelism(parallelism);
+        }
+
+        assertThat(result.getList()).hasSize(3);
+        assertThat(result.getFailedPages()).containsOnlyKeys(2);
+        assertThat(result.getFailedPages().get(2)).isInstanceOf(GitHubExecutionException.class);
+        verify(getRequestedFor(urlPathEqualTo("/user/repos")).withQueryParam("page", equalTo("3")));
+        verify(getRequestedFor(urlPathEqualTo("/user/repos")).withQueryParam("page", equalTo("4")));
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void allFiles_singlePage() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1347);
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1347/files"))
+            .withBasicAuth("test_user", "test")
+            .withQueryParam("page", equalTo("1"))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("pull_request_files.json")
+            )
+        );
+
+        final AllPagesResult<File> result = gitHubClient.allFiles(coordinates);
+
+        assertThat(result.getList()).hasSize(1);
+        assertThat(result.isComplete()).isTrue();
+    }
+
     @WithMockUser(username = "test_user", password = "test")
     @Test
     void pullRequestsForRepo_ok() {
@@ -213,6 +368,75 @@ class GitHubClientIntegrationTest {
             });
     }
 
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestSummariesForRepo_ok() {
+        final String linkHeaderValue =
+            "<http://localhost/repositories/1/pulls?page=2>; rel=\"next\", <http://localhost/repositories/1/pulls?page=11>; rel=\"last\"";
+
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls"))
+            .withQueryParam("page", equalTo("1"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withHeader(HttpHeaders.LINK, linkHeaderValue)
+                .withBodyFile("repo_pull_requests.json")
+            )
+        );
+
+        final PullRequestSummaryResult result = gitHubClient.pullRequestSummariesForRepo(repositoryName, 1);
+
+        assertThat(result).isNotNull();
+        assertThat(result.getPage()).isEqualTo(1);
+        assertThat(result.getMaxPages()).isEqualTo(11);
+        assertThat(result.getList())
+            .singleElement()
+            .satisfies(pr -> {
+                assertThat(pr.id()).isEqualTo(1);
+                assertThat(pr.number()).isEqualTo(1347);
+                assertThat(pr.title()).isEqualTo("Amazing new feature");
+                assertThat(pr.state()).isEqualTo(PullRequest.State.OPEN);
+                assertThat(pr.authorLogin()).isEqualTo("octocat");
+                assertThat(pr.headLabel()).isEqualTo("octocat:new-topic");
+                assertThat(pr.baseLabel()).isEqualTo("octocat:master");
+            });
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestsByUpdated_ok() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls"))
+            .withQueryParam("page", equalTo("1"))
+            .withQueryParam("per_page", equalTo("100"))
+            .withQueryParam("state", equalTo("all"))
+            .withQueryParam("sort", equalTo("updated"))
+            .withQueryParam("direction", equalTo("desc"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("repo_pull_requests.json")
+            )
+        );
+
+        final PullRequestResult result = gitHubClient.pullRequestsByUpdated(repositoryName, 1, 100);
+
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.getList())
+            .singleElement()
+            .satisfies(pr -> {
+                assertThat(pr.number()).isEqualTo(1347);
+                assertThat(pr.body()).isEqualTo("Please pull these awesome changes in!");
+                assertThat(pr.updatedAt()).isEqualTo(Instant.parse("2011-01-26T19:01:12Z"));
+            });
+    }
+
     @WithMockUser(username = "test_user", password = "test")
     @Test
     void pullRequestsForRepo_notFound() {
@@ -263,6 +487,296 @@ class GitHubClientIntegrationTest {
         assertThat(pullRequest.base()).isNotNull();
     }
 
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsAsync_chainedCallKeepsSecurityContext() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1349);
+
+        // the delay makes sure the dependent stage is registered before completion
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1349"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withFixedDelay(500)
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("pull_request_details.json")
+            )
+        );
+
+        stubFor(get("/repos/octocat/Hello-World/collaborators/test_user/permission")
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("user_repository_permission_write.json")
+            )
+        );
+
+        final CompletableFuture<RepositoryPermission> future = gitHubClient.pullRequestDetailsAsync(coordinates)
+            .thenCompose(pullRequest -> gitHubClient.usersRepositoryPermissionAsync(repositoryName));
+
+        assertThat(future)
+            .succeedsWithin(Duration.ofSeconds(5))
+            .satisfies(permission ->
+                assertThat(permission.permission()).isEqualTo(RepositoryPermission.Permission.WRITE));
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsWithPermissionAsync_rest() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1351);
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1351"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("pull_request_details.json")
+            )
+        );
+        stubFor(get("/repos/octocat/Hello-World/collaborators/test_user/permission")
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("user_repository_permission_admin.json")
+            )
+        );
+
+        final CompletableFuture<PullRequestDetailsResult> future =
+            gitHubClient.pullRequestDetailsWithPermissionAsync(coordinates);
+
+        assertThat(future)
+            .succeedsWithin(Duration.ofSeconds(5))
+            .satisfies(result -> {
+                assertThat(result.getPullRequest().number()).isEqualTo(1347);
+                assertThat(result.getPermission().permission()).isEqualTo(RepositoryPermission.Permission.ADMIN);
+            });
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsWithPermissionAsync_graphQl() {
+        properties.setApiMode(GitHubProperties.ApiMode.GRAPHQL);
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1347);
+
+        stubFor(post("/graphql")
+            .withHeader(HttpHeaders.AUTHORIZATION, equalTo("bearer test"))
+            .withRequestBody(matchingJsonPath("$.variables.owner", equalTo("octocat")))
+            .withRequestBody(matchingJsonPath("$.variables.repository", equalTo("Hello-World")))
+            .withRequestBody(matchingJsonPath("$.variables.number", equalTo("1347")))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("graphql_pull_request_details.json")
+            )
+        );
+
+        final CompletableFuture<PullRequestDetailsResult> future =
+            gitHubClient.pullRequestDetailsWithPermissionAsync(coordinates);
+
+        assertThat(future)
+            .succeedsWithin(Duration.ofSeconds(5))
+            .satisfies(result -> {
+                final PullRequest pr = result.getPullRequest();
+                assertThat(pr.id()).isEqualTo(1);
+                assertThat(pr.number()).isEqualTo(1347);
+                assertThat(pr.url()).endsWith("/repos/octocat/Hello-World/pulls/1347");
+                assertThat(pr.title()).isEqualTo("Amazing new feature");
+                assertThat(pr.state()).isEqualTo(PullRequest.State.OPEN);
+                assertThat(pr.mergeable()).isTrue();
+                assertThat(pr.merged()).isFalse();
+                assertThat(pr.changedFiles()).isEqualTo(5);
+                assertThat(pr.user().login()).isEqualTo("octocat");
+                assertThat(pr.head().label()).isEqualTo("octocat:new-topic");
+                assertThat(pr.head().sha()).isEqualTo("6dcb09b5b57875f334f61aebed695e2e4193db5e");
+                assertThat(pr.base().label()).isEqualTo("octocat:master");
+
+                assertThat(result.getPermission().permission()).isEqualTo(RepositoryPermission.Permission.WRITE);
+                assertThat(result.getPermission().roleName()).isEqualTo("maintain");
+            });
+        verify(0, getRequestedFor(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1347")));
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsWithPermissionAsync_graphQlNotFound() {
+        properties.setApiMode(GitHubProperties.ApiMode.GRAPHQL);
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1347);
+
+        stubFor(post("/graphql")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("graphql_not_found.json")
+            )
+        );
+
+        final CompletableFuture<PullRequestDetailsResult> future =
+            gitHubClient.pullRequestDetailsWithPermissionAsync(coordinates);
+
+        assertThat(future)
+            .failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GitHubHttpStatusException.class);
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsAsync_notFound() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1350);
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1350"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.NOT_FOUND.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("not_found.json")
+            )
+        );
+
+        final CompletableFuture<PullRequest> future = gitHubClient.pullRequestDetailsAsync(coordinates);
+
+        assertThat(future)
+            .failsWithin(Duration.ofSeconds(5))
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GitHubHttpStatusException.class);
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetails_notModified() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1348);
+        final String etag = "\"644b5b0155e6404a9cc4bd9d8b1ae730\"";
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1348"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withHeader(HttpHeaders.ETAG, etag)
+                .withBodyFile("pull_request_details.json")
+            )
+        );
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1348"))
+            .withBasicAuth("test_user", "test")
+            .withHeader(HttpHeaders.ACCEPT, equalTo(GitHubMediaTypes.JSON))
+            .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(etag))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.NOT_MODIFIED.value())
+                .withHeader(HttpHeaders.ETAG, etag)
+            )
+        );
+
+        final ConditionalRequestCache.Stats before = conditionalRequestCache.stats();
+
+        final PullRequest first = gitHubClient.pullRequestDetails(coordinates);
+        final PullRequest second = gitHubClient.pullRequestDetails(coordinates);
+
+        assertThat(first).isNotNull();
+        assertThat(second).isSameAs(first);
+
+        verify(getRequestedFor(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1348"))
+            .withHeader(HttpHeaders.IF_NONE_MATCH, equalTo(etag)));
+
+        final ConditionalRequestCache.Stats after = conditionalRequestCache.stats();
+        assertThat(after.hits() - before.hits()).isEqualTo(1);
+        assertThat(after.notModified() - before.notModified()).isEqualTo(1);
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetails_retriedOnBadGateway() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1352);
+        stubFlakyPullRequest("/repos/octocat/Hello-World/pulls/1352");
+        final long badGatewaysBefore = callCount("pullRequestDetails", "bad_status", "502");
+        final long successesBefore = callCount("pullRequestDetails", "success", "200");
+
+        final PullRequest pullRequest = gitHubClient.pullRequestDetails(coordinates);
+
+        assertThat(pullRequest.number()).isEqualTo(1347);
+        verify(2, getRequestedFor(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1352")));
+        assertThat(callCount("pullRequestDetails", "bad_status", "502") - badGatewaysBefore).isEqualTo(1);
+        assertThat(callCount("pullRequestDetails", "success", "200") - successesBefore).isEqualTo(1);
+        assertThat(meterRegistry.find(GitHubCallMetrics.RESPONSE_SIZE).tag("call", "pullRequestDetails").summary())
+            .isNotNull();
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void pullRequestDetailsAsync_retriedOnBadGateway() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1353);
+        stubFlakyPullRequest("/repos/octocat/Hello-World/pulls/1353");
+
+        final CompletableFuture<PullRequest> future = gitHubClient.pullRequestDetailsAsync(coordinates);
+
+        assertThat(future)
+            .succeedsWithin(Duration.ofSeconds(5))
+            .satisfies(pullRequest -> assertThat(pullRequest.number()).isEqualTo(1347));
+        verify(2, getRequestedFor(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1353")));
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void merge_notRetried() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1354);
+
+        stubFor(put(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1354/merge"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.BAD_GATEWAY.value())
+            )
+        );
+
+        assertThatThrownBy(() -> gitHubClient.merge(coordinates, "test message", "sha"))
+            .isInstanceOfSatisfying(GitHubHttpStatusException.class,
+                e -> assertThat(e.getHttpStatus()).isEqualTo(HttpStatus.BAD_GATEWAY.value()));
+        verify(1, putRequestedFor(urlPathEqualTo("/repos/octocat/Hello-World/pulls/1354/merge")));
+    }
+
+    private long callCount(String callName, String outcome, String status) {
+        final Timer timer = meterRegistry.find(GitHubCallMetrics.CALLS)
+            .tag("call", callName)
+            .tag("outcome", outcome)
+            .tag("status", status)
+            .timer();
+        return timer != null ? timer.count() : 0;
+    }
+
+    private static void stubFlakyPullRequest(String path) {
+        stubFor(get(urlPathEqualTo(path))
+            .inScenario(path)
+            .whenScenarioStateIs(Scenario.STARTED)
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.BAD_GATEWAY.value())
+            )
+            .willSetStateTo("recovered")
+        );
+        stubFor(get(urlPathEqualTo(path))
+            .inScenario(path)
+            .whenScenarioStateIs("recovered")
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .withBodyFile("pull_request_details.json")
+            )
+        );
+    }
+
     @WithMockUser(username = "test_user", password = "test")
     @Test
     void merge_ok() {
@@ -328,6 +842,8 @@ class GitHubClientIntegrationTest {
 
         assertThat(result).isNotNull();
         assertThat(result.isSuccessful()).isFalse();
+        assertThat(result.getFailureStatus()).isEqualTo(badStatus);
+        assertThat(result.isConflict()).isEqualTo(badStatus == 409);
     }
 
     @WithMockUser(username = "test_user", password = "test")
@@ -462,6 +978,86 @@ class GitHubClientIntegrationTest {
         }
     }
 
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void downloadRepoContent_resumesPartial(WireMockRuntimeInfo wireMockRuntimeInfo) throws IOException {
+        final String zipPath = "/octocat/Hello-World/legacy.zip/5bed3c62446116728f65e3809210bb605f11e687";
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final String zipName = "aeisele-pullman-playgournd-5bed3c6.zip";
+        final String etag = "\"df3a8b4b0a8d4c2e\"";
+        final byte[] fileContent = new byte[2048];
+        ThreadLocalRandom.current().nextBytes(fileContent);
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/zipball/5bed3c62446116728f65e3809210bb605f11e687"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(temporaryRedirect(wireMockRuntimeInfo.getHttpBaseUrl() + zipPath)));
+
+        stubFor(get(zipPath)
+            .withHeader(HttpHeaders.RANGE, equalTo("bytes=1000-"))
+            .withHeader(HttpHeaders.IF_RANGE, equalTo(etag))
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.PARTIAL_CONTENT.value())
+                .withHeader(HttpHeaders.CONTENT_RANGE, "bytes 1000-2047/2048")
+                .withHeader(HttpHeaders.ETAG, etag)
+                .withBody(Arrays.copyOfRange(fileContent, 1000, 2048))));
+
+        try (final FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+            final Path directory = fs.getPath("dir");
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(zipName + ".part"), Arrays.copyOfRange(fileContent, 0, 1000));
+            Files.writeString(directory.resolve(zipName + ".part.validator"), etag);
+
+            final boolean success = gitHubClient.downloadRepoContent(repositoryName, ref, directory);
+            assertThat(success).isTrue();
+
+            assertThat(Files.readAllBytes(directory.resolve(zipName))).isEqualTo(fileContent);
+            try (Stream<Path> files = Files.list(directory)) {
+                assertThat(files).containsExactly(directory.resolve(zipName));
+            }
+        }
+    }
+
+    @WithMockUser(username = "test_user", password = "test")
+    @Test
+    void downloadRepoContent_startsOverIfContentChanged(WireMockRuntimeInfo wireMockRuntimeInfo) throws IOException {
+        final String zipPath = "/octocat/Hello-World/legacy.zip/5bed3c62446116728f65e3809210bb605f11e687";
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final String zipName = "aeisele-pullman-playgournd-5bed3c6.zip";
+        final ContentDisposition contentDisposition = ContentDisposition.attachment()
+            .filename(zipName)
+            .build();
+        final byte[] fileContent = new byte[2048];
+        ThreadLocalRandom.current().nextBytes(fileContent);
+
+        stubFor(get(urlPathEqualTo("/repos/octocat/Hello-World/zipball/5bed3c62446116728f65e3809210bb605f11e687"))
+            .withBasicAuth("test_user", "test")
+            .willReturn(temporaryRedirect(wireMockRuntimeInfo.getHttpBaseUrl() + zipPath)));
+
+        // 'If-Range' did not match, the whole content is sent
+        stubFor(get(zipPath)
+            .willReturn(aResponse()
+                .withStatus(HttpStatus.OK.value())
+                .withHeader(HttpHeaders.CONTENT_DISPOSITION, contentDisposition.toString())
+                .withHeader(HttpHeaders.ETAG, "\"new\"")
+                .withBody(fileContent)));
+
+        try (final FileSystem fs = Jimfs.newFileSystem(Configuration.unix())) {
+            final Path directory = fs.getPath("dir");
+            Files.createDirectories(directory);
+            Files.write(directory.resolve(zipName + ".part"), new byte[1000]);
+            Files.writeString(directory.resolve(zipName + ".part.validator"), "\"old\"");
+
+            final boolean success = gitHubClient.downloadRepoContent(repositoryName, ref, directory);
+            assertThat(success).isTrue();
+
+            assertThat(Files.readAllBytes(directory.resolve(zipName))).isEqualTo(fileContent);
+            assertThat(directory.resolve(zipName + ".part")).doesNotExist();
+            assertThat(directory.resolve(zipName + ".part.validator")).doesNotExist();
+        }
+    }
+
     static Stream<Arguments> argsForUserRepoPermission() {
         return Stream.of(
             Arguments.of("user_repository_permission_admin.json", RepositoryPermission.Permission.ADMIN, "admin"),
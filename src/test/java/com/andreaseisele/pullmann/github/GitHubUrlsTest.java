@@ -28,4 +28,30 @@ class GitHubUrlsTest {
             .hasMessageContaining("unable to parse configured base URL");
     }
 
+    @Test
+    void graphql_github() {
+        assertThat(graphql("https://api.github.com", null)).hasToString("https://api.github.com/graphql");
+    }
+
+    @Test
+    void graphql_enterprise() {
+        assertThat(graphql("https://github.example.com/api/v3/", null))
+            .hasToString("https://github.example.com/api/graphql");
+        assertThat(graphql("https://github.example.com/api/v3", null))
+            .hasToString("https://github.example.com/api/graphql");
+    }
+
+    @Test
+    void graphql_configured() {
+        assertThat(graphql("https://github.example.com/api/v3/", "https://graphql.example.com/api/graphql"))
+            .hasToString("https://graphql.example.com/api/graphql");
+    }
+
+    private static HttpUrl graphql(String baseUrl, String graphqlUrl) {
+        final GitHubProperties properties = new GitHubProperties();
+        properties.setBaseUrl(baseUrl);
+        properties.setGraphqlUrl(graphqlUrl);
+        return new GitHubUrls(properties).graphql();
+    }
+
 }
\ No newline at end of file
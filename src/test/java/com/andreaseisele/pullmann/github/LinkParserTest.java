@@ -73,4 +73,58 @@ class LinkParserTest {
         assertThat(lastRel).isEmpty();
     }
 
-}
\ No newline at end of file
+    @Test
+    void parse_allRelations() {
+        final String linkValue = "<https://api.github.com/repositories/2325298/pulls?page=2>; rel=\"prev\", <https://api.github.com/repositories/2325298/pulls?page=4>; rel=\"next\", <https://api.github.com/repositories/2325298/pulls?page=11>; rel=\"last\", <https://api.github.com/repositories/2325298/pulls?page=1>; rel=\"first\"";
+
+        final PageLinks links = LinkParser.parse(linkValue);
+
+        assertThat(links.first()).isEqualTo(new PageLinks.PageLink("https://api.github.com/repositories/2325298/pulls?page=1", 1));
+        assertThat(links.prev()).isEqualTo(new PageLinks.PageLink("https://api.github.com/repositories/2325298/pulls?page=2", 2));
+        assertThat(links.next()).isEqualTo(new PageLinks.PageLink("https://api.github.com/repositories/2325298/pulls?page=4", 4));
+        assertThat(links.lastPage()).hasValue(11);
+    }
+
+    @Test
+    void parse_pageAmongOtherQueryParameters() {
+        final String linkValue = "<https://api.github.com/repositories/2325298/pulls/1347/files?per_page=100&page=3&state=all>; rel=\"next\"";
+
+        final PageLinks links = LinkParser.parse(linkValue);
+
+        assertThat(links.nextPage()).hasValue(3);
+        assertThat(links.last()).isNull();
+        assertThat(links.lastPage()).isEmpty();
+    }
+
+    @Test
+    void parse_lenientFormatting() {
+        final String linkValue = " <https://api.github.com/user/repos?page=2>;rel=next ,<https://api.github.com/user/repos?page=5>; title=\"x\"; REL = \"last\"";
+
+        final PageLinks links = LinkParser.parse(linkValue);
+
+        assertThat(links.nextPage()).hasValue(2);
+        assertThat(links.lastPage()).hasValue(5);
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "this is not a link value obviously",
+        "",
+        "<https://api.github.com/user/repos?page=2",
+        "<https://api.github.com/user/repos?page=2>; rel=\"something_else\""
+    })
+    void parse_invalid(String linkValue) {
+        assertThat(LinkParser.parse(linkValue)).isEqualTo(PageLinks.NONE);
+    }
+
+    @Test
+    void parse_invalidPage() {
+        final String linkValue = "<https://api.github.com/user/repos?page=two>; rel=\"last\"";
+
+        final PageLinks links = LinkParser.parse(linkValue);
+
+        assertThat(links.last().url()).isEqualTo("https://api.github.com/user/repos?page=two");
+        assertThat(links.lastPage()).isEmpty();
+    }
+
+}
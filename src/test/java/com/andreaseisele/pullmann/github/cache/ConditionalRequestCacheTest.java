@@ -0,0 +1,86 @@
+package com.andreaseisele.pullmann.github.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import okhttp3.Credentials;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class ConditionalRequestCacheTest {
+
+    private static final String URL = "https://api.github.com/repos/octocat/Hello-World/pulls/1347";
+    private static final String ETAG = "\"644b5b0155e6404a9cc4bd9d8b1ae730\"";
+
+    private ConditionalRequestCache cache;
+
+    @BeforeEach
+    void setUp() {
+        this.cache = new ConditionalRequestCache(new GitHubProperties());
+    }
+
+    @Test
+    void lookup_separatedByCredentials() {
+        final Request requestA = request(Credentials.basic("user_a", "token_a"));
+        final Request requestB = request(Credentials.basic("user_b", "token_b"));
+
+        cache.store("call", requestA, response(requestA, ETAG), "value");
+
+        assertThat(cache.lookup("call", requestA)).hasValueSatisfying(entry -> {
+            assertThat(entry.etag()).isEqualTo(ETAG);
+            assertThat(entry.value()).isEqualTo("value");
+        });
+        assertThat(cache.lookup("call", requestB)).isEmpty();
+
+        final ConditionalRequestCache.Stats stats = cache.stats();
+        assertThat(stats.hits()).isEqualTo(1);
+        assertThat(stats.misses()).isEqualTo(1);
+    }
+
+    @Test
+    void store_withoutValidators() {
+        final Request request = request(Credentials.basic("user_a", "token_a"));
+
+        cache.store("call", request, response(request, null), "value");
+
+        assertThat(cache.lookup("call", request)).isEmpty();
+    }
+
+    @Test
+    void applyTo_addsValidators() {
+        final Request request = request(Credentials.basic("user_a", "token_a"));
+        final ConditionalRequestCache.Entry entry =
+            new ConditionalRequestCache.Entry(ETAG, "Thu, 05 Jul 2012 15:31:30 GMT", "value");
+
+        final Request conditional = entry.applyTo(request);
+
+        assertThat(conditional.header(HttpHeaders.IF_NONE_MATCH)).isEqualTo(ETAG);
+        assertThat(conditional.header(HttpHeaders.IF_MODIFIED_SINCE)).isEqualTo("Thu, 05 Jul 2012 15:31:30 GMT");
+        assertThat(conditional.header(HttpHeaders.AUTHORIZATION)).isEqualTo(request.header(HttpHeaders.AUTHORIZATION));
+    }
+
+    private static Request request(String credentials) {
+        return new Request.Builder()
+            .url(URL)
+            .header(HttpHeaders.AUTHORIZATION, credentials)
+            .build();
+    }
+
+    private static Response response(Request request, String etag) {
+        final Response.Builder builder = new Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(200)
+            .message("OK");
+        if (etag != null) {
+            builder.header(HttpHeaders.ETAG, etag);
+        }
+        return builder.build();
+    }
+
+}
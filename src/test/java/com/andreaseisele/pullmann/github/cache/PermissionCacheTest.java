@@ -0,0 +1,65 @@
+package com.andreaseisele.pullmann.github.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
+import java.time.Duration;
+import okhttp3.Credentials;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PermissionCacheTest {
+
+    private static final String USER_A = Credentials.basic("user_a", "token_a");
+    private static final String USER_B = Credentials.basic("user_b", "token_b");
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+    private static final RepositoryPermission WRITE =
+        new RepositoryPermission(RepositoryPermission.Permission.WRITE, "write");
+
+    private GitHubProperties properties;
+    private PermissionCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        cache = new PermissionCache(properties);
+    }
+
+    @Test
+    void lookup_separatedByUser() {
+        cache.store(USER_A, REPOSITORY, WRITE);
+
+        assertThat(cache.lookup(USER_A, REPOSITORY)).contains(WRITE);
+        assertThat(cache.lookup(USER_A, new RepositoryName("OctoCat", "hello-world"))).contains(WRITE);
+        assertThat(cache.lookup(USER_B, REPOSITORY)).isEmpty();
+    }
+
+    @Test
+    void evict() {
+        cache.store(USER_A, REPOSITORY, WRITE);
+        cache.store(USER_B, REPOSITORY, WRITE);
+
+        cache.evict(USER_A, REPOSITORY);
+
+        assertThat(cache.lookup(USER_A, REPOSITORY)).isEmpty();
+        assertThat(cache.lookup(USER_B, REPOSITORY)).contains(WRITE);
+    }
+
+    @Test
+    void store_negativeTtl() {
+        properties.getPermissionCache().setNegativeTtlSeconds(1);
+        cache = new PermissionCache(properties);
+
+        cache.store(USER_A, REPOSITORY, RepositoryPermission.none());
+        cache.store(USER_B, REPOSITORY, WRITE);
+
+        assertThat(cache.lookup(USER_A, REPOSITORY)).contains(RepositoryPermission.none());
+        await().atMost(Duration.ofSeconds(5)).until(() -> cache.lookup(USER_A, REPOSITORY).isEmpty());
+        assertThat(cache.lookup(USER_B, REPOSITORY)).contains(WRITE);
+    }
+
+}
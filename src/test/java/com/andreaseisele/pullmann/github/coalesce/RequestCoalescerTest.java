@@ -0,0 +1,143 @@
+package com.andreaseisele.pullmann.github.coalesce;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import okhttp3.Credentials;
+import okhttp3.Request;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class RequestCoalescerTest {
+
+    private static final String URL = "https://api.github.com/repos/octocat/Hello-World/pulls/1347";
+
+    private RequestCoalescer coalescer;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        coalescer = new RequestCoalescer();
+        executor = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void executeAsync_sharesInFlightCall() {
+        final Request request = request("user_a");
+        final CompletableFuture<String> call = new CompletableFuture<>();
+        final AtomicInteger calls = new AtomicInteger();
+
+        final CompletableFuture<String> first = coalescer.executeAsync("call", request, () -> {
+            calls.incrementAndGet();
+            return call;
+        });
+        final CompletableFuture<String> second = coalescer.executeAsync("call", request, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        call.complete("value");
+
+        assertThat(first).isCompletedWithValue("value");
+        assertThat(second).isCompletedWithValue("value");
+        assertThat(calls).hasValue(1);
+        assertThat(coalescer.stats()).isEqualTo(new RequestCoalescer.Stats(1, 1, 0));
+    }
+
+    @Test
+    void executeAsync_separatedByCredentials() {
+        final CompletableFuture<String> call = new CompletableFuture<>();
+
+        coalescer.executeAsync("call", request("user_a"), () -> call);
+        final CompletableFuture<String> other =
+            coalescer.executeAsync("call", request("user_b"), () -> CompletableFuture.completedFuture("b"));
+
+        assertThat(other).isCompletedWithValue("b");
+        assertThat(coalescer.stats().coalesced()).isZero();
+    }
+
+    @Test
+    void executeAsync_failurePropagatesToEveryWaiter() {
+        final Request request = request("user_a");
+        final CompletableFuture<String> call = new CompletableFuture<>();
+
+        final CompletableFuture<String> first = coalescer.executeAsync("call", request, () -> call);
+        final CompletableFuture<String> second = coalescer.executeAsync("call", request, () -> call);
+        call.completeExceptionally(new GitHubHttpStatusException(502, "bad gateway"));
+
+        assertThat(first).failsWithin(Duration.ZERO)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GitHubHttpStatusException.class);
+        assertThat(second).failsWithin(Duration.ZERO)
+            .withThrowableOfType(ExecutionException.class)
+            .withCauseInstanceOf(GitHubHttpStatusException.class);
+    }
+
+    @Test
+    void executeAsync_releasesKeyOnCompletion() {
+        final Request request = request("user_a");
+
+        coalescer.executeAsync("call", request, () -> CompletableFuture.completedFuture("first"));
+        final CompletableFuture<String> second =
+            coalescer.executeAsync("call", request, () -> CompletableFuture.completedFuture("second"));
+
+        assertThat(second).isCompletedWithValue("second");
+        assertThat(coalescer.stats().inFlight()).isZero();
+    }
+
+    @Test
+    void execute_blockingWaiterGetsFailure() throws Exception {
+        final Request request = request("user_a");
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+
+        final Future<String> leader = executor.submit(() -> coalescer.execute("call", request, () -> {
+            started.countDown();
+            await(release);
+            throw new GitHubHttpStatusException(502, "bad gateway");
+        }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        final Future<String> waiter = executor.submit(() -> coalescer.execute("call", request, () -> "unexpected"));
+        // give the waiter time to join the flight
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThatThrownBy(leader::get).hasCauseInstanceOf(GitHubHttpStatusException.class);
+        assertThatThrownBy(waiter::get).hasCauseInstanceOf(GitHubHttpStatusException.class);
+        assertThat(coalescer.stats().coalesced()).isEqualTo(1);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Request request(String user) {
+        return new Request.Builder()
+            .url(URL)
+            .header(HttpHeaders.AUTHORIZATION, Credentials.basic(user, "token"))
+            .build();
+    }
+
+}
@@ -0,0 +1,110 @@
+package com.andreaseisele.pullmann.github.hedge;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class RequestHedgerTest {
+
+    private GitHubProperties properties;
+    private RequestHedger hedger;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getHedging().setEnabled(true);
+        properties.getHedging().setMinSamples(2);
+        properties.getHedging().setMinDelayMillis(10);
+        properties.getHedging().setMaxRatio(1.0);
+        hedger = new RequestHedger(properties);
+    }
+
+    @Test
+    void execute_notHedgedWithoutSamples() throws Exception {
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute("call", () -> attempt(attempts));
+        TimeUnit.MILLISECONDS.sleep(50);
+        attempts.get(0).complete("value");
+
+        assertThat(result).isCompletedWithValue("value");
+        assertThat(attempts).hasSize(1);
+    }
+
+    @Test
+    void execute_hedgeWinsAndCancelsSlowCall() throws Exception {
+        warmUp();
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute("call", () -> attempt(attempts));
+        waitForAttempts(attempts, 2);
+        attempts.get(1).complete("hedge");
+
+        assertThat(result.get(1, TimeUnit.SECONDS)).isEqualTo("hedge");
+        assertThat(attempts.get(0)).isCancelled();
+        assertThat(hedger.stats().hedgeWins()).isEqualTo(1);
+    }
+
+    @Test
+    void execute_failureOfOneAttemptWaitsForTheOther() throws Exception {
+        warmUp();
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute("call", () -> attempt(attempts));
+        waitForAttempts(attempts, 2);
+        attempts.get(0).completeExceptionally(new IllegalStateException("boom"));
+
+        assertThat(result).isNotDone();
+        attempts.get(1).complete("hedge");
+        assertThat(result).isCompletedWithValue("hedge");
+    }
+
+    @Test
+    void execute_budgetExhausted() throws Exception {
+        properties.getHedging().setMaxRatio(0.0);
+        warmUp();
+        final List<CompletableFuture<String>> attempts = new CopyOnWriteArrayList<>();
+
+        final CompletableFuture<String> result = hedger.execute("call", () -> attempt(attempts));
+        TimeUnit.MILLISECONDS.sleep(50);
+        attempts.get(0).complete("value");
+
+        assertThat(result).isCompletedWithValue("value");
+        assertThat(attempts).hasSize(1);
+        assertThat(hedger.stats().hedged()).isZero();
+    }
+
+    @Test
+    void execute_disabled() {
+        properties.getHedging().setEnabled(false);
+        final CompletableFuture<String> attempt = new CompletableFuture<>();
+
+        assertThat(hedger.execute("call", () -> attempt)).isSameAs(attempt);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i < properties.getHedging().getMinSamples(); i++) {
+            hedger.execute("call", () -> CompletableFuture.completedFuture("warm-up")).join();
+        }
+    }
+
+    private static CompletableFuture<String> attempt(List<CompletableFuture<String>> attempts) {
+        final CompletableFuture<String> attempt = new CompletableFuture<>();
+        attempts.add(attempt);
+        return attempt;
+    }
+
+    private static void waitForAttempts(List<CompletableFuture<String>> attempts, int count) {
+        await().atMost(Duration.ofSeconds(1)).until(() -> attempts.size() == count);
+    }
+
+}
@@ -0,0 +1,42 @@
+package com.andreaseisele.pullmann.github.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+
+import com.andreaseisele.pullmann.github.dto.RepositoryPermission;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class ObjectReadersTest {
+
+    private final ObjectReaders objectReaders = new ObjectReaders(new ObjectMapper());
+
+    @Test
+    void forType_cached() {
+        assertThat(objectReaders.forType(RepositoryPermission.class))
+            .isSameAs(objectReaders.forType(RepositoryPermission.class));
+        assertThat(objectReaders.forListOf(RepositoryPermission.class))
+            .isSameAs(objectReaders.forListOf(RepositoryPermission.class))
+            .isNotSameAs(objectReaders.forType(RepositoryPermission.class));
+    }
+
+    @Test
+    void forListOf_readsBytes() throws IOException {
+        final byte[] json = "[{\"permission\":\"ADMIN\",\"role_name\":\"admin\"},{\"permission\":\"READ\",\"role_name\":\"triage\"}]".getBytes(StandardCharsets.UTF_8);
+
+        final List<RepositoryPermission> permissions = objectReaders.forListOf(RepositoryPermission.class)
+            .readValue(new ByteArrayInputStream(json));
+
+        assertThat(permissions)
+            .extracting(RepositoryPermission::permission, RepositoryPermission::roleName)
+            .containsExactly(
+                tuple(RepositoryPermission.Permission.ADMIN, "admin"),
+                tuple(RepositoryPermission.Permission.READ, "triage"));
+    }
+
+}
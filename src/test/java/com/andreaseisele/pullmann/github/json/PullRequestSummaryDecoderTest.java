@@ -0,0 +1,69 @@
+package com.andreaseisele.pullmann.github.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class PullRequestSummaryDecoderTest {
+
+    private final JsonFactory jsonFactory = new JsonFactory();
+    private final PullRequestSummaryDecoder decoder = new PullRequestSummaryDecoder();
+
+    @Test
+    void decode_githubPayload() throws IOException {
+        final List<PullRequestSummary> summaries;
+        try (final InputStream in = getClass().getResourceAsStream("/__files/repo_pull_requests.json");
+             final JsonParser parser = jsonFactory.createParser(in)) {
+            summaries = decoder.decode(parser);
+        }
+
+        assertThat(summaries).containsExactly(new PullRequestSummary(1L,
+            1347L,
+            "Amazing new feature",
+            PullRequest.State.OPEN,
+            "octocat",
+            null,
+            "octocat:new-topic",
+            "octocat:master",
+            Instant.parse("2011-01-26T19:01:12Z")));
+    }
+
+    @Test
+    void decode_nullsAndMissingFields() throws IOException {
+        final String json = """
+            [
+              {"id": 2, "number": 7, "title": null, "state": "closed", "user": null, "body": "x", "head": {}},
+              {"id": 3, "state": "unknown", "labels": [{"name": "bug"}]}
+            ]
+            """;
+
+        final List<PullRequestSummary> summaries;
+        try (final JsonParser parser = jsonFactory.createParser(json)) {
+            summaries = decoder.decode(parser);
+        }
+
+        assertThat(summaries).containsExactly(
+            new PullRequestSummary(2L, 7L, null, PullRequest.State.CLOSED, null, null, null, null, null),
+            new PullRequestSummary(3L, null, null, null, null, null, null, null, null));
+    }
+
+    @Test
+    void decode_noArray() throws IOException {
+        try (final JsonParser parser = jsonFactory.createParser("{\"message\": \"Not Found\"}")) {
+            assertThatThrownBy(() -> decoder.decode(parser))
+                .isInstanceOf(JsonParseException.class);
+        }
+    }
+
+}
@@ -0,0 +1,128 @@
+package com.andreaseisele.pullmann.github.ratelimit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+
+
+import com.andreaseisele.pullmann.github.GitHubHeaders;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.RequestPriority;
+import com.andreaseisele.pullmann.github.error.GitHubRateLimitException;
+import java.time.Duration;
+import java.time.Instant;
+import okhttp3.Credentials;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class RateLimitTrackerTest {
+
+    private static final String CREDENTIALS = Credentials.basic("test_user", "test");
+
+    private GitHubProperties properties;
+
+    private RateLimitTracker tracker;
+
+    @BeforeEach
+    void setUp() {
+        this.properties = new GitHubProperties();
+        properties.getRateLimit().setReserve(100);
+        properties.getRateLimit().setMaxDelaySeconds(0);
+        this.tracker = new RateLimitTracker(properties);
+    }
+
+    @Test
+    void update_readsHeaders() {
+        final long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+
+        tracker.update(CREDENTIALS, response(200, 5000, 4999, reset, null));
+
+        assertThat(tracker.budget(CREDENTIALS)).hasValueSatisfying(budget -> {
+            assertThat(budget.limit()).isEqualTo(5000);
+            assertThat(budget.remaining()).isEqualTo(4999);
+            assertThat(budget.reset()).isEqualTo(Instant.ofEpochSecond(reset));
+            assertThat(budget.retryAfter()).isNull();
+        });
+        assertThat(tracker.budget(Credentials.basic("other_user", "other"))).isEmpty();
+    }
+
+    @Test
+    void acquire_unknownBudget() {
+        assertDoesNotThrow(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.BACKGROUND));
+    }
+
+    @Test
+    void acquire_belowReserve_shedsBackgroundOnly() {
+        final long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        tracker.update(CREDENTIALS, response(200, 5000, 50, reset, null));
+
+        assertDoesNotThrow(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.INTERACTIVE));
+        assertThatThrownBy(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.BACKGROUND))
+            .isInstanceOf(GitHubRateLimitException.class)
+            .hasFieldOrPropertyWithValue("retryAt", Instant.ofEpochSecond(reset));
+    }
+
+    @Test
+    void acquire_belowReserve_delaysBackground() {
+        properties.getRateLimit().setMaxDelaySeconds(5);
+        final Instant start = Instant.now();
+        // epoch seconds are truncated, so the reset is at least one second ahead
+        final long reset = start.plusSeconds(2).getEpochSecond();
+        tracker.update(CREDENTIALS, response(200, 5000, 50, reset, null));
+
+        tracker.acquire("call", CREDENTIALS, RequestPriority.BACKGROUND);
+
+        assertThat(Duration.between(start, Instant.now())).isGreaterThanOrEqualTo(Duration.ofMillis(900));
+    }
+
+    @Test
+    void acquire_exhausted_shedsInteractive() {
+        final long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        tracker.update(CREDENTIALS, response(403, 5000, 0, reset, null));
+
+        assertThatThrownBy(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.INTERACTIVE))
+            .isInstanceOf(GitHubRateLimitException.class);
+    }
+
+    @Test
+    void acquire_retryAfter() {
+        final long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        tracker.update(CREDENTIALS, response(403, 5000, 4000, reset, "60"));
+
+        assertThatThrownBy(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.INTERACTIVE))
+            .isInstanceOf(GitHubRateLimitException.class);
+    }
+
+    @Test
+    void acquire_disabled() {
+        properties.getRateLimit().setEnabled(false);
+        final long reset = Instant.now().plusSeconds(3600).getEpochSecond();
+        tracker.update(CREDENTIALS, response(403, 5000, 0, reset, null));
+
+        assertDoesNotThrow(() -> tracker.acquire("call", CREDENTIALS, RequestPriority.BACKGROUND));
+    }
+
+    private static Response response(int code, int limit, int remaining, long reset, String retryAfter) {
+        final Request request = new Request.Builder()
+            .url("https://api.github.com/user")
+            .build();
+
+        final Response.Builder builder = new Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(code)
+            .message("status")
+            .header(GitHubHeaders.RATE_LIMIT_LIMIT, String.valueOf(limit))
+            .header(GitHubHeaders.RATE_LIMIT_REMAINING, String.valueOf(remaining))
+            .header(GitHubHeaders.RATE_LIMIT_RESET, String.valueOf(reset));
+        if (retryAfter != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return builder.build();
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.andreaseisele.pullmann.github.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+
+import com.andreaseisele.pullmann.github.error.GitHubCircuitOpenException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensAfterConsecutiveFailures() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("call", 3, Duration.ofMinutes(1));
+
+        circuitBreaker.acquire().record(502);
+        circuitBreaker.acquire().failure();
+        circuitBreaker.acquire().record(404); // client errors reset the streak
+        circuitBreaker.acquire().failure();
+        circuitBreaker.acquire().failure();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        circuitBreaker.acquire().record(503);
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThatThrownBy(circuitBreaker::acquire)
+            .isInstanceOf(GitHubCircuitOpenException.class)
+            .satisfies(e -> assertThat(((GitHubCircuitOpenException) e).getRetryAt()).isNotNull());
+    }
+
+    @Test
+    void halfOpen_singleTrialCloses() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("call", 1, Duration.ZERO);
+        circuitBreaker.acquire().failure();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+
+        final CircuitBreaker.Permit trial = circuitBreaker.acquire();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThatThrownBy(circuitBreaker::acquire).isInstanceOf(GitHubCircuitOpenException.class);
+
+        trial.success();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void halfOpen_failedTrialReopens() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("call", 1, Duration.ZERO);
+        circuitBreaker.acquire().failure();
+
+        circuitBreaker.acquire().failure();
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void halfOpen_releasedTrialAllowsNext() {
+        final CircuitBreaker circuitBreaker = new CircuitBreaker("call", 1, Duration.ZERO);
+        circuitBreaker.acquire().failure();
+
+        final CircuitBreaker.Permit trial = circuitBreaker.acquire();
+        trial.release();
+        trial.failure(); // ignored, already released
+
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        circuitBreaker.acquire().success();
+        assertThat(circuitBreaker.getState()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+}
@@ -0,0 +1,103 @@
+package com.andreaseisele.pullmann.github.resilience;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import java.io.IOException;
+import java.time.Duration;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.http.HttpHeaders;
+
+class RetryPolicyTest {
+
+    private static final String URL = "https://api.github.com/repos/octocat/Hello-World/pulls/1347";
+
+    private GitHubProperties properties;
+    private RetryPolicy retryPolicy;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getResilience().setInitialBackoffMillis(100);
+        properties.getResilience().setMaxBackoffMillis(1000);
+        retryPolicy = new RetryPolicy(properties);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {500, 502, 503, 504})
+    void retryDelay_transientStatus(int status) {
+        final Request request = get();
+
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, status, null)))
+            .hasValueSatisfying(delay -> assertThat(delay).isBetween(Duration.ofMillis(50), Duration.ofMillis(100)));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {200, 304, 403, 404, 422})
+    void retryDelay_otherStatus(int status) {
+        final Request request = get();
+
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, status, null))).isEmpty();
+    }
+
+    @Test
+    void retryDelay_neverForMutations() {
+        final Request put = new Request.Builder()
+            .url(URL + "/merge")
+            .put(RequestBody.create(new byte[0]))
+            .build();
+
+        assertThat(retryPolicy.retryDelay(put, 1, response(put, 502, null))).isEmpty();
+        assertThat(retryPolicy.retryDelay(put, 1, new IOException("connection reset"))).isEmpty();
+    }
+
+    @Test
+    void retryDelay_attemptsExhausted() {
+        final Request request = get();
+
+        assertThat(retryPolicy.retryDelay(request, 2, new IOException("connection reset"))).isPresent();
+        assertThat(retryPolicy.retryDelay(request, 3, new IOException("connection reset"))).isEmpty();
+    }
+
+    @Test
+    void retryDelay_honorsRetryAfter() {
+        final Request request = get();
+        properties.getResilience().setMaxBackoffMillis(5000);
+
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, 503, "2"))).contains(Duration.ofSeconds(2));
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, 429, "2"))).contains(Duration.ofSeconds(2));
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, 503, "60"))).isEmpty();
+        assertThat(retryPolicy.retryDelay(request, 1, response(request, 429, null))).isEmpty();
+    }
+
+    @Test
+    void backoff_exponentialAndCapped() {
+        assertThat(retryPolicy.backoff(2)).isBetween(Duration.ofMillis(100), Duration.ofMillis(200));
+        assertThat(retryPolicy.backoff(10)).isBetween(Duration.ofMillis(500), Duration.ofMillis(1000));
+    }
+
+    private static Request get() {
+        return new Request.Builder().url(URL).build();
+    }
+
+    private static Response response(Request request, int status, String retryAfter) {
+        final Response.Builder builder = new Response.Builder()
+            .request(request)
+            .protocol(Protocol.HTTP_1_1)
+            .code(status)
+            .message("status " + status);
+        if (retryAfter != null) {
+            builder.header(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return builder.build();
+    }
+
+}
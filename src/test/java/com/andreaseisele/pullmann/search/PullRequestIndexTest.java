@@ -0,0 +1,152 @@
+package com.andreaseisele.pullmann.search;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.dto.User;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import org.apache.lucene.index.DirectoryReader;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+class PullRequestIndexTest {
+
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+    private static final Instant UPDATED_AT = Instant.parse("2022-08-01T10:00:00Z");
+
+    @TempDir
+    Path tempDir;
+
+    private GitHubProperties properties;
+    private PullRequestIndex index;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getSearch().setLocation(new FileSystemResource(tempDir));
+        index = new PullRequestIndex(properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        index.close();
+    }
+
+    @Test
+    void search_matchesTitleBodyAuthorAndBranch() {
+        index.update(REPOSITORY, List.of(
+            pullRequest(1, "Amazing new feature", "Please pull these awesome changes in!", "octocat", "new-topic"),
+            pullRequest(2, "Fix typo", "Spelling in the readme", "hubot", "typo-fix")));
+
+        assertThat(search("amazing")).containsExactly(1L);
+        assertThat(search("awesome changes")).containsExactly(1L);
+        assertThat(search("hubot")).containsExactly(2L);
+        assertThat(search("typo")).containsExactly(2L);
+        assertThat(search("feature readme")).isEmpty();
+        assertThat(search("feature | readme")).containsExactlyInAnyOrder(1L, 2L);
+    }
+
+    @Test
+    void search_returnsStoredSummary() {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+
+        assertThat(index.search(REPOSITORY, "amazing")).containsExactly(new PullRequestSummary(1L,
+            1L,
+            "Amazing new feature",
+            PullRequest.State.OPEN,
+            "octocat",
+            null,
+            "octocat:new-topic",
+            "octocat:master",
+            UPDATED_AT));
+    }
+
+    @Test
+    void update_replacesDocument() {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+        index.update(REPOSITORY, List.of(pullRequest(1, "Boring old feature", null, "octocat", "new-topic")));
+
+        assertThat(search("amazing")).isEmpty();
+        assertThat(search("feature")).containsExactly(1L);
+    }
+
+    @Test
+    void search_scopedToRepository() {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+        index.update(new RepositoryName("octocat", "Spoon-Knife"),
+            List.of(pullRequest(1, "Amazing fork", null, "octocat", "fork")));
+
+        assertThat(search("amazing")).containsExactly(1L);
+        assertThat(index.search(new RepositoryName("OctoCat", "spoon-knife"), "amazing"))
+            .extracting(PullRequestSummary::title)
+            .containsExactly("Amazing fork");
+    }
+
+    @Test
+    void search_persistedAcrossRestarts() throws IOException {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+        index.close();
+
+        index = new PullRequestIndex(properties);
+
+        assertThat(search("amazing")).containsExactly(1L);
+    }
+
+    @Test
+    void update_visibleBeforeCommit() throws IOException {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+
+        assertThat(search("amazing")).containsExactly(1L);
+        try (Directory directory = FSDirectory.open(tempDir)) {
+            assertThat(DirectoryReader.indexExists(directory)).isFalse();
+
+            index.commit();
+
+            try (DirectoryReader reader = DirectoryReader.open(directory)) {
+                assertThat(reader.numDocs()).isEqualTo(1);
+            }
+        }
+    }
+
+    @Test
+    void search_malformedQuery() {
+        index.update(REPOSITORY, List.of(pullRequest(1, "Amazing new feature", null, "octocat", "new-topic")));
+
+        assertThat(search("\"amazing")).containsExactly(1L);
+        assertThat(search("-")).isEmpty();
+    }
+
+    private List<Long> search(String query) {
+        return index.search(REPOSITORY, query).stream().map(PullRequestSummary::number).toList();
+    }
+
+    private static PullRequest pullRequest(long number, String title, String body, String author, String branch) {
+        return new PullRequest(number,
+            number,
+            null,
+            title,
+            body,
+            PullRequest.State.OPEN,
+            new User(null, author, null, null, null, null),
+            new BranchInfo("octocat:" + branch, branch, null),
+            new BranchInfo("octocat:master", "master", null),
+            null,
+            null,
+            false,
+            UPDATED_AT);
+    }
+
+}
@@ -0,0 +1,86 @@
+package com.andreaseisele.pullmann.security;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.GitHubUnauthorizedEvent;
+import com.andreaseisele.pullmann.github.dto.User;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import okhttp3.Credentials;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class PatValidationCacheTest {
+
+    private static final User USER = new User(1L, "octocat", "monalisa octocat", "octocat@github.com", null, null);
+
+    private PatValidationCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new PatValidationCache(new GitHubProperties());
+    }
+
+    @Test
+    void lookup_separatedByCredentials() {
+        final String credentials = Credentials.basic("octocat", "token_a");
+        final PatValidationCache.Validation validation = validation(null);
+
+        cache.store(credentials, validation);
+
+        assertThat(cache.lookup(credentials)).contains(validation);
+        assertThat(cache.lookup(Credentials.basic("octocat", "token_b"))).isEmpty();
+        assertThat(cache.lookup(Credentials.basic("someone_else", "token_a"))).isEmpty();
+    }
+
+    @Test
+    void store_expiredToken() {
+        final String credentials = Credentials.basic("octocat", "token_a");
+
+        cache.store(credentials, validation(LocalDateTime.now(ZoneOffset.UTC).minusMinutes(1)));
+
+        assertThat(cache.lookup(credentials)).isEmpty();
+    }
+
+    @Test
+    void store_expiresWithToken() {
+        final String credentials = Credentials.basic("octocat", "token_a");
+
+        cache.store(credentials, validation(LocalDateTime.now(ZoneOffset.UTC).plusSeconds(1)));
+
+        assertThat(cache.lookup(credentials)).isPresent();
+        await().atMost(Duration.ofSeconds(5)).until(() -> cache.lookup(credentials).isEmpty());
+    }
+
+    @Test
+    void onUnauthorized_invalidates() {
+        final String credentials = Credentials.basic("octocat", "token_a");
+        cache.store(credentials, validation(null));
+
+        cache.onUnauthorized(new GitHubUnauthorizedEvent(credentials));
+
+        assertThat(cache.lookup(credentials)).isEmpty();
+    }
+
+    @Test
+    void lookup_disabled() {
+        final GitHubProperties properties = new GitHubProperties();
+        properties.getLoginCache().setEnabled(false);
+        final PatValidationCache disabled = new PatValidationCache(properties);
+        final String credentials = Credentials.basic("octocat", "token_a");
+
+        disabled.store(credentials, validation(null));
+
+        assertThat(disabled.lookup(credentials)).isEmpty();
+    }
+
+    private static PatValidationCache.Validation validation(LocalDateTime tokenExpiry) {
+        return new PatValidationCache.Validation(USER, Set.of("repo", "read:user"), tokenExpiry);
+    }
+
+}
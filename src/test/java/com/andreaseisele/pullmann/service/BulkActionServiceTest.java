@@ -0,0 +1,239 @@
+package com.andreaseisele.pullmann.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+import com.andreaseisele.pullmann.bulk.BulkAction;
+import com.andreaseisele.pullmann.bulk.BulkItem;
+import com.andreaseisele.pullmann.bulk.BulkItemState;
+import com.andreaseisele.pullmann.bulk.BulkJob;
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.MergeResponse;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import com.andreaseisele.pullmann.github.ratelimit.RateLimitBudget;
+import com.andreaseisele.pullmann.github.result.MergeResult;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.merge.MergeTicketState;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.task.DelegatingSecurityContextAsyncTaskExecutor;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class BulkActionServiceTest {
+
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+    private static final PullRequestCoordinates FIRST = new PullRequestCoordinates(REPOSITORY, 1);
+    private static final PullRequestCoordinates SECOND = new PullRequestCoordinates(REPOSITORY, 2);
+    private static final PullRequestCoordinates THIRD = new PullRequestCoordinates(REPOSITORY, 3);
+
+    @Mock
+    private GitHubClient gitHubClient;
+
+    @Mock
+    private PullRequestSync pullRequestSync;
+
+    private GitHubProperties properties;
+    private BulkActionService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getBulkAction().setPacingMillis(0);
+        final MergeQueue mergeQueue =
+            new MergeQueue(gitHubClient, new TaskExecutorAdapter(Runnable::run), pullRequestSync, properties);
+        service = new BulkActionService(gitHubClient, mergeQueue, new TaskExecutorAdapter(Runnable::run),
+            pullRequestSync, properties);
+        authenticate("octocat");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void start_merge() {
+        when(gitHubClient.pullRequestDetails(FIRST)).thenReturn(pullRequest(1, "sha1"));
+        when(gitHubClient.pullRequestDetails(SECOND)).thenReturn(pullRequest(2, "sha2"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1"))
+            .thenReturn(MergeResult.of(new MergeResponse("m1", true, "merged")));
+        when(gitHubClient.merge(SECOND, properties.getMergeMessage(), "sha2")).thenReturn(MergeResult.failure());
+
+        final BulkJob job = service.start(BulkAction.MERGE, Set.of(SECOND, FIRST));
+
+        assertThat(job.isFinished()).isTrue();
+        assertThat(job.getItems()).extracting(BulkItem::coordinates).containsExactly(FIRST, SECOND);
+        assertThat(job.getItems()).extracting(BulkItem::state)
+            .containsExactly(BulkItemState.SUCCEEDED, BulkItemState.FAILED);
+        verify(pullRequestSync, atLeastOnce()).markDue(REPOSITORY);
+    }
+
+    @Test
+    void start_merge_waitsForQueuedMergeOfSameRepository() {
+        final List<Runnable> mergeTasks = new CopyOnWriteArrayList<>();
+        final MergeQueue mergeQueue =
+            new MergeQueue(gitHubClient, new TaskExecutorAdapter(mergeTasks::add), pullRequestSync, properties);
+        final ExecutorService bulkThread = Executors.newSingleThreadExecutor();
+        service = new BulkActionService(gitHubClient,
+            mergeQueue,
+            new DelegatingSecurityContextAsyncTaskExecutor(new TaskExecutorAdapter(bulkThread)),
+            pullRequestSync,
+            properties);
+        when(gitHubClient.pullRequestDetails(SECOND)).thenReturn(pullRequest(2, "sha2"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1"))
+            .thenReturn(MergeResult.of(new MergeResponse("m1", true, "merged")));
+        when(gitHubClient.merge(SECOND, properties.getMergeMessage(), "sha2"))
+            .thenReturn(MergeResult.of(new MergeResponse("m2", true, "merged")));
+        when(gitHubClient.close(THIRD)).thenReturn(true);
+
+        try {
+            final MergeTicket ticket = mergeQueue.enqueue(FIRST, "sha1");
+            final BulkJob job = service.start(BulkAction.MERGE, Set.of(SECOND));
+
+            // the bulk merge waits behind the queued one instead of merging on its own
+            await().until(() -> mergeQueue.queueLength(REPOSITORY) == 2);
+            assertThat(mergeTasks).hasSize(1);
+            verify(gitHubClient, never()).merge(any(), any(), any());
+
+            // the only bulk thread is not blocked by the queued merge
+            final BulkJob close = service.start(BulkAction.CLOSE, Set.of(THIRD));
+            await().until(close::isFinished);
+            assertThat(job.isFinished()).isFalse();
+
+            mergeTasks.get(0).run();
+
+            await().until(job::isFinished);
+            assertThat(ticket.status().state()).isEqualTo(MergeTicketState.MERGED);
+            assertThat(job.getItems()).containsExactly(new BulkItem(SECOND, BulkItemState.SUCCEEDED, null));
+            final InOrder merges = inOrder(gitHubClient);
+            merges.verify(gitHubClient).merge(FIRST, properties.getMergeMessage(), "sha1");
+            merges.verify(gitHubClient).merge(SECOND, properties.getMergeMessage(), "sha2");
+        } finally {
+            bulkThread.shutdownNow();
+        }
+    }
+
+    @Test
+    void start_merge_fullQueueIsRejected() {
+        properties.getMergeQueue().setMaxQueueLength(1);
+        final List<Runnable> mergeTasks = new CopyOnWriteArrayList<>();
+        final MergeQueue mergeQueue =
+            new MergeQueue(gitHubClient, new TaskExecutorAdapter(mergeTasks::add), pullRequestSync, properties);
+        service = new BulkActionService(gitHubClient, mergeQueue, new TaskExecutorAdapter(Runnable::run),
+            pullRequestSync, properties);
+        mergeQueue.enqueue(FIRST, "sha1");
+
+        final BulkJob job = service.start(BulkAction.MERGE, Set.of(SECOND));
+
+        assertThat(job.isFinished()).isTrue();
+        assertThat(job.getItems()).containsExactly(
+            new BulkItem(SECOND, BulkItemState.REJECTED, "merge queue is full, please retry later"));
+        assertThat(job.getRejected()).containsExactly(SECOND);
+
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1"))
+            .thenReturn(MergeResult.of(new MergeResponse("m1", true, "merged")));
+        mergeTasks.get(0).run();
+
+        final BulkJob retry = service.retryRejected(job);
+
+        assertThat(retry.getId()).isNotEqualTo(job.getId());
+        assertThat(retry.getAction()).isEqualTo(BulkAction.MERGE);
+        assertThat(retry.getItems()).extracting(BulkItem::coordinates).containsExactly(SECOND);
+        assertThat(mergeQueue.queueLength(REPOSITORY)).isEqualTo(1);
+    }
+
+    @Test
+    void retryRejected_nothingRejected() {
+        when(gitHubClient.close(FIRST)).thenReturn(true);
+        final BulkJob job = service.start(BulkAction.CLOSE, Set.of(FIRST));
+
+        assertThatThrownBy(() -> service.retryRejected(job)).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void start_close_failureIsRecorded() {
+        when(gitHubClient.close(FIRST)).thenReturn(true);
+        when(gitHubClient.close(SECOND)).thenThrow(new GitHubHttpStatusException(500, "server error"));
+
+        final BulkJob job = service.start(BulkAction.CLOSE, Set.of(FIRST, SECOND));
+
+        assertThat(job.getItems()).containsExactly(
+            new BulkItem(FIRST, BulkItemState.SUCCEEDED, null),
+            new BulkItem(SECOND, BulkItemState.FAILED, "HTTP Status 500: server error"));
+    }
+
+    @Test
+    void start_rateLimitedTooLong() {
+        properties.getBulkAction().setMaxRateLimitWaitSeconds(1);
+        final Instant reset = Instant.now().plusSeconds(600);
+        when(gitHubClient.currentRateLimitBudget()).thenReturn(Optional.of(new RateLimitBudget(5000, 0, reset, null)));
+
+        final BulkJob job = service.start(BulkAction.CLOSE, Set.of(FIRST));
+
+        assertThat(job.getItems()).extracting(BulkItem::state).containsExactly(BulkItemState.FAILED);
+        verify(gitHubClient, never()).close(any());
+    }
+
+    @Test
+    void start_tooManyPullRequests() {
+        properties.getBulkAction().setMaxPullRequests(1);
+
+        assertThatThrownBy(() -> service.start(BulkAction.CLOSE, Set.of(FIRST, SECOND)))
+            .isInstanceOf(ResponseStatusException.class);
+        assertThatThrownBy(() -> service.start(BulkAction.CLOSE, Set.of()))
+            .isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void find_onlyOwnJobs() {
+        when(gitHubClient.close(FIRST)).thenReturn(true);
+        final BulkJob job = service.start(BulkAction.CLOSE, Set.of(FIRST));
+
+        assertThat(service.find(job.getId())).containsSame(job);
+
+        authenticate("hubot");
+        assertThat(service.find(job.getId())).isEmpty();
+    }
+
+    private static void authenticate(String username) {
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken(username, "token", Collections.emptyList()));
+    }
+
+    private static PullRequest pullRequest(long number, String sha) {
+        return new PullRequest(number, number, null, "title", null, PullRequest.State.OPEN, null,
+            new BranchInfo("octocat:feature", "feature", sha), null, null, true, false, null);
+    }
+
+}
@@ -1,31 +1,42 @@
 package com.andreaseisele.pullmann.service;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.awaitility.Awaitility.await;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 
 import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
 import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.download.DownloadScheduler;
 import com.andreaseisele.pullmann.download.DownloadState;
 import com.andreaseisele.pullmann.download.FileStore;
 import com.andreaseisele.pullmann.download.PullRequestDownload;
 import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
 import com.andreaseisele.pullmann.github.dto.BranchInfo;
 import com.andreaseisele.pullmann.github.dto.PullRequest;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import java.nio.file.Path;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.Executors;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.AdditionalAnswers;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.TaskRejectedException;
 import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
 
 @ExtendWith(MockitoExtension.class)
 class DownloadServiceTest {
@@ -36,12 +47,23 @@ class DownloadServiceTest {
     @Mock
     private GitHubClient gitHubClient;
 
+    private GitHubProperties properties;
     private DownloadService service;
 
     @BeforeEach
     void setUp() {
         final TaskExecutorAdapter pullRequestDownloadExecutor = new TaskExecutorAdapter(Executors.newSingleThreadExecutor());
-        this.service = new DownloadService(gitHubClient, pullRequestDownloadExecutor, fileStore);
+        final DownloadScheduler downloadScheduler =
+            new DownloadScheduler(pullRequestDownloadExecutor, 1, 10, 10, new SimpleMeterRegistry());
+        this.properties = new GitHubProperties();
+        this.service = new DownloadService(gitHubClient, downloadScheduler, fileStore, properties);
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken("octocat", "token", Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
     }
 
     @Test
@@ -58,7 +80,7 @@ class DownloadServiceTest {
         final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
         final PullRequestDownload download = new PullRequestDownload(coordinates, ref);
         final BranchInfo head = new BranchInfo("main", "main", ref);
-        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false);
+        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false, null);
 
         when(fileStore.getForPullRequest(download)).thenReturn(Path.of(""));
 
@@ -86,7 +108,7 @@ class DownloadServiceTest {
         final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
         final PullRequestDownload download = new PullRequestDownload(coordinates, ref);
         final BranchInfo head = new BranchInfo("main", "main", ref);
-        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false);
+        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false, null);
 
         when(fileStore.getForPullRequest(download)).thenReturn(Path.of(""));
 
@@ -109,6 +131,103 @@ class DownloadServiceTest {
         assertThat(service.getDownloads()).doesNotContainKey(download);
     }
 
+    @Test
+    void startDownload_restartsAfterError() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1);
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final PullRequestDownload download = new PullRequestDownload(coordinates, ref);
+        final BranchInfo head = new BranchInfo("main", "main", ref);
+        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false, null);
+
+        when(fileStore.getForPullRequest(download)).thenReturn(Path.of(""));
+
+        when(gitHubClient.pullRequestDetails(coordinates)).thenReturn(pullRequest);
+
+        when(gitHubClient.downloadRepoContent(eq(repositoryName), eq(ref), any(Path.class)))
+            .thenThrow(new RuntimeException("connection reset"))
+            .thenReturn(true);
+
+        service.startDownload(coordinates);
+
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(service.getDownloads()).containsEntry(download, DownloadState.ERROR));
+
+        service.startDownload(coordinates);
+
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(service.getDownloads()).containsEntry(download, DownloadState.FINISHED));
+    }
+
+    @Test
+    void startDownload_linksSharedZip() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 2);
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final PullRequestDownload download = new PullRequestDownload(coordinates, ref);
+        final BranchInfo head = new BranchInfo("main", "main", ref);
+        final PullRequest pullRequest = new PullRequest(2L, 2L, null, null, null, null, null, head, null, 0L, false, false, null);
+
+        when(fileStore.getForPullRequest(download)).thenReturn(Path.of(""));
+        when(fileStore.linkShared(download)).thenReturn(true);
+
+        when(gitHubClient.pullRequestDetails(coordinates)).thenReturn(pullRequest);
+
+        service.startDownload(coordinates);
+
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(service.getDownloads()).containsEntry(download, DownloadState.FINISHED));
+        verify(gitHubClient, never()).downloadRepoContent(any(), any(), any());
+    }
+
+    @Test
+    void startDownload_rejectedIsRolledBack() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1);
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final BranchInfo head = new BranchInfo("main", "main", ref);
+        final PullRequest pullRequest = new PullRequest(1L, 1L, null, null, null, null, null, head, null, 0L, false, false, null);
+        final DownloadScheduler rejectingScheduler =
+            new DownloadScheduler(new TaskExecutorAdapter(task -> {
+                throw new TaskRejectedException("no workers");
+            }), 1, 10, 10, new SimpleMeterRegistry());
+        service = new DownloadService(gitHubClient, rejectingScheduler, fileStore, properties);
+
+        when(gitHubClient.pullRequestDetails(coordinates)).thenReturn(pullRequest);
+
+        assertThatThrownBy(() -> service.startDownload(coordinates)).isInstanceOf(TaskRejectedException.class);
+        assertThat(service.getDownloads()).isEmpty();
+    }
+
+    @Test
+    void prefetch() {
+        final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
+        final PullRequestCoordinates coordinates = new PullRequestCoordinates(repositoryName, 1);
+        final String ref = "5bed3c62446116728f65e3809210bb605f11e687";
+        final PullRequestDownload download = new PullRequestDownload(coordinates, ref);
+
+        service.prefetch(coordinates, ref);
+        assertThat(service.getDownloads()).isEmpty();
+
+        properties.getDownload().setPrefetch(true);
+        when(fileStore.getForPullRequest(download)).thenReturn(Path.of(""));
+        when(gitHubClient.downloadRepoContent(eq(repositoryName), eq(ref), any(Path.class))).thenReturn(true);
+
+        service.prefetch(coordinates, ref);
+
+        await()
+            .atMost(Duration.ofSeconds(5))
+            .untilAsserted(() ->
+                assertThat(service.getDownloads()).containsEntry(download, DownloadState.FINISHED));
+        verify(gitHubClient, never()).pullRequestDetails(any());
+    }
+
     @Test
     void deleteZip_notExisting() {
         final RepositoryName repositoryName = new RepositoryName("octocat", "Hello-World");
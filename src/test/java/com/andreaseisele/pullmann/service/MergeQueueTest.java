@@ -0,0 +1,182 @@
+package com.andreaseisele.pullmann.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+import com.andreaseisele.pullmann.domain.PullRequestCoordinates;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.MergeResponse;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.result.MergeResult;
+import com.andreaseisele.pullmann.merge.MergeTicket;
+import com.andreaseisele.pullmann.merge.MergeTicketState;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.ResponseStatusException;
+
+@ExtendWith(MockitoExtension.class)
+class MergeQueueTest {
+
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+    private static final PullRequestCoordinates FIRST = new PullRequestCoordinates(REPOSITORY, 1);
+    private static final PullRequestCoordinates SECOND = new PullRequestCoordinates(REPOSITORY, 2);
+    private static final PullRequestCoordinates OTHER_REPOSITORY =
+        new PullRequestCoordinates(new RepositoryName("octocat", "Spoon-Knife"), 1);
+
+    @Mock
+    private GitHubClient gitHubClient;
+
+    @Mock
+    private PullRequestSync pullRequestSync;
+
+    private GitHubProperties properties;
+    private List<Runnable> tasks;
+    private MergeQueue queue;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getMergeQueue().setRetryDelayMillis(0);
+        tasks = new ArrayList<>();
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken("octocat", "token", Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void enqueue_retriesConflictWithCurrentHead() {
+        queue = synchronousQueue();
+        when(gitHubClient.pullRequestDetails(FIRST))
+            .thenReturn(pullRequest("sha1"))
+            .thenReturn(pullRequest("sha2"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1")).thenReturn(MergeResult.failure(409));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha2")).thenReturn(merged());
+
+        final MergeTicket ticket = queue.enqueue(FIRST, null);
+
+        assertThat(ticket.status().state()).isEqualTo(MergeTicketState.MERGED);
+        verify(pullRequestSync).markDue(REPOSITORY);
+    }
+
+    @Test
+    void enqueue_retriesConflictWhileHeadUnchanged() {
+        queue = synchronousQueue();
+        when(gitHubClient.pullRequestDetails(FIRST)).thenReturn(pullRequest("sha1"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1"))
+            .thenReturn(MergeResult.failure(409))
+            .thenReturn(merged());
+
+        final MergeTicket ticket = queue.enqueue(FIRST, "sha1");
+
+        assertThat(ticket.status().state()).isEqualTo(MergeTicketState.MERGED);
+    }
+
+    @Test
+    void enqueue_noRetryIfHeadMovedSinceQueued() {
+        queue = synchronousQueue();
+        when(gitHubClient.pullRequestDetails(FIRST)).thenReturn(pullRequest("sha2"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1")).thenReturn(MergeResult.failure(409));
+
+        final MergeTicket ticket = queue.enqueue(FIRST, "sha1");
+
+        assertThat(ticket.status().state()).isEqualTo(MergeTicketState.FAILED);
+        verify(gitHubClient, times(1)).merge(eq(FIRST), anyString(), anyString());
+    }
+
+    @Test
+    void enqueue_boundedAttempts() {
+        properties.getMergeQueue().setMaxAttempts(2);
+        queue = synchronousQueue();
+        when(gitHubClient.pullRequestDetails(FIRST)).thenReturn(pullRequest("sha1"));
+        when(gitHubClient.merge(FIRST, properties.getMergeMessage(), "sha1")).thenReturn(MergeResult.failure(409));
+
+        final MergeTicket ticket = queue.enqueue(FIRST, "sha1");
+
+        assertThat(ticket.status().state()).isEqualTo(MergeTicketState.FAILED);
+        verify(gitHubClient, times(2)).merge(FIRST, properties.getMergeMessage(), "sha1");
+    }
+
+    @Test
+    void enqueue_serializesPerRepository() {
+        queue = new MergeQueue(gitHubClient, new TaskExecutorAdapter(tasks::add), pullRequestSync, properties);
+        when(gitHubClient.merge(eq(FIRST), anyString(), eq("sha1"))).thenReturn(merged());
+        when(gitHubClient.merge(eq(SECOND), anyString(), eq("sha2"))).thenReturn(merged());
+        when(gitHubClient.merge(eq(OTHER_REPOSITORY), anyString(), eq("sha3"))).thenReturn(merged());
+
+        final MergeTicket first = queue.enqueue(FIRST, "sha1");
+        final MergeTicket second = queue.enqueue(SECOND, "sha2");
+        final MergeTicket other = queue.enqueue(OTHER_REPOSITORY, "sha3");
+
+        // one worker per repository
+        assertThat(tasks).hasSize(2);
+        assertThat(first.status().position()).isZero();
+        assertThat(second.status().position()).isEqualTo(1);
+        assertThat(other.status().position()).isZero();
+
+        tasks.forEach(Runnable::run);
+
+        assertThat(first.status().state()).isEqualTo(MergeTicketState.MERGED);
+        assertThat(second.status().state()).isEqualTo(MergeTicketState.MERGED);
+        assertThat(other.status().state()).isEqualTo(MergeTicketState.MERGED);
+    }
+
+    @Test
+    void enqueue_queueFull() {
+        properties.getMergeQueue().setMaxQueueLength(1);
+        queue = new MergeQueue(gitHubClient, new TaskExecutorAdapter(tasks::add), pullRequestSync, properties);
+
+        queue.enqueue(FIRST, "sha1");
+
+        assertThatThrownBy(() -> queue.enqueue(SECOND, "sha2")).isInstanceOf(ResponseStatusException.class);
+    }
+
+    @Test
+    void find_onlyOwnTickets() {
+        queue = new MergeQueue(gitHubClient, new TaskExecutorAdapter(tasks::add), pullRequestSync, properties);
+        final MergeTicket ticket = queue.enqueue(FIRST, "sha1");
+
+        assertThat(queue.find(ticket.getId())).containsSame(ticket);
+
+        SecurityContextHolder.getContext()
+            .setAuthentication(new UsernamePasswordAuthenticationToken("hubot", "token", Collections.emptyList()));
+        assertThat(queue.find(ticket.getId())).isEmpty();
+    }
+
+    private MergeQueue synchronousQueue() {
+        return new MergeQueue(gitHubClient, new TaskExecutorAdapter(Runnable::run), pullRequestSync, properties);
+    }
+
+    private static MergeResult merged() {
+        return MergeResult.of(new MergeResponse("merge-sha", true, "Pull Request successfully merged"));
+    }
+
+    private static PullRequest pullRequest(String sha) {
+        return new PullRequest(1L, 1L, null, "title", null, PullRequest.State.OPEN, null,
+            new BranchInfo("octocat:feature", "feature", sha), null, null, true, false, null);
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.andreaseisele.pullmann.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.GitHubUnauthorizedEvent;
+import com.andreaseisele.pullmann.github.result.RepositoryResult;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+class RepositoryListCacheTest {
+
+    private static final UsernamePasswordAuthenticationToken AUTHENTICATION =
+        new UsernamePasswordAuthenticationToken("octocat", "token", Collections.emptyList());
+
+    @Mock
+    private GitHubClient gitHubClient;
+
+    private GitHubProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        SecurityContextHolder.getContext().setAuthentication(AUTHENTICATION);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void get_servesCachedPage() {
+        final RepositoryResult result = RepositoryResult.empty();
+        when(gitHubClient.userReposAsync(1)).thenReturn(CompletableFuture.completedFuture(result));
+        final RepositoryListCache cache = new RepositoryListCache(gitHubClient, properties);
+
+        assertThat(cache.get(1)).isCompletedWithValue(result);
+        assertThat(cache.get(1)).isCompletedWithValue(result);
+
+        verify(gitHubClient, times(1)).userReposAsync(1);
+    }
+
+    @Test
+    void get_servesStalePageWhileRefreshing() {
+        properties.getRepositoryListCache().setRefreshAfterSeconds(1);
+        final RepositoryResult stale = RepositoryResult.empty();
+        final RepositoryResult fresh = RepositoryResult.empty();
+        final CompletableFuture<RepositoryResult> refresh = new CompletableFuture<>();
+        when(gitHubClient.userReposAsync(1))
+            .thenReturn(CompletableFuture.completedFuture(stale))
+            .thenReturn(refresh);
+        final RepositoryListCache cache = new RepositoryListCache(gitHubClient, properties);
+
+        assertThat(cache.get(1)).isCompletedWithValue(stale);
+        await().pollDelay(Duration.ofMillis(1100)).until(() -> true);
+
+        // both trigger (at most) one refresh and get the stale page right away
+        assertThat(cache.get(1)).isCompletedWithValue(stale);
+        assertThat(cache.get(1)).isCompletedWithValue(stale);
+
+        refresh.complete(fresh);
+        await().pollInSameThread().atMost(Duration.ofSeconds(5)).until(() -> cache.get(1).getNow(null) == fresh);
+        verify(gitHubClient, times(2)).userReposAsync(1);
+    }
+
+    @Test
+    void onUnauthorized_evictsUsersPages() {
+        final RepositoryResult result = RepositoryResult.empty();
+        when(gitHubClient.userReposAsync(1)).thenReturn(CompletableFuture.completedFuture(result));
+        final RepositoryListCache cache = new RepositoryListCache(gitHubClient, properties);
+
+        cache.get(1);
+        cache.onUnauthorized(new GitHubUnauthorizedEvent(GitHubClient.buildCredentials(AUTHENTICATION)));
+        cache.get(1);
+
+        verify(gitHubClient, times(2)).userReposAsync(1);
+    }
+
+    @Test
+    void get_disabled() {
+        properties.getRepositoryListCache().setEnabled(false);
+        when(gitHubClient.userReposAsync(1)).thenReturn(CompletableFuture.completedFuture(RepositoryResult.empty()));
+        final RepositoryListCache cache = new RepositoryListCache(gitHubClient, properties);
+
+        cache.get(1);
+        cache.get(1);
+
+        verify(gitHubClient, times(2)).userReposAsync(1);
+    }
+
+}
@@ -0,0 +1,188 @@
+package com.andreaseisele.pullmann.sync;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubClient;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.dto.BranchInfo;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.github.dto.PullRequestSummary;
+import com.andreaseisele.pullmann.github.error.GitHubHttpStatusException;
+import com.andreaseisele.pullmann.github.result.PullRequestResult;
+import com.andreaseisele.pullmann.github.result.PullRequestSummaryResult;
+import com.andreaseisele.pullmann.search.PullRequestIndex;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+@ExtendWith(MockitoExtension.class)
+class PullRequestSyncTest {
+
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+    private static final Instant T0 = Instant.parse("2022-08-01T10:00:00Z");
+    private static final String LINK_NEXT =
+        "<https://api.github.com/repos/octocat/Hello-World/pulls?page=2>; rel=\"next\", "
+            + "<https://api.github.com/repos/octocat/Hello-World/pulls?page=2>; rel=\"last\"";
+
+    @Mock
+    private GitHubClient gitHubClient;
+
+    @Mock
+    private PullRequestIndex pullRequestIndex;
+
+    private GitHubProperties properties;
+    private AsyncTaskExecutor executor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        executor = new TaskExecutorAdapter(Runnable::run);
+        properties.getPullRequestSync().setPerPage(2);
+        SecurityContextHolder.getContext().setAuthentication(
+            new UsernamePasswordAuthenticationToken("octocat", "token", Collections.emptyList()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void page_initialSyncFetchesAllPages() {
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 2))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(2, 20), pullRequest(3, 10)), 1, LINK_NEXT));
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 2, 2))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(1, 5)), 2, null));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        final PullRequestSummaryResult result = sync.page(REPOSITORY, 1);
+
+        assertThat(result.getList()).extracting(PullRequestSummary::number).containsExactly(3L, 2L, 1L);
+        assertThat(result.getPage()).isEqualTo(1);
+        assertThat(result.getMaxPages()).isEqualTo(1);
+        // indexed page by page
+        verify(pullRequestIndex).update(REPOSITORY, List.of(pullRequest(2, 20), pullRequest(3, 10)));
+        verify(pullRequestIndex).update(REPOSITORY, List.of(pullRequest(1, 5)));
+    }
+
+    @Test
+    void page_initialSyncRunsInBackground() {
+        final List<Runnable> tasks = new ArrayList<>();
+        executor = new TaskExecutorAdapter(tasks::add);
+        final PullRequestSummaryResult fromGitHub = PullRequestSummaryResult.empty();
+        when(gitHubClient.pullRequestSummariesForRepo(REPOSITORY, 1)).thenReturn(fromGitHub);
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 2))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(1, 10)), 1, null));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        // the page is asked from GitHub until the local copy is complete, the sync is only started once
+        assertThat(sync.page(REPOSITORY, 1)).isSameAs(fromGitHub);
+        assertThat(sync.page(REPOSITORY, 1)).isSameAs(fromGitHub);
+        assertThat(tasks).hasSize(1);
+        verify(gitHubClient, never()).pullRequestsByUpdated(eq(REPOSITORY), anyInt(), anyInt());
+
+        tasks.get(0).run();
+
+        assertThat(sync.page(REPOSITORY, 1).getList()).extracting(PullRequestSummary::number).containsExactly(1L);
+        verify(gitHubClient, times(2)).pullRequestSummariesForRepo(REPOSITORY, 1);
+    }
+
+    @Test
+    void page_failedInitialSyncIsRetried() {
+        final List<Runnable> tasks = new ArrayList<>();
+        executor = new TaskExecutorAdapter(tasks::add);
+        when(gitHubClient.pullRequestSummariesForRepo(REPOSITORY, 1)).thenReturn(PullRequestSummaryResult.empty());
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 2))
+            .thenThrow(new GitHubHttpStatusException(500, "server error"));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        sync.page(REPOSITORY, 1);
+        tasks.get(0).run();
+        sync.page(REPOSITORY, 1);
+
+        assertThat(tasks).hasSize(2);
+    }
+
+    @Test
+    void page_incrementalSyncStopsAtWatermark() {
+        properties.getPullRequestSync().setIntervalSeconds(0);
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 2))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(2, 20), pullRequest(1, 10)), 1, null))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(1, 30), pullRequest(2, 20)), 1, LINK_NEXT));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+        sync.page(REPOSITORY, 1);
+
+        final PullRequestSummaryResult result = sync.page(REPOSITORY, 1);
+
+        assertThat(result.getList()).extracting(PullRequestSummary::updatedAt)
+            .containsExactly(T0.plusSeconds(20), T0.plusSeconds(30));
+        verify(gitHubClient, never()).pullRequestsByUpdated(eq(REPOSITORY), eq(2), anyInt());
+    }
+
+    @Test
+    void page_withinIntervalServedLocally() {
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 2))
+            .thenReturn(PullRequestResult.of(List.of(pullRequest(1, 10)), 1, null));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        sync.page(REPOSITORY, 1);
+        final PullRequestSummaryResult result = sync.page(REPOSITORY, 1);
+
+        assertThat(result.getList()).hasSize(1);
+        verify(gitHubClient).pullRequestsByUpdated(REPOSITORY, 1, 2);
+    }
+
+    @Test
+    void page_paginatesLocalCopy() {
+        properties.getPullRequestSync().setPerPage(100);
+        final List<PullRequest> pullRequests = LongStream.rangeClosed(1, PullRequestSync.PAGE_SIZE + 5)
+            .mapToObj(number -> pullRequest(number, number))
+            .toList();
+        when(gitHubClient.pullRequestsByUpdated(REPOSITORY, 1, 100))
+            .thenReturn(PullRequestResult.of(pullRequests, 1, null));
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        final PullRequestSummaryResult result = sync.page(REPOSITORY, 2);
+
+        assertThat(result.getList()).extracting(PullRequestSummary::number).containsExactly(5L, 4L, 3L, 2L, 1L);
+        assertThat(result.getMaxPages()).isEqualTo(2);
+        assertThat(sync.page(REPOSITORY, 3).getList()).isEmpty();
+    }
+
+    @Test
+    void page_disabled() {
+        properties.getPullRequestSync().setEnabled(false);
+        final PullRequestSummaryResult expected = PullRequestSummaryResult.empty();
+        when(gitHubClient.pullRequestSummariesForRepo(REPOSITORY, 1)).thenReturn(expected);
+        final PullRequestSync sync = new PullRequestSync(gitHubClient, pullRequestIndex, executor, properties);
+
+        assertThat(sync.page(REPOSITORY, 1)).isSameAs(expected);
+    }
+
+    private static PullRequest pullRequest(long number, long updatedSecondsAfterT0) {
+        return new PullRequest(number, number, null, "PR " + number, null, PullRequest.State.OPEN, null,
+            new BranchInfo("octocat:topic-" + number, "topic-" + number, null), null, null, null, false,
+            T0.plusSeconds(updatedSecondsAfterT0));
+    }
+
+}
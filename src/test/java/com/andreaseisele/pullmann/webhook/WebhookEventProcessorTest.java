@@ -0,0 +1,111 @@
+package com.andreaseisele.pullmann.webhook;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+
+import com.andreaseisele.pullmann.config.HttpConfig;
+import com.andreaseisele.pullmann.domain.RepositoryName;
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.andreaseisele.pullmann.github.cache.PermissionCache;
+import com.andreaseisele.pullmann.github.dto.PullRequest;
+import com.andreaseisele.pullmann.service.RepositoryListCache;
+import com.andreaseisele.pullmann.sync.PullRequestSync;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookEventProcessorTest {
+
+    private static final RepositoryName REPOSITORY = new RepositoryName("octocat", "Hello-World");
+
+    @Mock
+    private PullRequestSync pullRequestSync;
+
+    @Mock
+    private PermissionCache permissionCache;
+
+    @Mock
+    private RepositoryListCache repositoryListCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ObjectMapper objectMapper;
+    private WebhookEventProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new HttpConfig(new GitHubProperties(), null).githubObjectMapper();
+        processor = new WebhookEventProcessor(objectMapper,
+            pullRequestSync,
+            permissionCache,
+            repositoryListCache,
+            eventPublisher);
+    }
+
+    @Test
+    void process_pullRequest() throws IOException {
+        processor.process(event("pull_request", "pull_request_edited.json"));
+
+        final ArgumentCaptor<PullRequest> pullRequest = ArgumentCaptor.forClass(PullRequest.class);
+        verify(pullRequestSync).push(eq(REPOSITORY), pullRequest.capture());
+        assertThat(pullRequest.getValue().number()).isEqualTo(1347L);
+        assertThat(pullRequest.getValue().title()).isEqualTo("Amazing new feature, now with tests");
+        assertThat(pullRequest.getValue().updatedAt()).isEqualTo(Instant.parse("2022-08-20T12:34:56Z"));
+        verify(eventPublisher).publishEvent(new RepositoryChangedEvent(REPOSITORY, "pull_request", 1347L));
+    }
+
+    @Test
+    void process_push() throws IOException {
+        processor.process(event("push", "push.json"));
+
+        verify(pullRequestSync).markDue(REPOSITORY);
+        verifyNoInteractions(permissionCache, repositoryListCache);
+        verify(eventPublisher).publishEvent(new RepositoryChangedEvent(REPOSITORY, "push", null));
+    }
+
+    @Test
+    void process_member() throws IOException {
+        processor.process(event("member", "member_added.json"));
+
+        verify(permissionCache).evictRepository(REPOSITORY);
+        verify(pullRequestSync).markDue(REPOSITORY);
+        verify(repositoryListCache).invalidateUser("hubot");
+        verify(eventPublisher).publishEvent(new RepositoryChangedEvent(REPOSITORY, "member", null));
+    }
+
+    @Test
+    void process_failureIsNotPublished() throws IOException {
+        doThrow(new IllegalStateException("index closed")).when(pullRequestSync).push(eq(REPOSITORY), any());
+
+        processor.process(event("pull_request", "pull_request_edited.json"));
+
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void process_withoutRepository() {
+        processor.process(new WebhookEvent("push", null, objectMapper.createObjectNode()));
+
+        verifyNoInteractions(pullRequestSync, eventPublisher);
+    }
+
+    private WebhookEvent event(String type, String payload) throws IOException {
+        return new WebhookEvent(type, "delivery", objectMapper.readTree(WebhookPayloads.read(payload)));
+    }
+
+}
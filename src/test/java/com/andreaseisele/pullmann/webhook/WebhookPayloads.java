@@ -0,0 +1,26 @@
+package com.andreaseisele.pullmann.webhook;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+
+/**
+ * Recorded webhook deliveries from 'src/test/resources/webhooks'.
+ */
+final class WebhookPayloads {
+
+    private WebhookPayloads() {
+    }
+
+    static byte[] read(String name) {
+        try (InputStream in = WebhookPayloads.class.getResourceAsStream("/webhooks/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("no recorded payload " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
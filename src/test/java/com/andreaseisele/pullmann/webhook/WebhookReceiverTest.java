@@ -0,0 +1,108 @@
+package com.andreaseisele.pullmann.webhook;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+
+import com.andreaseisele.pullmann.github.GitHubProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+
+@ExtendWith(MockitoExtension.class)
+class WebhookReceiverTest {
+
+    private static final String SECRET = "changeme";
+    private static final byte[] PULL_REQUEST_EDITED = WebhookPayloads.read("pull_request_edited.json");
+
+    @Mock
+    private WebhookEventProcessor processor;
+
+    private GitHubProperties properties;
+    private WebhookReceiver receiver;
+
+    @BeforeEach
+    void setUp() {
+        properties = new GitHubProperties();
+        properties.getWebhook().setSecret(SECRET);
+        receiver = receiver(new TaskExecutorAdapter(Runnable::run));
+    }
+
+    @Test
+    void receive_accepted() {
+        final WebhookReceiver.Receipt receipt = receiver.receive("pull_request",
+            "72d3162e-cc78-11e3-81ab-4c9367dc0958",
+            WebhookSignature.sign(SECRET, PULL_REQUEST_EDITED),
+            PULL_REQUEST_EDITED);
+
+        assertThat(receipt).isEqualTo(WebhookReceiver.Receipt.ACCEPTED);
+        final ArgumentCaptor<WebhookEvent> event = ArgumentCaptor.forClass(WebhookEvent.class);
+        verify(processor).process(event.capture());
+        assertThat(event.getValue().type()).isEqualTo("pull_request");
+        assertThat(event.getValue().deliveryId()).isEqualTo("72d3162e-cc78-11e3-81ab-4c9367dc0958");
+        assertThat(event.getValue().payload().path("action").asText()).isEqualTo("edited");
+    }
+
+    @Test
+    void receive_invalidSignature() {
+        final WebhookReceiver.Receipt receipt = receiver.receive("pull_request",
+            null,
+            WebhookSignature.sign("guessed", PULL_REQUEST_EDITED),
+            PULL_REQUEST_EDITED);
+
+        assertThat(receipt).isEqualTo(WebhookReceiver.Receipt.INVALID_SIGNATURE);
+        verifyNoInteractions(processor);
+    }
+
+    @Test
+    void receive_disabledWithoutSecret() {
+        properties.getWebhook().setSecret(null);
+        receiver = receiver(new TaskExecutorAdapter(Runnable::run));
+
+        assertThat(receiver.receive("pull_request", null, null, PULL_REQUEST_EDITED))
+            .isEqualTo(WebhookReceiver.Receipt.DISABLED);
+    }
+
+    @Test
+    void receive_ignoresUnsupportedTypes() {
+        final byte[] ping = "{\"zen\":\"Keep it logically awesome.\"}".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(receiver.receive("ping", null, WebhookSignature.sign(SECRET, ping), ping))
+            .isEqualTo(WebhookReceiver.Receipt.IGNORED);
+        verifyNoInteractions(processor);
+    }
+
+    @Test
+    void receive_malformed() {
+        final byte[] body = "{\"action\":".getBytes(StandardCharsets.UTF_8);
+
+        assertThat(receiver.receive("push", null, WebhookSignature.sign(SECRET, body), body))
+            .isEqualTo(WebhookReceiver.Receipt.MALFORMED);
+    }
+
+    @Test
+    void receive_queueFull(@Mock AsyncTaskExecutor executor) {
+        doThrow(new TaskRejectedException("queue full")).when(executor).execute(any(Runnable.class));
+        receiver = receiver(executor);
+
+        assertThat(receiver.receive("pull_request", null, WebhookSignature.sign(SECRET, PULL_REQUEST_EDITED),
+            PULL_REQUEST_EDITED)).isEqualTo(WebhookReceiver.Receipt.QUEUE_FULL);
+        verifyNoInteractions(processor);
+    }
+
+    private WebhookReceiver receiver(AsyncTaskExecutor executor) {
+        return new WebhookReceiver(properties, new ObjectMapper(), executor, processor);
+    }
+
+}
@@ -0,0 +1,38 @@
+package com.andreaseisele.pullmann.webhook;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+class WebhookSignatureTest {
+
+    // test vector from GitHubs webhook documentation
+    private static final String SECRET = "It's a Secret to Everybody";
+    private static final byte[] PAYLOAD = "Hello, World!".getBytes(StandardCharsets.UTF_8);
+    private static final String SIGNATURE = "sha256=757107ea0eb2509fc211221cce984b8a37570b6d7586c22c46f4379c8b043e17";
+
+    @Test
+    void sign() {
+        assertThat(WebhookSignature.sign(SECRET, PAYLOAD)).isEqualTo(SIGNATURE);
+    }
+
+    @Test
+    void isValid() {
+        assertThat(WebhookSignature.isValid(SECRET, PAYLOAD, SIGNATURE)).isTrue();
+        assertThat(WebhookSignature.isValid(SECRET, PAYLOAD, SIGNATURE.toUpperCase().replace("SHA256", "sha256")))
+            .isTrue();
+    }
+
+    @Test
+    void isValid_mismatch() {
+        assertThat(WebhookSignature.isValid("another secret", PAYLOAD, SIGNATURE)).isFalse();
+        assertThat(WebhookSignature.isValid(SECRET, "Hello, World?".getBytes(StandardCharsets.UTF_8), SIGNATURE))
+            .isFalse();
+        assertThat(WebhookSignature.isValid(SECRET, PAYLOAD, "sha1=757107ea0eb2509fc211221cce984b8a37570b6d"))
+            .isFalse();
+        assertThat(WebhookSignature.isValid(SECRET, PAYLOAD, null)).isFalse();
+    }
+
+}